@@ -0,0 +1,203 @@
+package io.github.qwzhang01.dsecurity.apt;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Annotation processor that indexes {@code @EncryptField} at compile time.
+ *
+ * <p>For every class declaring encrypted fields it writes one line per field
+ * to {@value #INDEX_RESOURCE}: class, table, whether the class is flat,
+ * field, column and algorithm, separated by tabs. The table and column come
+ * from MyBatis-Plus {@code @TableName}/{@code @TableField} when present. A
+ * class is flat when none of its fields, including inherited ones, can hold
+ * a nested object, so its encrypted fields can be decrypted without walking
+ * the object graph.</p>
+ *
+ * <p>The processor is registered as a service and runs in every module that
+ * compiles against this library, unless the build sets an explicit
+ * processor path; in that case add this library to it.</p>
+ *
+ * @author avinzhang
+ */
+@SupportedAnnotationTypes(EncryptFieldIndexProcessor.ENCRYPT_FIELD)
+public class EncryptFieldIndexProcessor extends AbstractProcessor {
+    /**
+     * Location of the generated index in the class output.
+     */
+    public static final String INDEX_RESOURCE =
+            "META-INF/seven-data-security/encrypt-fields.idx";
+    static final String ENCRYPT_FIELD =
+            "io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField";
+    private static final String TABLE_NAME =
+            "com.baomidou.mybatisplus.annotation.TableName";
+    private static final String TABLE_FIELD =
+            "com.baomidou.mybatisplus.annotation.TableField";
+    private static final String DEFAULT_ALGO =
+            "io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo";
+    private static final Set<String> SIMPLE_TYPES = Set.of(
+            "java.lang.String", "java.lang.Boolean", "java.lang.Byte",
+            "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Float", "java.lang.Double", "java.lang.Character",
+            "java.math.BigDecimal", "java.math.BigInteger", "java.util.Date",
+            "java.util.UUID");
+
+    /**
+     * Index lines by class, kept across rounds and written once.
+     */
+    private final Map<String, List<String>> lines = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+                           RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        TypeElement encryptField =
+                processingEnv.getElementUtils().getTypeElement(ENCRYPT_FIELD);
+        if (encryptField == null) {
+            return false;
+        }
+        for (VariableElement field :
+                ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(encryptField))) {
+            index(field);
+        }
+        return false;
+    }
+
+    private void index(VariableElement field) {
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        String className = elements.getBinaryName(owner).toString();
+        String table = stringValue(owner, TABLE_NAME, "value");
+        String column = stringValue(field, TABLE_FIELD, "value");
+        if (column.isEmpty()) {
+            column = field.getSimpleName().toString();
+        }
+        String algo = DEFAULT_ALGO;
+        AnnotationMirror mirror = mirror(field, ENCRYPT_FIELD);
+        if (mirror != null) {
+            AnnotationValue value = value(mirror, "value");
+            if (value != null && value.getValue() instanceof DeclaredType type) {
+                algo = elements.getBinaryName((TypeElement) type.asElement()).toString();
+            }
+        }
+        lines.computeIfAbsent(className, k -> new ArrayList<>())
+                .add(String.join("\t", className, table,
+                        Boolean.toString(isFlat(owner)),
+                        field.getSimpleName().toString(), column, algo));
+    }
+
+    /**
+     * Checks that no field of the class or its superclasses can reference a
+     * nested object.
+     */
+    private boolean isFlat(TypeElement type) {
+        TypeElement current = type;
+        while (current != null
+                && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)
+                        && !isSimple(field.asType())) {
+                    return false;
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return true;
+    }
+
+    private boolean isSimple(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        return element.getKind() == ElementKind.ENUM
+                || SIMPLE_TYPES.contains(name)
+                || name.startsWith("java.time.")
+                || name.startsWith("java.sql.");
+    }
+
+    private static AnnotationMirror mirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String stringValue(Element element, String annotation,
+                                      String name) {
+        AnnotationMirror mirror = mirror(element, annotation);
+        if (mirror == null) {
+            return "";
+        }
+        AnnotationValue value = value(mirror, name);
+        return value == null ? "" : String.valueOf(value.getValue()).trim();
+    }
+
+    private void writeIndex() {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject resource = filer.createResource(
+                    StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = new OutputStreamWriter(
+                    resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# class\ttable\tflat\tfield\tcolumn\talgo\n");
+                for (List<String> classLines : lines.values()) {
+                    for (String line : classLines) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.qwzhang01.dsecurity.domain;
 
 import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.reflection.MetaObject;
 
 import java.util.Map;
@@ -12,11 +13,12 @@ import java.util.Map;
  * including the table/field metadata, original value, encryption algorithm,
  * and parameter location information for restoration.</p>
  *
- * <p>It supports three types of parameter sources:</p>
+ * <p>It supports these parameter sources:</p>
  * <ul>
  *   <li>Map parameters (typical MyBatis parameter maps)</li>
  *   <li>Object parameters (entity objects)</li>
  *   <li>QueryWrapper parameters (MyBatis-Plus wrapper objects)</li>
+ *   <li>Additional BoundSql parameters (foreach items)</li>
  * </ul>
  *
  * @author avinzhang
@@ -40,6 +42,9 @@ public class ParameterEncryptInfo {
     private boolean isQueryWrapperParam = false;
     private String queryWrapperParamName;
 
+    // Additional parameter fields (foreach items), keyed by parameterKey
+    private BoundSql boundSql;
+
     // Getters and Setters
     public String getTableName() {
         return tableName;
@@ -128,4 +133,12 @@ public class ParameterEncryptInfo {
     public void setQueryWrapperParamName(String queryWrapperParamName) {
         this.queryWrapperParamName = queryWrapperParamName;
     }
+
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+
+    public void setBoundSql(BoundSql boundSql) {
+        this.boundSql = boundSql;
+    }
 }
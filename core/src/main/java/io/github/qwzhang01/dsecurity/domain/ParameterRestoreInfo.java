@@ -1,5 +1,6 @@
 package io.github.qwzhang01.dsecurity.domain;
 
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.reflection.MetaObject;
 
 import java.util.Map;
@@ -12,11 +13,12 @@ import java.util.Map;
  * {@link ParameterEncryptInfo} to ensure parameters are encrypted only during
  * SQL execution and restored afterward.</p>
  *
- * <p>The restoration process supports the same three parameter types:</p>
+ * <p>The restoration process supports the same parameter types:</p>
  * <ul>
  *   <li>Map parameters</li>
  *   <li>Object parameters</li>
  *   <li>QueryWrapper parameters</li>
+ *   <li>Additional BoundSql parameters</li>
  * </ul>
  *
  * @author avinzhang
@@ -38,6 +40,9 @@ public class ParameterRestoreInfo {
     private boolean isQueryWrapperParam = false;
     private String queryWrapperParamName;
 
+    // Additional parameter fields (foreach items), keyed by parameterKey
+    private BoundSql boundSql;
+
     // Getters and Setters
     public String getOriginalValue() {
         return originalValue;
@@ -102,4 +107,12 @@ public class ParameterRestoreInfo {
     public void setQueryWrapperParamName(String queryWrapperParamName) {
         this.queryWrapperParamName = queryWrapperParamName;
     }
+
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+
+    public void setBoundSql(BoundSql boundSql) {
+        this.boundSql = boundSql;
+    }
 }
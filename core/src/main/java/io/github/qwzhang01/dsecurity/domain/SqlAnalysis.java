@@ -0,0 +1,62 @@
+package io.github.qwzhang01.dsecurity.domain;
+
+import io.github.qwzhang01.sql.tool.model.SqlParam;
+import io.github.qwzhang01.sql.tool.model.SqlTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of analyzing one SQL statement for parameter encryption.
+ *
+ * <p>Holds the names of the tables referenced by the statement and, for
+ * every {@code ?} placeholder in order, the column it is compared with or
+ * assigned to (null when the placeholder is not bound to a column).</p>
+ *
+ * @param tables       names of the tables referenced by the statement
+ * @param paramColumns column of each placeholder, by position
+ * @author avinzhang
+ */
+public record SqlAnalysis(List<String> tables, List<String> paramColumns) {
+
+    /**
+     * Analysis of a statement that references no table.
+     */
+    public static final SqlAnalysis EMPTY =
+            new SqlAnalysis(Collections.emptyList(), Collections.emptyList());
+
+    public SqlAnalysis {
+        tables = List.copyOf(tables);
+        paramColumns = Collections.unmodifiableList(new ArrayList<>(paramColumns));
+    }
+
+    /**
+     * Creates an analysis from the SQL parser model.
+     *
+     * @param tables the tables found by the parser
+     * @param params the parameters found by the parser
+     * @return the analysis
+     */
+    public static SqlAnalysis of(List<SqlTable> tables, List<SqlParam> params) {
+        if (tables == null || tables.isEmpty() || params == null || params.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> tableNames = new ArrayList<>(tables.size());
+        for (SqlTable table : tables) {
+            tableNames.add(table.getName());
+        }
+        List<String> columns = new ArrayList<>(params.size());
+        for (SqlParam param : params) {
+            columns.add(param.getColumn());
+        }
+        return new SqlAnalysis(tableNames, columns);
+    }
+
+    /**
+     * @return true if there is nothing to encrypt in this statement
+     */
+    public boolean isEmpty() {
+        return tables.isEmpty() || paramColumns.isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.qwzhang01.dsecurity.encrypt.annotation;
+
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares that a mapper method parameter is bound to an encrypted column.
+ *
+ * <p>Statements of an annotated mapper method do not go through SQL parsing
+ * and name matching: only the declared parameters are encrypted, exactly as
+ * declared. Hints are resolved against the MyBatis mapped statements at
+ * startup.</p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * public interface UserMapper extends BaseMapper&lt;User&gt; {
+ *     {@code @EncryptHint(param = "phone", table = "user", column = "phone")}
+ *     User findByPhone(String phone);
+ *
+ *     {@code @EncryptHint(param = "query.idCard", algo = IdCardAlgo.class)}
+ *     {@code @EncryptHint(param = "item", table = "user", column = "phone")}
+ *     List&lt;User&gt; search(@Param("query") UserQuery query,
+ *                       @Param("phones") List&lt;String&gt; phones);
+ * }
+ * </pre>
+ *
+ * <p>{@link #param()} is the property used in {@code #{...}}. Items of a
+ * {@code <foreach>} are referred to by their {@code item} name.</p>
+ *
+ * @author avinzhang
+ * @see EncryptField
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Repeatable(EncryptHints.class)
+public @interface EncryptHint {
+
+    /**
+     * The parameter property as written in {@code #{...}}, for example
+     * {@code phone} or {@code query.phone}.
+     *
+     * @return the parameter property
+     */
+    String param();
+
+    /**
+     * The table of the encrypted column. Required unless {@link #algo()} is
+     * set.
+     *
+     * @return the table name
+     */
+    String table() default "";
+
+    /**
+     * The encrypted column. Required unless {@link #algo()} is set.
+     *
+     * @return the column name
+     */
+    String column() default "";
+
+    /**
+     * The encryption algorithm. If not specified, the algorithm of the
+     * {@link EncryptField} mapped to {@link #table()}.{@link #column()} is
+     * used.
+     *
+     * @return the encryption algorithm class
+     */
+    Class<? extends EncryptionAlgo> algo() default EncryptionAlgo.class;
+}
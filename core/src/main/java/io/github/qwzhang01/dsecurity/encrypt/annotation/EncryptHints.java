@@ -0,0 +1,16 @@
+package io.github.qwzhang01.dsecurity.encrypt.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Container for repeated {@link EncryptHint} annotations.
+ *
+ * @author avinzhang
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EncryptHints {
+
+    EncryptHint[] value();
+}
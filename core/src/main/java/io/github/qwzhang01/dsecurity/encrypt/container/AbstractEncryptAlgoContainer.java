@@ -3,7 +3,7 @@ package io.github.qwzhang01.dsecurity.encrypt.container;
 import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
 import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
 import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
-import io.github.qwzhang01.dsecurity.kit.SpringContextUtil;
+import io.github.qwzhang01.dsecurity.kit.BeanLookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,7 +17,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * <ul>
  *   <li>Lazy instantiation with caching to avoid repeated object creation</li>
  *   <li>Thread-safe operations using ConcurrentHashMap</li>
- *   <li>Spring context integration for dependency injection</li>
+ *   <li>{@link BeanLookup} integration for dependency injection</li>
  *   <li>Fallback mechanism to default algorithm on failure</li>
  * </ul>
  *
@@ -37,6 +37,18 @@ public abstract class AbstractEncryptAlgoContainer {
             EncryptionAlgo> ALGO_CACHE
             = new ConcurrentHashMap<>();
 
+    private volatile BeanLookup beanLookup = BeanLookup.NONE;
+
+    /**
+     * Sets where algorithm instances with injected dependencies are looked
+     * up before reflective instantiation.
+     *
+     * @param beanLookup the lookup
+     */
+    public void setBeanLookup(BeanLookup beanLookup) {
+        this.beanLookup = beanLookup == null ? BeanLookup.NONE : beanLookup;
+    }
+
     /**
      * Clears the algorithm cache.
      * Useful for testing scenarios or when algorithms need to be reloaded at
@@ -71,7 +83,7 @@ public abstract class AbstractEncryptAlgoContainer {
      * <p>The algorithm retrieval follows this priority:</p>
      * <ol>
      *   <li>Return cached instance if available</li>
-     *   <li>Try to get bean from Spring context (supports dependency
+     *   <li>Try the {@link BeanLookup} (supports dependency
      *   injection)</li>
      *   <li>Create new instance via reflection</li>
      *   <li>Fallback to default algorithm on failure</li>
@@ -111,15 +123,12 @@ public abstract class AbstractEncryptAlgoContainer {
         log.debug("Creating new instance of encryption algorithm: {}",
                 clazz.getName());
 
-        // Strategy 1: Try to get from Spring context (supports dependency
-        // injection)
-        if (SpringContextUtil.isInitialized()) {
-            EncryptionAlgo algo = SpringContextUtil.getBeanSafely(clazz);
-            if (algo != null) {
-                log.debug("Retrieved encryption algorithm from Spring " +
-                        "context: {}", clazz.getName());
-                return algo;
-            }
+        // Strategy 1: Try the bean lookup (supports dependency injection)
+        EncryptionAlgo algo = beanLookup.getBean(clazz);
+        if (algo != null) {
+            log.debug("Retrieved encryption algorithm from bean lookup: {}",
+                    clazz.getName());
+            return algo;
         }
 
         // Strategy 2: Try direct instantiation via reflection
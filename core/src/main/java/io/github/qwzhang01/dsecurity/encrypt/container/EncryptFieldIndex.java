@@ -0,0 +1,232 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import io.github.qwzhang01.dsecurity.apt.EncryptFieldIndexProcessor;
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Encrypted fields indexed at compile time by
+ * {@link EncryptFieldIndexProcessor}.
+ *
+ * <p>All index resources on the classpath are read once, on first use.
+ * Classes listed here need no reflective annotation scan: the registry takes
+ * their columns from the index, and flat classes are decrypted through their
+ * indexed fields without walking the object graph. Classes compiled without
+ * the processor are simply absent and keep the reflective path.</p>
+ *
+ * <p>Each entry lists the fields its class declares; use
+ * {@link #resolve(Class)} to include inherited fields.</p>
+ *
+ * @author avinzhang
+ */
+public final class EncryptFieldIndex {
+    private static final Logger log =
+            LoggerFactory.getLogger(EncryptFieldIndex.class);
+
+    private final Map<String, IndexedClass> classes;
+
+    private EncryptFieldIndex(Map<String, IndexedClass> classes) {
+        this.classes = classes;
+    }
+
+    public static EncryptFieldIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Reads all index resources visible to a class loader.
+     */
+    static EncryptFieldIndex load(ClassLoader classLoader) {
+        Map<String, IndexedClass> classes = new HashMap<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(
+                    EncryptFieldIndexProcessor.INDEX_RESOURCE);
+            while (resources.hasMoreElements()) {
+                read(resources.nextElement(), classes);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read encrypted field index, falling back to " +
+                    "annotation scanning", e);
+            return new EncryptFieldIndex(Collections.emptyMap());
+        }
+        log.debug("Loaded encrypted field index: {} classes", classes.size());
+        return new EncryptFieldIndex(Map.copyOf(classes));
+    }
+
+    private static void read(URL url, Map<String, IndexedClass> classes) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t", -1);
+                if (parts.length != 6) {
+                    log.warn("Skipping malformed encrypted field index line in {}: {}",
+                            url, line);
+                    continue;
+                }
+                IndexedClass indexedClass = classes.computeIfAbsent(parts[0],
+                        k -> new IndexedClass(parts[0], parts[1],
+                                Boolean.parseBoolean(parts[2])));
+                indexedClass.fields.add(new IndexedField(parts[3], parts[4], parts[5]));
+            }
+        }
+    }
+
+    /**
+     * @return true if no index resource was found
+     */
+    public boolean isEmpty() {
+        return classes.isEmpty();
+    }
+
+    /**
+     * @param clazz the class
+     * @return its index entry, or null if the class was not indexed
+     */
+    public IndexedClass get(Class<?> clazz) {
+        return classes.get(clazz.getName());
+    }
+
+    /**
+     * Returns the encrypted fields of a class, including the fields declared
+     * by its superclasses.
+     *
+     * <p>Superclass entries are merged in; a field redeclared by a subclass
+     * hides the inherited one. A superclass that declares encrypted fields
+     * but has no entry, because it was compiled without the processor,
+     * cannot be described by the index: null is returned so that callers
+     * use the reflective path.</p>
+     *
+     * @param clazz the class
+     * @return the merged entry, or null if the class is not indexed or an
+     * annotated superclass is missing from the index
+     */
+    public IndexedClass resolve(Class<?> clazz) {
+        IndexedClass own = get(clazz);
+        if (own == null) {
+            return null;
+        }
+        Class<?> superclass = clazz.getSuperclass();
+        if (superclass == null || superclass == Object.class) {
+            return own;
+        }
+        IndexedClass merged = new IndexedClass(own.className, own.table, own.flat);
+        merged.fields.addAll(own.fields);
+        Set<String> names = new HashSet<>();
+        own.fields.forEach(field -> names.add(field.field()));
+        for (Class<?> c = superclass; c != null && c != Object.class; c = c.getSuperclass()) {
+            IndexedClass inherited = classes.get(c.getName());
+            if (inherited == null) {
+                if (declaresEncryptedField(c)) {
+                    log.debug("Superclass {} of {} is not indexed, using annotation " +
+                            "scanning", c.getName(), clazz.getName());
+                    return null;
+                }
+                continue;
+            }
+            for (IndexedField field : inherited.fields) {
+                if (names.add(field.field())) {
+                    merged.fields.add(field);
+                }
+            }
+        }
+        return merged.fields.size() == own.fields.size() ? own : merged;
+    }
+
+    private static boolean declaresEncryptedField(Class<?> clazz) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(EncryptField.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return all indexed classes
+     */
+    public Collection<IndexedClass> classes() {
+        return classes.values();
+    }
+
+    /**
+     * A class declaring encrypted fields.
+     */
+    public static final class IndexedClass {
+        private final String className;
+        private final String table;
+        private final boolean flat;
+        private final List<IndexedField> fields = new ArrayList<>();
+
+        private IndexedClass(String className, String table, boolean flat) {
+            this.className = className;
+            this.table = table;
+            this.flat = flat;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * @return the table declared with {@code @TableName}, or empty
+         */
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * @return true if no field of the class can hold a nested object
+         */
+        public boolean isFlat() {
+            return flat;
+        }
+
+        public List<IndexedField> getFields() {
+            return Collections.unmodifiableList(fields);
+        }
+    }
+
+    /**
+     * An encrypted field.
+     *
+     * @param field    the Java field name
+     * @param column   the column name
+     * @param algoName binary name of the algorithm class
+     */
+    public record IndexedField(String field, String column, String algoName) {
+
+        /**
+         * Loads the algorithm class.
+         *
+         * @param classLoader the class loader of the indexed class
+         * @return the algorithm class
+         * @throws ClassNotFoundException if the algorithm is not on the
+         *                                classpath
+         */
+        @SuppressWarnings("unchecked")
+        public Class<? extends EncryptionAlgo> algo(ClassLoader classLoader)
+                throws ClassNotFoundException {
+            return (Class<? extends EncryptionAlgo>) Class.forName(algoName,
+                    false, classLoader);
+        }
+    }
+
+    private static final class Holder {
+        private static final EncryptFieldIndex INSTANCE =
+                load(EncryptFieldIndex.class.getClassLoader());
+    }
+}
@@ -0,0 +1,464 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.AhoCorasickMatcher;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Encrypted field table container for managing encryption metadata.
+ *
+ * <p>This container scans MyBatis-Plus table metadata to identify fields
+ * annotated with {@link EncryptField} and caches their encryption algorithm
+ * information. Entities listed in the compile-time
+ * {@link EncryptFieldIndex} are registered from the index instead of by
+ * reflection.</p>
+ *
+ * <p><strong>Features:</strong></p>
+ * <ul>
+ *   <li>Immutable registry snapshot, swapped atomically on change</li>
+ *   <li>Lock-free reads: a lookup is one probe per index level</li>
+ *   <li>Names matched in their lower-case, upper-case, snake_case and
+ *       camelCase forms, bare or quoted ({@code phoneNumber} =
+ *       {@code `PHONE_NUMBER`}); the forms are keys of the snapshot, so a
+ *       lookup builds no string. Underscores stay significant
+ *       ({@code id_card} &ne; {@code idcard})</li>
+ *   <li>Support for custom table and field names via MyBatis-Plus annotations</li>
+ *   <li>Columns can be registered at runtime, for example from external
+ *       configuration</li>
+ *   <li>Table-name prefilter to skip SQL parsing for unrelated statements</li>
+ * </ul>
+ *
+ * @author avinzhang
+ */
+public class EncryptFieldTableContainer {
+
+    /**
+     * Maximum number of distinct SQL statements whose prefilter verdict is
+     * cached.
+     */
+    private static final int VERDICT_CACHE_SIZE = 4096;
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Canonical form of a table name: lower case, without quotes.
+     */
+    static String normalizeTable(String name) {
+        return normalize(name, false);
+    }
+
+    /**
+     * Canonical form of a column name: lower case, without quotes, with a
+     * camelCase boundary turned into an underscore, so that
+     * {@code phoneNumber} and {@code PHONE_NUMBER} share one key while
+     * {@code id_card} and {@code idcard} stay distinct columns.
+     */
+    static String normalizeColumn(String name) {
+        return normalize(name, true);
+    }
+
+    private static String normalize(String name, boolean splitCamelCase) {
+        if (name == null) {
+            return null;
+        }
+        int length = name.length();
+        int i = 0;
+        // Fast path: already canonical, no copy
+        for (; i < length; i++) {
+            char c = name.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || c == '`' || c == '"' || c == ' ' || c >= 128) {
+                break;
+            }
+        }
+        if (i == length) {
+            return name;
+        }
+        StringBuilder builder = new StringBuilder(length + 4);
+        builder.append(name, 0, i);
+        char previous = i > 0 ? name.charAt(i - 1) : 0;
+        for (; i < length; i++) {
+            char c = name.charAt(i);
+            if (c == '`' || c == '"' || c == ' ') {
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                if (splitCamelCase && ((previous >= 'a' && previous <= 'z')
+                        || (previous >= '0' && previous <= '9'))) {
+                    builder.append('_');
+                }
+                builder.append((char) (c + 32));
+            } else {
+                builder.append(c < 128 ? c : Character.toLowerCase(c));
+            }
+            previous = c;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Forms of a canonical table name a lookup may use.
+     */
+    private static List<String> tableVariants(String table) {
+        return quoted(List.of(table, table.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Forms of a canonical column name a lookup may use: only those that
+     * normalize back to it, so no variant can stand for another column.
+     */
+    private static List<String> columnVariants(String column) {
+        List<String> variants = new ArrayList<>(3);
+        for (String variant : List.of(column, column.toUpperCase(Locale.ROOT),
+                camelCase(column))) {
+            if (!variants.contains(variant) && column.equals(normalizeColumn(variant))) {
+                variants.add(variant);
+            }
+        }
+        return quoted(variants);
+    }
+
+    private static String camelCase(String column) {
+        StringBuilder builder = new StringBuilder(column.length());
+        boolean upper = false;
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c == '_' && i > 0 && i + 1 < column.length()
+                    && column.charAt(i + 1) >= 'a' && column.charAt(i + 1) <= 'z') {
+                upper = true;
+            } else {
+                builder.append(upper ? (char) (c - 32) : c);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static List<String> quoted(List<String> names) {
+        List<String> variants = new ArrayList<>(names.size() * 3);
+        for (String name : names) {
+            if (!variants.contains(name)) {
+                variants.add(name);
+                variants.add('`' + name + '`');
+                variants.add('"' + name + '"');
+            }
+        }
+        return variants;
+    }
+
+    public void init() {
+        if (snapshot.get() != null) {
+            return;
+        }
+        synchronized (this) {
+            if (snapshot.get() != null) {
+                return;
+            }
+            // A concurrent reload or register may have published first
+            snapshot.compareAndSet(null,
+                    new Snapshot(scanTableInfos(), Collections.emptyList()));
+        }
+    }
+
+    /**
+     * Rescans MyBatis-Plus table metadata, keeping registered columns.
+     */
+    public void reload() {
+        Snapshot current;
+        Snapshot next;
+        List<EncryptColumn> scanned = scanTableInfos();
+        do {
+            current = snapshot.get();
+            next = new Snapshot(scanned, current == null
+                    ? Collections.emptyList() : current.registered);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    /**
+     * Registers an encrypted column that is not declared with
+     * {@link EncryptField}, for example from external configuration. The new
+     * registry is published atomically; concurrent readers see either the
+     * old or the new one.
+     *
+     * @param table  the table name
+     * @param column the column name
+     * @param algo   the encryption algorithm, or null for the default
+     */
+    public void register(String table, String column,
+                         Class<? extends EncryptionAlgo> algo) {
+        init();
+        EncryptColumn encryptColumn = new EncryptColumn(table, column, algo);
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            List<EncryptColumn> registered = new ArrayList<>(current.registered);
+            registered.add(encryptColumn);
+            next = new Snapshot(current.scanned, registered);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    private List<EncryptColumn> scanTableInfos() {
+        EncryptFieldIndex fieldIndex = EncryptFieldIndex.getInstance();
+        Set<String> covered = new HashSet<>();
+        List<EncryptColumn> columns = new ArrayList<>();
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            Class<?> entityType = tableInfo.getEntityType();
+            covered.add(entityType.getName());
+            EncryptFieldIndex.IndexedClass indexed = fieldIndex.resolve(entityType);
+            if (indexed != null) {
+                // Indexed at compile time: no annotation reflection needed
+                addIndexedColumns(tableInfo.getTableName(), indexed,
+                        entityType.getClassLoader(), columns);
+                continue;
+            }
+            // The field list includes inherited fields
+            for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+                EncryptField encryptField =
+                        fieldInfo.getField().getAnnotation(EncryptField.class);
+                if (encryptField != null) {
+                    columns.add(getEncryptColumn(tableInfo, fieldInfo,
+                            encryptField));
+                }
+            }
+        }
+        // Indexed entities with an explicit table and no mapper yet
+        ClassLoader classLoader = EncryptFieldIndex.class.getClassLoader();
+        for (EncryptFieldIndex.IndexedClass indexed : fieldIndex.classes()) {
+            if (covered.contains(indexed.getClassName()) || indexed.getTable().isEmpty()) {
+                continue;
+            }
+            Class<?> entityType = loadClass(indexed.getClassName(), classLoader);
+            EncryptFieldIndex.IndexedClass resolved = entityType == null
+                    ? indexed : fieldIndex.resolve(entityType);
+            if (resolved != null) {
+                addIndexedColumns(indexed.getTable(), resolved, classLoader, columns);
+            } else {
+                addAnnotatedColumns(indexed.getTable(), entityType, columns);
+            }
+        }
+        return columns;
+    }
+
+    private static Class<?> loadClass(String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Stale index entry: keep the indexed fields
+            return null;
+        }
+    }
+
+    /**
+     * Registers the encrypted fields of a class and its superclasses by
+     * reflection, for classes the index cannot fully describe.
+     */
+    private void addAnnotatedColumns(String table, Class<?> entityType,
+                                     List<EncryptColumn> columns) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> c = entityType; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                EncryptField encryptField = field.getAnnotation(EncryptField.class);
+                if (encryptField == null || Modifier.isStatic(field.getModifiers())
+                        || !names.add(field.getName())) {
+                    continue;
+                }
+                TableField tableField = field.getAnnotation(TableField.class);
+                String name = tableField != null && !tableField.value().isEmpty()
+                        ? tableField.value() : field.getName();
+                columns.add(new EncryptColumn(table, name, encryptField.value()));
+            }
+        }
+    }
+
+    private void addIndexedColumns(String table,
+                                   EncryptFieldIndex.IndexedClass indexed,
+                                   ClassLoader classLoader,
+                                   List<EncryptColumn> columns) {
+        for (EncryptFieldIndex.IndexedField field : indexed.getFields()) {
+            try {
+                columns.add(new EncryptColumn(table, field.column(),
+                        field.algo(classLoader)));
+            } catch (ClassNotFoundException e) {
+                throw new DesensitizeException("Encryption algorithm "
+                        + field.algoName() + " of " + indexed.getClassName()
+                        + "." + field.field() + " not found", e);
+            }
+        }
+    }
+
+    private EncryptColumn getEncryptColumn(TableInfo tableInfo,
+                                           TableFieldInfo fieldInfo,
+                                           EncryptField encryptField) {
+        TableField tableField =
+                fieldInfo.getField().getAnnotation(TableField.class);
+        String name = tableField != null && !tableField.value().isEmpty()
+                ? tableField.value() : fieldInfo.getField().getName();
+        return new EncryptColumn(tableInfo.getTableName(), name,
+                encryptField.value());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            init();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    /**
+     * Looks up an encrypted column.
+     *
+     * @param tableName  the table name, lower or upper case, bare or quoted
+     * @param columnName the column or property name in lower, upper, snake or
+     *                   camel case, bare or quoted
+     * @return the column, or null if it is not encrypted
+     */
+    public EncryptColumn find(String tableName, String columnName) {
+        if (tableName == null || columnName == null) {
+            return null;
+        }
+        Map<String, EncryptColumn> columns = current().index.get(tableName);
+        return columns == null ? null : columns.get(columnName);
+    }
+
+    /**
+     * @return all encrypted columns of the current registry
+     */
+    public List<EncryptColumn> getColumns() {
+        Snapshot current = current();
+        List<EncryptColumn> columns = new ArrayList<>(current.scanned);
+        columns.addAll(current.registered);
+        return columns;
+    }
+
+    public boolean isEncrypt(String tableName, String columnName) {
+        return find(tableName, columnName) != null;
+    }
+
+    public boolean hasEncrypt() {
+        return !current().index.isEmpty();
+    }
+
+    /**
+     * Version of the current registry. Changes whenever columns are
+     * registered or reloaded, so plans derived from the registry can detect
+     * that they are stale.
+     *
+     * @return the registry version
+     */
+    public long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * Prefilter telling whether a statement can touch an encrypted table.
+     *
+     * <p>The raw SQL is scanned once by an Aho-Corasick automaton over the
+     * lower-cased names of all tables with {@link EncryptField} columns. A
+     * false result is exact: no encrypted table name occurs in the text as
+     * an identifier, so SQL parsing and parameter analysis can be skipped.
+     * A true result only means parsing is required. Verdicts are cached per
+     * SQL statement.</p>
+     *
+     * @param sql the raw SQL
+     * @return false if the statement cannot reference an encrypted table
+     */
+    public boolean mayReferenceEncryptedTable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        Snapshot current = current();
+        return current.verdicts.get(sql, current.tableMatcher::containsWord);
+    }
+
+    public Class<? extends EncryptionAlgo> getAlgo(String tableName,
+                                                   String columnName) {
+        EncryptColumn column = find(tableName, columnName);
+        if (column == null || column.getAlgo() == null) {
+            return DefaultEncryptionAlgo.class;
+        }
+        return column.getAlgo();
+    }
+
+    /**
+     * Encrypt column information
+     */
+    public static final class EncryptColumn {
+        private final String table;
+        private final String name;
+        private final Class<? extends EncryptionAlgo> algo;
+
+        public EncryptColumn(String table, String name,
+                             Class<? extends EncryptionAlgo> algo) {
+            this.table = table;
+            this.name = name;
+            this.algo = algo;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<? extends EncryptionAlgo> getAlgo() {
+            return algo;
+        }
+    }
+
+    /**
+     * Immutable registry: table to column index keyed by every accepted
+     * form of the names, the table-name prefilter and its verdict cache.
+     */
+    private static final class Snapshot {
+        private final List<EncryptColumn> scanned;
+        private final List<EncryptColumn> registered;
+        private final Map<String, Map<String, EncryptColumn>> index;
+        private final AhoCorasickMatcher tableMatcher;
+        private final BoundedCache<String, Boolean> verdicts =
+                new BoundedCache<>(VERDICT_CACHE_SIZE);
+        private final long version = VERSIONS.incrementAndGet();
+
+        private Snapshot(List<EncryptColumn> scanned,
+                         List<EncryptColumn> registered) {
+            this.scanned = List.copyOf(scanned);
+            this.registered = List.copyOf(registered);
+            Map<String, Map<String, EncryptColumn>> tables = new HashMap<>();
+            for (List<EncryptColumn> columns : List.of(this.scanned, this.registered)) {
+                for (EncryptColumn column : columns) {
+                    Map<String, EncryptColumn> byName = tables.computeIfAbsent(
+                            normalizeTable(column.getTable()), k -> new HashMap<>());
+                    for (String name : columnVariants(normalizeColumn(column.getName()))) {
+                        byName.put(name, column);
+                    }
+                }
+            }
+            Map<String, Map<String, EncryptColumn>> index = new HashMap<>();
+            tables.forEach((table, columns) -> {
+                Map<String, EncryptColumn> copy = Map.copyOf(columns);
+                for (String name : tableVariants(table)) {
+                    index.put(name, copy);
+                }
+            });
+            this.index = Map.copyOf(index);
+            this.tableMatcher = new AhoCorasickMatcher(tables.keySet());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptHint;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.kit.StringUtil;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binding plans of mapper methods annotated with {@link EncryptHint}.
+ *
+ * <p>{@link #init(Configuration)} resolves every mapped statement once at
+ * startup, so a malformed hint fails early. Statements registered later are
+ * resolved on first use. Statements without hints are cached as
+ * {@link HintPlan#NONE}, so the lookup on the execution path is a single map
+ * probe. The count statements MyBatis-Plus generates for pagination
+ * ({@code <id>_mpCount}) share the hints of their query.</p>
+ *
+ * <p>{@link #mayHaveHints()} lets the execution path skip the lookup
+ * altogether while no mapper of an initialized configuration declares a
+ * hint; mappers registered after startup are scanned when they appear.</p>
+ *
+ * @author avinzhang
+ */
+public class EncryptHintContainer {
+    private static final Logger log =
+            LoggerFactory.getLogger(EncryptHintContainer.class);
+
+    private static final String COUNT_SUFFIX = "_mpCount";
+
+    private final Map<String, HintPlan> plans = new ConcurrentHashMap<>();
+    private final Set<Configuration> configurations = ConcurrentHashMap.newKeySet();
+    private final Set<Class<?>> scannedMappers = new HashSet<>();
+    private volatile int scannedCount = 0;
+    private volatile boolean hinted = false;
+
+    /**
+     * Resolves the hints of all statements of a MyBatis configuration.
+     *
+     * @param configuration the MyBatis configuration
+     */
+    public void init(Configuration configuration) {
+        configurations.add(configuration);
+        int hinted = 0;
+        // StrictMap values may contain ambiguity markers for short names
+        for (Object statement : new ArrayList<Object>(configuration.getMappedStatements())) {
+            if (statement instanceof MappedStatement mappedStatement
+                    && getPlan(mappedStatement) != HintPlan.NONE) {
+                hinted++;
+            }
+        }
+        log.debug("Resolved @EncryptHint for {} mapped statements", hinted);
+    }
+
+    /**
+     * Tells whether a statement can have hints, without resolving it.
+     *
+     * @return false only if no mapper of the initialized configurations
+     * declares {@link EncryptHint}; true before {@link #init(Configuration)}
+     */
+    public boolean mayHaveHints() {
+        if (hinted || configurations.isEmpty()) {
+            return true;
+        }
+        int mappers = 0;
+        for (Configuration configuration : configurations) {
+            mappers += configuration.getMapperRegistry().getMappers().size();
+        }
+        return mappers != scannedCount && scanMappers();
+    }
+
+    private synchronized boolean scanMappers() {
+        int count = 0;
+        for (Configuration configuration : configurations) {
+            Collection<Class<?>> mappers = configuration.getMapperRegistry().getMappers();
+            for (Class<?> mapper : new ArrayList<>(mappers)) {
+                count++;
+                if (scannedMappers.add(mapper) && declaresHints(mapper)) {
+                    hinted = true;
+                }
+            }
+        }
+        scannedCount = count;
+        return hinted;
+    }
+
+    private static boolean declaresHints(Class<?> mapper) {
+        for (Method method : mapper.getMethods()) {
+            if (method.getAnnotationsByType(EncryptHint.class).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the binding plan of a mapped statement.
+     *
+     * @param mappedStatement the mapped statement
+     * @return the plan, or {@link HintPlan#NONE} if its mapper method has no
+     * hint
+     * @throws DesensitizeException if a hint is malformed, or overloads of the
+     *                              mapper method bind a parameter differently
+     */
+    public HintPlan getPlan(MappedStatement mappedStatement) {
+        return plans.computeIfAbsent(mappedStatement.getId(), this::resolve);
+    }
+
+    private HintPlan resolve(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0 || statementId.indexOf('!') >= 0) {
+            return HintPlan.NONE;
+        }
+        Class<?> mapperClass;
+        try {
+            mapperClass = Resources.classForName(statementId.substring(0, dot));
+        } catch (ClassNotFoundException e) {
+            // XML-only namespace
+            return HintPlan.NONE;
+        }
+
+        String methodName = statementId.substring(dot + 1);
+        if (methodName.endsWith(COUNT_SUFFIX)) {
+            methodName = methodName.substring(0, methodName.length() - COUNT_SUFFIX.length());
+        }
+        // Overloads share one statement ID, so their hints must agree
+        Map<String, Binding> bindings = new HashMap<>();
+        for (Method method : mapperClass.getMethods()) {
+            if (!method.getName().equals(methodName)) {
+                continue;
+            }
+            for (EncryptHint hint : method.getAnnotationsByType(EncryptHint.class)) {
+                Binding binding = toBinding(statementId, hint);
+                Binding previous = bindings.putIfAbsent(hint.param(), binding);
+                if (previous != null && !previous.equals(binding)) {
+                    throw new DesensitizeException("Conflicting @EncryptHint(param = \""
+                            + hint.param() + "\") on overloads of " + statementId);
+                }
+            }
+        }
+        if (bindings.isEmpty()) {
+            return HintPlan.NONE;
+        }
+        return new HintPlan(Map.copyOf(bindings));
+    }
+
+    private Binding toBinding(String statementId, EncryptHint hint) {
+        if (hint.algo() != EncryptionAlgo.class) {
+            return new Binding(hint.table(), hint.column(), hint.algo());
+        }
+        if (StringUtil.isEmpty(hint.table()) || StringUtil.isEmpty(hint.column())) {
+            throw new DesensitizeException("@EncryptHint(param = \"" + hint.param()
+                    + "\") on " + statementId + " needs table and column, or algo");
+        }
+        EncryptFieldTableContainer container =
+                DataSecurityRuntime.current().getFieldTableContainer();
+        if (!container.isEncrypt(hint.table(), hint.column())) {
+            throw new DesensitizeException("@EncryptHint(param = \"" + hint.param()
+                    + "\") on " + statementId + ": " + hint.table() + "."
+                    + hint.column() + " is not an encrypted column");
+        }
+        return new Binding(hint.table(), hint.column(),
+                container.getAlgo(hint.table(), hint.column()));
+    }
+
+    /**
+     * Encrypted column a hinted parameter is bound to.
+     *
+     * @param table  the table, may be empty if the algorithm was declared
+     * @param column the column, may be empty if the algorithm was declared
+     * @param algo   the encryption algorithm
+     */
+    public record Binding(String table, String column,
+                          Class<? extends EncryptionAlgo> algo) {
+    }
+
+    /**
+     * Parameter bindings of one mapped statement.
+     */
+    public static final class HintPlan {
+        /**
+         * Plan of a statement without hints.
+         */
+        public static final HintPlan NONE = new HintPlan(Collections.emptyMap());
+
+        private final Map<String, Binding> bindings;
+
+        private HintPlan(Map<String, Binding> bindings) {
+            this.bindings = bindings;
+        }
+
+        /**
+         * Returns the binding of a parameter mapping property. Foreach item
+         * properties such as {@code __frch_item_3.phone} are looked up by
+         * their item name, {@code item.phone}.
+         *
+         * @param property the parameter mapping property
+         * @return the binding, or null if the property is not hinted
+         */
+        public Binding binding(String property) {
+            Binding binding = bindings.get(property);
+            if (binding == null && property.startsWith("__frch_")) {
+                binding = bindings.get(foreachItemName(property));
+            }
+            return binding;
+        }
+
+        private static String foreachItemName(String property) {
+            int dot = property.indexOf('.');
+            String root = dot < 0 ? property : property.substring(0, dot);
+            int index = root.lastIndexOf('_');
+            String item = index > "__frch_".length()
+                    ? root.substring("__frch_".length(), index)
+                    : root.substring("__frch_".length());
+            return dot < 0 ? item : item + property.substring(dot);
+        }
+    }
+}
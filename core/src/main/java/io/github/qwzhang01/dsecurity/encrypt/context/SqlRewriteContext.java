@@ -0,0 +1,71 @@
+package io.github.qwzhang01.dsecurity.encrypt.context;
+
+import io.github.qwzhang01.dsecurity.domain.ParameterRestoreInfo;
+import io.github.qwzhang01.dsecurity.kit.ParamUtil;
+import org.apache.ibatis.mapping.BoundSql;
+
+import java.util.List;
+
+/**
+ * SQL rewrite context for parameter restoration.
+ *
+ * <p>The restoration info of an execution is kept as an additional
+ * parameter of its {@link BoundSql}, so it travels with the statement
+ * instead of the thread: nothing is left behind when the execution phase
+ * never runs, and no per-thread state is allocated.</p>
+ *
+ * <p><strong>Workflow:</strong></p>
+ * <ol>
+ *   <li>Parameters are encrypted before SQL execution</li>
+ *   <li>Restoration info is attached to the BoundSql</li>
+ *   <li>SQL is executed with encrypted values</li>
+ *   <li>Parameters are restored to original values</li>
+ *   <li>The restoration info is detached</li>
+ * </ol>
+ *
+ * @author avinzhang
+ */
+public class SqlRewriteContext {
+    /**
+     * Additional parameter name; never referenced by a parameter mapping.
+     */
+    private static final String RESTORE_INFO_KEY = "_dsecurity_restore_info";
+
+    public static void cache(BoundSql boundSql, List<ParameterRestoreInfo> restoreInfos) {
+        if (restoreInfos != null && !restoreInfos.isEmpty()) {
+            boundSql.setAdditionalParameter(RESTORE_INFO_KEY, restoreInfos);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void restore(BoundSql boundSql) {
+        if (boundSql == null || !boundSql.getAdditionalParameters()
+                .containsKey(RESTORE_INFO_KEY)) {
+            return;
+        }
+        List<ParameterRestoreInfo> restoreInfos = (List<ParameterRestoreInfo>)
+                boundSql.getAdditionalParameter(RESTORE_INFO_KEY);
+        boundSql.getAdditionalParameters().remove(RESTORE_INFO_KEY);
+        ParamUtil.restoreOriginalValues(restoreInfos);
+    }
+
+    /**
+     * Restoration info no longer lives on the thread, so there is nothing
+     * to restore here.
+     *
+     * @deprecated use {@link #restore(BoundSql)} with the executed statement
+     */
+    @Deprecated
+    public static void restore() {
+    }
+
+    /**
+     * Restoration info no longer lives on the thread, so there is nothing
+     * to clear.
+     *
+     * @deprecated restoration info is detached by {@link #restore(BoundSql)}
+     */
+    @Deprecated
+    public static void clear() {
+    }
+}
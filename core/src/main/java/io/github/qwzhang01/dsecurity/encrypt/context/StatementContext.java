@@ -0,0 +1,184 @@
+package io.github.qwzhang01.dsecurity.encrypt.context;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.dsecurity.kit.BoundSqlHelper;
+import io.github.qwzhang01.dsecurity.kit.SqlAnalysisStore;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+
+import java.util.List;
+
+/**
+ * Per-execution context shared by the stages that inspect or rewrite one
+ * SQL statement.
+ *
+ * <p>The statement is analyzed at most once, lazily, by the first stage
+ * that needs its analysis, and the analysis is cached per SQL text by the
+ * {@link SqlAnalysisStore}. Computing it takes two parser calls, one for the
+ * tables and one for the parameters, because the parser does not expose a
+ * parsed statement; the data scope rewrite parses again inside the
+ * parser's own rewrite methods. SQL rewrites are kept in the context and
+ * written back to the {@link BoundSql} once, by {@link #flush()}, after all
+ * stages have run.</p>
+ *
+ * <p>The interceptors create the context through {@link #claim}, on the
+ * first call the executor makes on a statement handler. That is before the
+ * executor looks up a reusable JDBC statement by SQL text, which
+ * {@code ReuseExecutor} and {@code BatchExecutor} do without calling
+ * {@code prepare} again.</p>
+ *
+ * <p><strong>Thread Safety:</strong> not thread-safe; an instance lives for
+ * a single statement handler.</p>
+ *
+ * @author avinzhang
+ */
+public final class StatementContext {
+    /**
+     * Additional parameter marking a claimed BoundSql; never referenced by a
+     * parameter mapping.
+     */
+    private static final String CLAIMED_KEY = "_dsecurity_claimed";
+
+    private final StatementHandler statementHandler;
+    private final BoundSql boundSql;
+    private final Object parameterObject;
+    private final String originalSql;
+    private SqlAnalysis analysis;
+    private MappedStatement mappedStatement;
+    private String sql;
+    private List<ParameterMapping> parameterMappings;
+
+    private StatementContext(StatementHandler statementHandler, BoundSql boundSql) {
+        this.statementHandler = statementHandler;
+        this.boundSql = boundSql;
+        this.parameterObject =
+                statementHandler.getParameterHandler().getParameterObject();
+        this.originalSql = boundSql.getSql();
+        this.sql = originalSql;
+    }
+
+    /**
+     * Creates the context for a statement handler being prepared.
+     *
+     * @param statementHandler the statement handler
+     * @return the context
+     */
+    public static StatementContext of(StatementHandler statementHandler) {
+        return new StatementContext(statementHandler, statementHandler.getBoundSql());
+    }
+
+    /**
+     * Creates the context for a statement handler unless one was already
+     * claimed for its BoundSql, so a statement is rewritten and its
+     * parameters encrypted once, however many calls or interceptors see
+     * the handler.
+     *
+     * @param statementHandler the statement handler
+     * @return the context, or null if the statement was already claimed
+     */
+    public static StatementContext claim(StatementHandler statementHandler) {
+        BoundSql boundSql = statementHandler.getBoundSql();
+        if (boundSql.getAdditionalParameters().containsKey(CLAIMED_KEY)) {
+            return null;
+        }
+        boundSql.setAdditionalParameter(CLAIMED_KEY, Boolean.TRUE);
+        return new StatementContext(statementHandler, boundSql);
+    }
+
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+
+    public Object getParameterObject() {
+        return parameterObject;
+    }
+
+    /**
+     * Returns the mapped statement being executed, resolved on first access
+     * through any plugin proxies around the statement handler.
+     *
+     * @return the mapped statement
+     */
+    public MappedStatement getMappedStatement() {
+        if (mappedStatement == null) {
+            mappedStatement = PluginUtils.mpStatementHandler(statementHandler)
+                    .mappedStatement();
+        }
+        return mappedStatement;
+    }
+
+    /**
+     * @return the SQL as produced by MyBatis, before any rewrite
+     */
+    public String getOriginalSql() {
+        return originalSql;
+    }
+
+    /**
+     * @return the current SQL, including rewrites not yet flushed
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Replaces the current SQL. The BoundSql is updated on {@link #flush()}.
+     *
+     * @param sql the rewritten SQL
+     */
+    public void rewriteSql(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * Replaces the current SQL together with its parameter mappings, for
+     * rewrites that add placeholders. Both are written on {@link #flush()}.
+     *
+     * @param sql               the rewritten SQL
+     * @param parameterMappings the mappings of all its placeholders, in
+     *                          order
+     */
+    public void rewriteSql(String sql, List<ParameterMapping> parameterMappings) {
+        this.sql = sql;
+        this.parameterMappings = parameterMappings;
+    }
+
+    /**
+     * @return the current parameter mappings, including rewrites not yet
+     * flushed
+     */
+    public List<ParameterMapping> getParameterMappings() {
+        return parameterMappings != null ? parameterMappings
+                : boundSql.getParameterMappings();
+    }
+
+    /**
+     * Returns the tables and parameter columns of the original SQL, looked
+     * up in the {@link SqlAnalysisStore} on first access. A statement that cannot be parsed yields
+     * {@link SqlAnalysis#EMPTY}.
+     *
+     * @return the analysis of the original SQL
+     */
+    public SqlAnalysis getAnalysis() {
+        if (analysis == null) {
+            analysis = SqlAnalysisStore.getInstance().analyze(originalSql);
+        }
+        return analysis;
+    }
+
+    /**
+     * Writes the current SQL and parameter mappings back to the BoundSql if
+     * they were rewritten.
+     */
+    public void flush() {
+        if (sql != originalSql) {
+            BoundSqlHelper.setSql(boundSql, sql);
+        }
+        if (parameterMappings != null) {
+            BoundSqlHelper.setParameterMappings(boundSql, parameterMappings);
+        }
+    }
+}
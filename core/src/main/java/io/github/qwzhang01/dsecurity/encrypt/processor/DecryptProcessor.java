@@ -4,15 +4,18 @@ import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import io.github.qwzhang01.dsecurity.domain.AnnotatedField;
 import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
 import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldIndex;
 import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
 import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
 import io.github.qwzhang01.dsecurity.kit.ClazzUtil;
-import io.github.qwzhang01.dsecurity.kit.SpringContextUtil;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Decryption processor for automatic field decryption.
@@ -27,6 +30,8 @@ import java.util.List;
  *   <li>Support for both single and list results</li>
  *   <li>Automatic algorithm selection based on annotation</li>
  *   <li>Thread-safe operation</li>
+ *   <li>Flat classes from the compile-time {@link EncryptFieldIndex} are
+ *       decrypted through precomputed fields</li>
  * </ul>
  *
  * @author avinzhang
@@ -35,6 +40,12 @@ public class DecryptProcessor {
     private static final Logger log =
             LoggerFactory.getLogger(DecryptProcessor.class);
 
+    /**
+     * Decryptors of classes indexed as flat, keyed by result class.
+     */
+    private final Map<Class<?>, FlatDecryptor> flatDecryptors =
+            new ConcurrentHashMap<>();
+
     private DecryptProcessor() {
     }
 
@@ -57,10 +68,7 @@ public class DecryptProcessor {
 
         for (Object result : resultList) {
             if (result != null) {
-                List<AnnotatedField<EncryptField>> encryptedFields =
-                        ClazzUtil.getAnnotatedFields(result,
-                                EncryptField.class);
-                decryptFields(encryptedFields);
+                decryptObject(result);
             }
         }
     }
@@ -74,11 +82,34 @@ public class DecryptProcessor {
         log.debug("Decrypting single result of type: {}",
                 resultObject.getClass().getName());
 
+        decryptObject(resultObject);
+    }
+
+    /**
+     * Resolves the decryptor of a result type ahead of its first query.
+     *
+     * @param resultType the result type
+     */
+    public void prepare(Class<?> resultType) {
+        flatDecryptors.computeIfAbsent(resultType, FlatDecryptor::of);
+    }
+
+    private void decryptObject(Object result) {
+        FlatDecryptor decryptor = flatDecryptors.computeIfAbsent(
+                result.getClass(), FlatDecryptor::of);
+        if (decryptor != FlatDecryptor.NONE) {
+            decryptor.decrypt(result, getContainer());
+            return;
+        }
         List<AnnotatedField<EncryptField>> encryptedFields =
-                ClazzUtil.getAnnotatedFields(resultObject, EncryptField.class);
+                ClazzUtil.getAnnotatedFields(result, EncryptField.class);
         decryptFields(encryptedFields);
     }
 
+    private AbstractEncryptAlgoContainer getContainer() {
+        return DataSecurityRuntime.current().getAlgoContainer();
+    }
+
     /**
      * Decrypts a collection of encrypted fields using their configured
      * algorithms.
@@ -97,14 +128,7 @@ public class DecryptProcessor {
             return;
         }
 
-        AbstractEncryptAlgoContainer container =
-                SpringContextUtil.getBean(AbstractEncryptAlgoContainer.class);
-        if (container == null) {
-            log.error("Encryption algorithm container not found in Spring " +
-                    "context");
-            throw new DesensitizeException("Encryption algorithm container " +
-                    "not available");
-        }
+        AbstractEncryptAlgoContainer container = getContainer();
 
         log.debug("Decrypting {} encrypted fields", fields.size());
 
@@ -152,6 +176,75 @@ public class DecryptProcessor {
                 containingObject.getClass().getSimpleName());
     }
 
+    /**
+     * Decrypts a class that the compile-time {@link EncryptFieldIndex} lists
+     * as flat: its encrypted fields are resolved once, and no field can hold
+     * a nested object, so the object graph need not be walked.
+     */
+    private static final class FlatDecryptor {
+        private static final FlatDecryptor NONE =
+                new FlatDecryptor(new Field[0], null);
+
+        private final Field[] fields;
+        private final Class<? extends EncryptionAlgo>[] algos;
+
+        private FlatDecryptor(Field[] fields,
+                              Class<? extends EncryptionAlgo>[] algos) {
+            this.fields = fields;
+            this.algos = algos;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static FlatDecryptor of(Class<?> clazz) {
+            EncryptFieldIndex.IndexedClass indexed =
+                    EncryptFieldIndex.getInstance().resolve(clazz);
+            if (indexed == null || !indexed.isFlat()) {
+                return NONE;
+            }
+            List<EncryptFieldIndex.IndexedField> indexedFields = indexed.getFields();
+            Field[] fields = new Field[indexedFields.size()];
+            Class<? extends EncryptionAlgo>[] algos = new Class[indexedFields.size()];
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    EncryptFieldIndex.IndexedField indexedField = indexedFields.get(i);
+                    fields[i] = findField(clazz, indexedField.field());
+                    fields[i].setAccessible(true);
+                    algos[i] = indexedField.algo(clazz.getClassLoader());
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Stale index or inaccessible field: use reflective scanning
+                log.warn("Ignoring encrypted field index for {}: {}",
+                        clazz.getName(), e.getMessage());
+                return NONE;
+            }
+            return new FlatDecryptor(fields, algos);
+        }
+
+        private static Field findField(Class<?> clazz, String name)
+                throws NoSuchFieldException {
+            for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    return c.getDeclaredField(name);
+                } catch (NoSuchFieldException ignored) {
+                    // Declared in a superclass
+                }
+            }
+            throw new NoSuchFieldException(clazz.getName() + "." + name);
+        }
+
+        private void decrypt(Object result, AbstractEncryptAlgoContainer container) {
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    if (fields[i].get(result) instanceof String value) {
+                        fields[i].set(result, container.getAlgo(algos[i]).decrypt(value));
+                    }
+                }
+            } catch (Exception e) {
+                throw new DesensitizeException("Failed to decrypt fields", e);
+            }
+        }
+    }
+
     private static final class Holder {
         private static final DecryptProcessor INSTANCE = new DecryptProcessor();
     }
@@ -0,0 +1,262 @@
+package io.github.qwzhang01.dsecurity.encrypt.processor;
+
+import io.github.qwzhang01.dsecurity.domain.ParameterEncryptInfo;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer.Binding;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer.HintPlan;
+import io.github.qwzhang01.dsecurity.encrypt.context.SqlRewriteContext;
+import io.github.qwzhang01.dsecurity.encrypt.context.StatementContext;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.kit.FieldMatchUtil;
+import io.github.qwzhang01.dsecurity.kit.MultiRowInsert;
+import io.github.qwzhang01.dsecurity.kit.ParamUtil;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encryption processor for automatic parameter encryption.
+ *
+ * <p>This processor handles automatic encryption of query parameters before
+ * SQL execution. It parses SQL statements, identifies encrypted fields, and
+ * applies appropriate encryption algorithms.</p>
+ *
+ * <p><strong>Process Flow:</strong></p>
+ * <ol>
+ *   <li>Use the declared bindings of {@code @EncryptHint} mapper methods</li>
+ *   <li>Skip statements that cannot reference an encrypted table</li>
+ *   <li>Encrypt multi-row inserts by row template, without parsing</li>
+ *   <li>Parse SQL to identify tables and parameters</li>
+ *   <li>Match parameters to encrypted fields</li>
+ *   <li>Encrypt matched parameters</li>
+ *   <li>Save restoration info for later parameter recovery</li>
+ * </ol>
+ *
+ * @author avinzhang
+ */
+public class EncryptProcessor {
+    private static final Logger log =
+            LoggerFactory.getLogger(EncryptProcessor.class);
+
+    /**
+     * Maximum number of multi-row insert templates whose plan is cached.
+     */
+    private static final int INSERT_PLAN_CACHE_SIZE = 1024;
+
+    private final BoundedCache<String, InsertPlan> insertPlans =
+            new BoundedCache<>(INSERT_PLAN_CACHE_SIZE);
+
+    private EncryptProcessor() {
+    }
+
+    public static EncryptProcessor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Encrypts query parameters of the statement described by the context,
+     * reusing its SQL analysis if another stage already parsed it.
+     *
+     * @param context the per-execution statement context
+     */
+    public void encryptParameters(StatementContext context) {
+        BoundSql boundSql = context.getBoundSql();
+        String originalSql = context.getOriginalSql();
+        log.debug("Starting query encryption processing, SQL: {}", originalSql);
+
+        if (boundSql.getParameterObject() == null) {
+            log.debug("Parameter object is null, skipping encryption");
+            return;
+        }
+
+        DataSecurityRuntime runtime = DataSecurityRuntime.current();
+        EncryptHintContainer hints = runtime.getHintContainer();
+        // Resolved outside the try: a malformed hint must fail the statement
+        // instead of letting it run with plaintext parameters
+        HintPlan plan = hints.mayHaveHints()
+                ? hints.getPlan(context.getMappedStatement()) : HintPlan.NONE;
+        try {
+            if (plan != HintPlan.NONE) {
+                encryptHinted(context, plan);
+                return;
+            }
+
+            EncryptFieldTableContainer container = runtime.getFieldTableContainer();
+            if (!container.hasEncrypt()) {
+                // No encrypted fields, skip this interceptor
+                return;
+            }
+
+            if (!container.mayReferenceEncryptedTable(originalSql)) {
+                log.debug("No encrypted table referenced, skipping encryption");
+                return;
+            }
+
+            MultiRowInsert insert = MultiRowInsert.detect(originalSql);
+            if (insert != null && encryptMultiRowInsert(context, insert)) {
+                return;
+            }
+
+            // 1. Parse SQL to get all involved table information
+            SqlAnalysis analysis = context.getAnalysis();
+            if (analysis.isEmpty()) {
+                log.debug("No table information found, skipping encryption");
+                return;
+            }
+
+            // 2. Parse parameter object to get parameters that need encryption
+            List<ParameterEncryptInfo> encryptInfos =
+                    ParamUtil.analyzeParameters(boundSql, analysis,
+                            context.getParameterObject());
+
+            // 3. Execute parameter encryption
+            if (!encryptInfos.isEmpty()) {
+                SqlRewriteContext.cache(boundSql, ParamUtil.encryptParameters(encryptInfos));
+                log.debug("Completed parameter encryption, processed {} parameters", encryptInfos.size());
+            }
+        } catch (Exception e) {
+            log.error("Query parameter encryption processing failed", e);
+        }
+    }
+
+    /**
+     * Encrypts the parameters declared by {@code @EncryptHint} on the mapper
+     * method, without parsing the SQL or matching parameter names.
+     */
+    private void encryptHinted(StatementContext context, HintPlan plan) {
+        BoundSql boundSql = context.getBoundSql();
+        MetaObject parameterMeta =
+                SystemMetaObject.forObject(context.getParameterObject());
+        List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            Binding binding = plan.binding(property);
+            if (binding == null) {
+                continue;
+            }
+            ParameterEncryptInfo encryptInfo = ParamUtil.analyzePropertyParameter(
+                    boundSql, parameterMeta, property, binding.table(),
+                    binding.column(), binding.algo());
+            if (encryptInfo != null) {
+                encryptInfos.add(encryptInfo);
+            }
+        }
+
+        if (!encryptInfos.isEmpty()) {
+            SqlRewriteContext.cache(boundSql, ParamUtil.encryptParameters(encryptInfos));
+            log.debug("Completed hinted parameter encryption, processed {} parameters",
+                    encryptInfos.size());
+        }
+    }
+
+    /**
+     * Encrypts a multi-row insert without parsing it. Encrypted placeholder
+     * positions are resolved once per row template; values are then visited
+     * by stride, so the cost is linear in the number of placeholders.
+     *
+     * @return false if the parameter mappings do not line up with the row
+     * template, or an encrypted value cannot be resolved as text, and the
+     * regular path must be used
+     */
+    boolean encryptMultiRowInsert(StatementContext context,
+                                          MultiRowInsert insert) {
+        BoundSql boundSql = context.getBoundSql();
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        int stride = insert.placeholdersPerRow();
+        if (mappings.size() != stride * insert.getRows()) {
+            return false;
+        }
+
+        long version = DataSecurityRuntime.current().getFieldTableContainer()
+                .getVersion();
+        InsertPlan plan = insertPlans.get(insert.getTemplateKey(),
+                key -> InsertPlan.of(insert, version));
+        if (plan.registryVersion != version) {
+            plan = InsertPlan.of(insert, version);
+            insertPlans.put(insert.getTemplateKey(), plan);
+        }
+        if (plan.positions.length == 0) {
+            log.debug("Multi-row insert has no encrypted column, skipping encryption");
+            return true;
+        }
+
+        MetaObject parameterMeta =
+                SystemMetaObject.forObject(context.getParameterObject());
+        List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
+        for (int row = 0; row < insert.getRows(); row++) {
+            int offset = row * stride;
+            for (int i = 0; i < plan.positions.length; i++) {
+                String property = mappings.get(offset + plan.positions[i]).getProperty();
+                ParameterEncryptInfo encryptInfo = ParamUtil.analyzePropertyParameter(
+                        boundSql, parameterMeta, property, insert.getTable(),
+                        plan.fields[i], plan.algos[i]);
+                if (encryptInfo != null) {
+                    encryptInfos.add(encryptInfo);
+                } else if (ParamUtil.getPropertyValue(boundSql, parameterMeta,
+                        property) != null) {
+                    // Nothing is encrypted yet, so the regular path can take over
+                    log.debug("Multi-row insert value {} is not text, using the " +
+                            "regular path", property);
+                    return false;
+                }
+            }
+        }
+
+        if (!encryptInfos.isEmpty()) {
+            SqlRewriteContext.cache(boundSql, ParamUtil.encryptParameters(encryptInfos));
+            log.debug("Completed multi-row insert encryption, {} rows, {} parameters",
+                    insert.getRows(), encryptInfos.size());
+        }
+        return true;
+    }
+
+    /**
+     * Encrypted placeholder positions of one multi-row insert template.
+     */
+    private static final class InsertPlan {
+        private final long registryVersion;
+        private final int[] positions;
+        private final String[] fields;
+        private final Class<? extends EncryptionAlgo>[] algos;
+
+        @SuppressWarnings("unchecked")
+        private InsertPlan(long registryVersion, List<Integer> positions,
+                           List<String> fields,
+                           List<Class<? extends EncryptionAlgo>> algos) {
+            this.registryVersion = registryVersion;
+            this.positions = positions.stream().mapToInt(Integer::intValue).toArray();
+            this.fields = fields.toArray(new String[0]);
+            this.algos = algos.toArray(new Class[0]);
+        }
+
+        private static InsertPlan of(MultiRowInsert insert, long registryVersion) {
+            List<Integer> positions = new ArrayList<>();
+            List<String> fields = new ArrayList<>();
+            List<Class<? extends EncryptionAlgo>> algos = new ArrayList<>();
+            for (int i = 0; i < insert.placeholdersPerRow(); i++) {
+                ParameterEncryptInfo column = FieldMatchUtil.createEncryptInfo(
+                        insert.getTable(), insert.columnOf(i), null);
+                if (column != null) {
+                    positions.add(i);
+                    fields.add(column.getFieldName());
+                    algos.add(column.getAlgoClass());
+                }
+            }
+            return new InsertPlan(registryVersion, positions, fields, algos);
+        }
+    }
+
+    private static final class Holder {
+        private static final EncryptProcessor INSTANCE = new EncryptProcessor();
+    }
+}
@@ -26,6 +26,9 @@
 
 package io.github.qwzhang01.dsecurity.encrypt.shield;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Encryption algorithm interface.
  * Defines the contract for implementing encryption and decryption operations
@@ -60,4 +63,23 @@ public interface EncryptionAlgo {
      *                          algorithm issues
      */
     String decrypt(String value);
-}
\ No newline at end of file
+
+    /**
+     * Encrypts several values in one call, for example all values of an
+     * IN list. Callers pass distinct values only.
+     *
+     * <p>The default implementation encrypts the values one by one;
+     * algorithms with per-call setup cost (cipher initialization, remote
+     * key services) can override it.</p>
+     *
+     * @param values the plain text values
+     * @return the encrypted values, in the same order
+     */
+    default List<String> encryptBatch(List<String> values) {
+        List<String> encrypted = new ArrayList<>(values.size());
+        for (String value : values) {
+            encrypted.add(encrypt(value));
+        }
+        return encrypted;
+    }
+}
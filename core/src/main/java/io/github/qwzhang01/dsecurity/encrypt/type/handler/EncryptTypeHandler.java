@@ -28,7 +28,7 @@ package io.github.qwzhang01.dsecurity.encrypt.type.handler;
 
 import io.github.qwzhang01.dsecurity.domain.Encrypt;
 import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
-import io.github.qwzhang01.dsecurity.kit.SpringContextUtil;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.MappedJdbcTypes;
@@ -62,7 +62,7 @@ public class EncryptTypeHandler extends BaseTypeHandler<Encrypt> {
             return;
         }
         AbstractEncryptAlgoContainer container =
-                SpringContextUtil.getBean(AbstractEncryptAlgoContainer.class);
+                DataSecurityRuntime.current().getAlgoContainer();
         String encrypt = container.getAlgo().encrypt(parameter.getValue());
         ps.setString(i, encrypt);
     }
@@ -102,7 +102,7 @@ public class EncryptTypeHandler extends BaseTypeHandler<Encrypt> {
             return null;
         }
         AbstractEncryptAlgoContainer container =
-                SpringContextUtil.getBean(AbstractEncryptAlgoContainer.class);
+                DataSecurityRuntime.current().getAlgoContainer();
         return new Encrypt(container.getAlgo().decrypt(value));
     }
 }
@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 avinzhang
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ *  all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.qwzhang01.dsecurity.interceptor;
+
+import io.github.qwzhang01.dsecurity.encrypt.context.SqlRewriteContext;
+import io.github.qwzhang01.dsecurity.encrypt.context.StatementContext;
+import io.github.qwzhang01.dsecurity.encrypt.processor.DecryptProcessor;
+import io.github.qwzhang01.dsecurity.encrypt.processor.EncryptProcessor;
+import io.github.qwzhang01.dsecurity.kit.SqlPrint;
+import io.github.qwzhang01.dsecurity.scope.processor.DataScopeProcessor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single MyBatis plugin combining SQL rewriting, parameter encryption, data
+ * scope, parameter restoration, result decryption and SQL printing.
+ *
+ * <p>The default setup registers {@link SqlRewriteInterceptor},
+ * {@link DecryptInterceptor} and {@link SqlPrintInterceptor} separately, so
+ * every statement crosses one JDK proxy and one reflective
+ * {@code Method.invoke} per plugin. This interceptor replaces all three
+ * with exactly one proxy per handler type:</p>
+ * <ul>
+ *   <li>{@link Executor}: execution timing and SQL printing</li>
+ *   <li>{@link StatementHandler}: encryption, data scope and restoration</li>
+ *   <li>{@link ResultSetHandler}: result decryption</li>
+ * </ul>
+ *
+ * <p>Dispatch is resolved through a method table built once at class
+ * loading, instead of comparing method names on every call, and
+ * {@code ParameterHandler} is never wrapped.</p>
+ *
+ * <p>The statement is rewritten and its parameters encrypted on the first
+ * call on the statement handler, whichever method it is. Executors that
+ * reuse JDBC statements look them up through {@code getBoundSql} and skip
+ * {@code prepare}, so the rewrite has to happen before that lookup.</p>
+ *
+ * @author avinzhang
+ * @see SqlRewriteInterceptor
+ * @see DecryptInterceptor
+ * @see SqlPrintInterceptor
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class,
+                        ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class,
+                        ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = StatementHandler.class, method = "getBoundSql",
+                args = {}),
+        @Signature(type = StatementHandler.class, method = "prepare",
+                args = {Connection.class, Integer.class}),
+        @Signature(type = StatementHandler.class, method = "batch",
+                args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update",
+                args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "query",
+                args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor",
+                args = {Statement.class}),
+        @Signature(type = ResultSetHandler.class, method = "handleResultSets",
+                args = {Statement.class})
+})
+public class FusedSecurityInterceptor implements Interceptor {
+
+    /**
+     * Precomputed dispatch table from intercepted interface method to phase.
+     */
+    private static final Map<Method, Phase> DISPATCH = buildDispatch();
+
+    private final boolean encryptEnabled;
+    private final boolean dataScopeEnabled;
+    private final boolean printEnabled;
+
+    /**
+     * Interceptor with encryption and data scope enabled.
+     *
+     * @param printEnabled whether SQL statements are printed with their
+     *                     execution time
+     */
+    public FusedSecurityInterceptor(boolean printEnabled) {
+        this(true, true, printEnabled);
+    }
+
+    /**
+     * A handler type is only proxied if an enabled feature needs it: the
+     * result set handler for decryption, the statement handler for
+     * encryption or data scope, and the executor for printing.
+     *
+     * @param encryptEnabled   whether parameters are encrypted and results
+     *                         decrypted
+     * @param dataScopeEnabled whether data scope conditions are applied
+     * @param printEnabled     whether SQL statements are printed with their
+     *                         execution time
+     */
+    public FusedSecurityInterceptor(boolean encryptEnabled, boolean dataScopeEnabled,
+                                    boolean printEnabled) {
+        this.encryptEnabled = encryptEnabled;
+        this.dataScopeEnabled = dataScopeEnabled;
+        this.printEnabled = printEnabled;
+    }
+
+    private static Map<Method, Phase> buildDispatch() {
+        try {
+            Map<Method, Phase> dispatch = new HashMap<>();
+            dispatch.put(Executor.class.getMethod("query",
+                    MappedStatement.class, Object.class, RowBounds.class,
+                    ResultHandler.class), Phase.EXECUTE);
+            dispatch.put(Executor.class.getMethod("query",
+                    MappedStatement.class, Object.class, RowBounds.class,
+                    ResultHandler.class, CacheKey.class, BoundSql.class),
+                    Phase.EXECUTE);
+            dispatch.put(Executor.class.getMethod("update",
+                    MappedStatement.class, Object.class), Phase.EXECUTE);
+            dispatch.put(StatementHandler.class.getMethod("batch",
+                    Statement.class), Phase.RESTORE);
+            dispatch.put(StatementHandler.class.getMethod("update",
+                    Statement.class), Phase.RESTORE);
+            dispatch.put(StatementHandler.class.getMethod("query",
+                    Statement.class, ResultHandler.class), Phase.RESTORE);
+            dispatch.put(StatementHandler.class.getMethod("queryCursor",
+                    Statement.class), Phase.RESTORE);
+            dispatch.put(ResultSetHandler.class.getMethod("handleResultSets",
+                    Statement.class), Phase.DECRYPT);
+            return Map.copyOf(dispatch);
+        } catch (NoSuchMethodException e) {
+            throw new PluginException("Unsupported MyBatis version for " +
+                    "FusedSecurityInterceptor", e);
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object target = invocation.getTarget();
+        if (target instanceof StatementHandler statementHandler) {
+            prepare(statementHandler);
+        }
+        Phase phase = DISPATCH.get(invocation.getMethod());
+        if (phase == null) {
+            return invocation.proceed();
+        }
+        return handle(phase, target, invocation.getMethod(), invocation.getArgs());
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        Class<?> type;
+        if ((encryptEnabled || dataScopeEnabled)
+                && target instanceof StatementHandler) {
+            type = StatementHandler.class;
+        } else if (encryptEnabled && target instanceof ResultSetHandler) {
+            type = ResultSetHandler.class;
+        } else if (printEnabled && target instanceof Executor) {
+            type = Executor.class;
+        } else {
+            return target;
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type}, new Handler(target));
+    }
+
+    private Object handle(Phase phase, Object target, Method method,
+                          Object[] args) throws Throwable {
+        return switch (phase) {
+            case EXECUTE -> execute(target, method, args);
+            case RESTORE -> restore(target, method, args);
+            case DECRYPT -> decrypt(target, method, args);
+        };
+    }
+
+    /**
+     * Executor phase: times the statement and prints it when enabled.
+     */
+    private Object execute(Object target, Method method, Object[] args) throws Throwable {
+        if (!printEnabled || !SqlPrint.getInstance().isEnabled()) {
+            return invoke(target, method, args);
+        }
+        MappedStatement mappedStatement = (MappedStatement) args[0];
+        Object parameter = args[1];
+        // Reuse the BoundSql MyBatis already built instead of rebuilding it
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] :
+                mappedStatement.getBoundSql(parameter);
+        long startTime = System.currentTimeMillis();
+        Object result = null;
+        try {
+            result = invoke(target, method, args);
+        } finally {
+            SqlPrint.getInstance().print(mappedStatement.getConfiguration(),
+                    boundSql, mappedStatement.getId(), startTime, result);
+        }
+        return result;
+    }
+
+    /**
+     * StatementHandler prepare phase: encryption and data scope, once per
+     * statement.
+     */
+    private void prepare(StatementHandler target) {
+        StatementContext context = StatementContext.claim(target);
+        if (context == null) {
+            return;
+        }
+        if (encryptEnabled) {
+            EncryptProcessor.getInstance().encryptParameters(context);
+        }
+        if (dataScopeEnabled) {
+            DataScopeProcessor.getInstance().apply(context);
+        }
+        context.flush();
+    }
+
+    /**
+     * StatementHandler execution phase: restores encrypted parameters.
+     */
+    private Object restore(Object target, Method method, Object[] args) throws Throwable {
+        if (!encryptEnabled) {
+            return invoke(target, method, args);
+        }
+        try {
+            return invoke(target, method, args);
+        } finally {
+            SqlRewriteContext.restore(((StatementHandler) target).getBoundSql());
+        }
+    }
+
+    /**
+     * ResultSetHandler phase: decrypts query results.
+     */
+    private Object decrypt(Object target, Method method, Object[] args) throws Throwable {
+        Object resultObject = invoke(target, method, args);
+        if (resultObject instanceof List<?> resultList) {
+            DecryptProcessor.getInstance().decryptList(resultList);
+        } else if (resultObject != null) {
+            DecryptProcessor.getInstance().decryptSingle(resultObject);
+        }
+        return resultObject;
+    }
+
+    private static Object invoke(Object target, Method method,
+                                 Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (Exception e) {
+            throw ExceptionUtil.unwrapThrowable(e);
+        }
+    }
+
+    private enum Phase {
+        EXECUTE, RESTORE, DECRYPT
+    }
+
+    /**
+     * The single invocation handler installed per wrapped target.
+     */
+    private final class Handler implements InvocationHandler {
+        private final Object target;
+        /**
+         * Whether the prepare phase is still to run, on the first call
+         */
+        private boolean unprepared;
+
+        private Handler(Object target) {
+            this.target = target;
+            this.unprepared = target instanceof StatementHandler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (unprepared) {
+                unprepared = false;
+                prepare((StatementHandler) target);
+            }
+            Phase phase = DISPATCH.get(method);
+            if (phase == null) {
+                return FusedSecurityInterceptor.invoke(target, method, args);
+            }
+            return handle(phase, target, method, args);
+        }
+    }
+}
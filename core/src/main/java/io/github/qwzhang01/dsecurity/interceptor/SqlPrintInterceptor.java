@@ -11,7 +11,6 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.env.Environment;
 
 /**
  * MyBatis interceptor for SQL statement printing in non-production environments.
@@ -25,7 +24,7 @@ import org.springframework.core.env.Environment;
  *   <li>Prints complete SQL with resolved parameter values</li>
  *   <li>Records execution time for performance monitoring</li>
  *   <li>Shows affected/returned row counts</li>
- *   <li>Environment-aware (disabled in production)</li>
+ *   <li>Switched off without per-call overhead (production)</li>
  * </ul>
  *
  * @author avinzhang
@@ -52,14 +51,22 @@ import org.springframework.core.env.Environment;
 public class SqlPrintInterceptor implements Interceptor {
     private final static Logger log =
             LoggerFactory.getLogger(SqlPrintInterceptor.class);
-    private final Environment environment;
+    private final boolean enabled;
 
-    public SqlPrintInterceptor(Environment environment) {
-        this.environment = environment;
+    /**
+     * @param enabled whether SQL is printed; the Spring Boot starter enables
+     *                it unless the first active profile is a production
+     *                profile
+     */
+    public SqlPrintInterceptor(boolean enabled) {
+        this.enabled = enabled;
     }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
         Object result = null;
         // Capture exceptions to avoid impacting business logic
         MappedStatement mappedStatement =
@@ -75,15 +82,8 @@ public class SqlPrintInterceptor implements Interceptor {
         try {
             result = invocation.proceed();
         } finally {
-            String[] activeProfiles = environment.getActiveProfiles();
-            if (activeProfiles != null && activeProfiles.length > 0) {
-                String activeProfile = activeProfiles[0];
-                // Only print SQL in non-production environments
-                if (!activeProfile.contains("prod")) {
-                    SqlPrint.getInstance().print(configuration, boundSql,
-                            sqlId, startTime, result);
-                }
-            }
+            SqlPrint.getInstance().print(configuration, boundSql, sqlId,
+                    startTime, result);
         }
         return result;
     }
@@ -26,6 +26,7 @@
 package io.github.qwzhang01.dsecurity.interceptor;
 
 import io.github.qwzhang01.dsecurity.encrypt.context.SqlRewriteContext;
+import io.github.qwzhang01.dsecurity.encrypt.context.StatementContext;
 import io.github.qwzhang01.dsecurity.encrypt.processor.EncryptProcessor;
 import io.github.qwzhang01.dsecurity.scope.processor.DataScopeProcessor;
 import org.apache.ibatis.executor.statement.StatementHandler;
@@ -41,14 +42,31 @@ import java.util.Properties;
 /**
  * MyBatis interceptor for SQL rewriting and parameter encryption.
  *
+ * <p>The statement is rewritten and its parameters encrypted on the first
+ * intercepted call on the handler, {@code getBoundSql} or {@code prepare}.
+ * {@code ReuseExecutor} and {@code BatchExecutor} read the SQL through
+ * {@code getBoundSql} to find a statement to reuse and then skip
+ * {@code prepare}, so rewriting in {@code prepare} alone would reuse a
+ * statement with stale bound values or leave parameters unencrypted.</p>
+ *
  * @author avinzhang
  */
 @Intercepts({
+        @Signature(
+                type = StatementHandler.class,
+                method = "getBoundSql",
+                args = {}
+        ),
         @Signature(
                 type = StatementHandler.class,
                 method = "prepare",
                 args = {Connection.class, Integer.class}
         ),
+        @Signature(
+                type = StatementHandler.class,
+                method = "batch",
+                args = {Statement.class}
+        ),
         @Signature(
                 type = StatementHandler.class,
                 method = "update",
@@ -69,11 +87,32 @@ public class SqlRewriteInterceptor implements Interceptor {
     private static final Logger log =
             LoggerFactory.getLogger(SqlRewriteInterceptor.class);
     // Method name constants for better maintainability
+    private static final String METHOD_GET_BOUND_SQL = "getBoundSql";
     private static final String METHOD_PREPARE = "prepare";
+    private static final String METHOD_BATCH = "batch";
     private static final String METHOD_UPDATE = "update";
     private static final String METHOD_QUERY = "query";
     private static final String METHOD_QUERY_CURSOR = "queryCursor";
 
+    private final boolean encryptEnabled;
+    private final boolean dataScopeEnabled;
+
+    /**
+     * Interceptor with parameter encryption and data scope enabled.
+     */
+    public SqlRewriteInterceptor() {
+        this(true, true);
+    }
+
+    /**
+     * @param encryptEnabled   whether parameters are encrypted
+     * @param dataScopeEnabled whether data scope conditions are applied
+     */
+    public SqlRewriteInterceptor(boolean encryptEnabled, boolean dataScopeEnabled) {
+        this.encryptEnabled = encryptEnabled;
+        this.dataScopeEnabled = dataScopeEnabled;
+    }
+
     /**
      * Intercepts StatementHandler methods to apply SQL rewriting and
      * parameter encryption.
@@ -82,9 +121,9 @@ public class SqlRewriteInterceptor implements Interceptor {
     public Object intercept(Invocation invocation) throws Throwable {
         String methodName = invocation.getMethod().getName();
 
-        if (METHOD_PREPARE.equals(methodName)) {
+        if (METHOD_GET_BOUND_SQL.equals(methodName) || METHOD_PREPARE.equals(methodName)) {
             return handlePreparePhase(invocation);
-        } else if (isExecutionMethod(methodName)) {
+        } else if (encryptEnabled && isExecutionMethod(methodName)) {
             return handleExecutionPhase(invocation);
         }
 
@@ -92,21 +131,27 @@ public class SqlRewriteInterceptor implements Interceptor {
     }
 
     /**
-     * Handles the prepare phase where SQL is prepared and parameters are
-     * encrypted.
+     * Handles the prepare phase where SQL is rewritten and parameters are
+     * encrypted, once per handler, before the executor first reads the SQL.
      *
      * @param invocation the method invocation
      * @return the result of proceeding with the invocation
      * @throws Throwable if the operation fails
      */
     private Object handlePreparePhase(Invocation invocation) throws Throwable {
-        // Clear any previous restoration context
-        SqlRewriteContext.clear();
-
-        // Apply parameter encryption
-        EncryptProcessor.getInstance().encryptParameters(invocation);
-
-        DataScopeProcessor.getInstance().apply(invocation);
+        // Both stages share one SQL analysis and one BoundSql write
+        StatementContext context =
+                StatementContext.claim((StatementHandler) invocation.getTarget());
+        if (context != null) {
+            // Apply parameter encryption
+            if (encryptEnabled) {
+                EncryptProcessor.getInstance().encryptParameters(context);
+            }
+            if (dataScopeEnabled) {
+                DataScopeProcessor.getInstance().apply(context);
+            }
+            context.flush();
+        }
 
         return invocation.proceed();
     }
@@ -124,26 +169,34 @@ public class SqlRewriteInterceptor implements Interceptor {
             return invocation.proceed();
         } finally {
             // Always restore parameters to their original state
-            SqlRewriteContext.restore();
+            SqlRewriteContext.restore(
+                    ((StatementHandler) invocation.getTarget()).getBoundSql());
         }
     }
 
     /**
      * Checks if the method name is an execution method
-     * (update/query/queryCursor).
+     * (update/query/queryCursor/batch).
      *
      * @param methodName the method name to check
      * @return true if it's an execution method
      */
     private boolean isExecutionMethod(String methodName) {
         return METHOD_UPDATE.equalsIgnoreCase(methodName)
+                || METHOD_BATCH.equals(methodName)
                 || METHOD_QUERY.equals(methodName)
                 || METHOD_QUERY_CURSOR.equals(methodName);
     }
 
     @Override
     public Object plugin(Object target) {
-        return Plugin.wrap(target, this);
+        // Only StatementHandler methods are intercepted, so avoid proxying
+        // Executor, ParameterHandler and ResultSetHandler for nothing
+        if ((encryptEnabled || dataScopeEnabled)
+                && target instanceof StatementHandler) {
+            return Plugin.wrap(target, this);
+        }
+        return target;
     }
 
     @Override
@@ -0,0 +1,191 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import java.util.*;
+
+/**
+ * Case-insensitive multi-pattern matcher based on an Aho-Corasick automaton.
+ *
+ * <p>The automaton is compiled into a dense transition table over the
+ * characters that actually occur in the patterns, so scanning a text is a
+ * single pass with one array lookup per character, independent of the
+ * number of patterns.</p>
+ *
+ * <p>Matches are whole SQL identifiers only: a pattern must not be preceded
+ * or followed by a letter, digit, {@code _} or {@code $}. Backticks, quotes,
+ * dots and whitespace all count as boundaries, so {@code user} matches
+ * {@code `user`} and {@code db.user} but not {@code user_info}.</p>
+ *
+ * <p><strong>Thread Safety:</strong> immutable after construction.</p>
+ *
+ * <p><strong>Examples:</strong></p>
+ * <pre>
+ * AhoCorasickMatcher m = new AhoCorasickMatcher(List.of("user", "order"));
+ * m.containsWord("SELECT * FROM `User` u")     = true
+ * m.containsWord("SELECT * FROM user_info")    = false
+ * m.containsWord("INSERT INTO db.order VALUES") = true
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class AhoCorasickMatcher {
+    /**
+     * Alphabet index of characters not used by any pattern.
+     */
+    private static final int OTHER = 0;
+
+    private final int[] asciiIndex = new int[128];
+    private final Map<Character, Integer> unicodeIndex = new HashMap<>();
+    /**
+     * Complete DFA: {@code delta[state][alphabetIndex]}.
+     */
+    private final int[][] delta;
+    /**
+     * Lengths of all patterns ending in each state (including those reached
+     * through suffix links), or null if none.
+     */
+    private final int[][] outputs;
+    private final boolean empty;
+
+    /**
+     * Builds the automaton for the given patterns. Patterns are compared
+     * case-insensitively; blank patterns are ignored.
+     *
+     * @param patterns the patterns to search for
+     */
+    public AhoCorasickMatcher(Collection<String> patterns) {
+        List<String> words = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!StringUtil.isEmpty(pattern)) {
+                words.add(pattern.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.empty = words.isEmpty();
+
+        int alphabetSize = 1;
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (indexOf(c) == OTHER) {
+                    if (c < 128) {
+                        asciiIndex[c] = alphabetSize++;
+                    } else {
+                        unicodeIndex.put(c, alphabetSize++);
+                    }
+                }
+            }
+        }
+
+        // 1. Trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        gotoTable.add(newRow(alphabetSize));
+        ends.add(new ArrayList<>());
+        for (String word : words) {
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int symbol = indexOf(word.charAt(i));
+                int next = gotoTable.get(state)[symbol];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(newRow(alphabetSize));
+                    ends.add(new ArrayList<>());
+                    gotoTable.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            ends.get(state).add(word.length());
+        }
+
+        // 2. Failure links and DFA completion, breadth first
+        int states = gotoTable.size();
+        int[] fail = new int[states];
+        int[][] table = gotoTable.toArray(new int[0][]);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = table[0][symbol];
+            if (next < 0) {
+                table[0][symbol] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            ends.get(state).addAll(ends.get(fail[state]));
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = table[state][symbol];
+                if (next < 0) {
+                    table[state][symbol] = table[fail[state]][symbol];
+                } else {
+                    fail[next] = table[fail[state]][symbol];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.delta = table;
+        this.outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            List<Integer> lengths = ends.get(state);
+            if (!lengths.isEmpty()) {
+                outputs[state] =
+                        lengths.stream().distinct().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    private static int[] newRow(int alphabetSize) {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return c == '_' || c == '$' || Character.isLetterOrDigit(c);
+    }
+
+    private int indexOf(char c) {
+        if (c < 128) {
+            return asciiIndex[c];
+        }
+        Integer index = unicodeIndex.get(c);
+        return index == null ? OTHER : index;
+    }
+
+    /**
+     * Checks whether any pattern occurs in the text as a whole identifier.
+     *
+     * @param text the text to scan, typically raw SQL
+     * @return true if at least one pattern occurs
+     */
+    public boolean containsWord(CharSequence text) {
+        if (empty || text == null) {
+            return false;
+        }
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char lower = c < 128 ? (char) (c >= 'A' && c <= 'Z' ? c + 32 : c)
+                    : Character.toLowerCase(c);
+            state = delta[state][indexOf(lower)];
+            int[] matched = outputs[state];
+            if (matched == null) {
+                continue;
+            }
+            boolean endBoundary = i + 1 >= length
+                    || !isIdentifierChar(text.charAt(i + 1));
+            if (!endBoundary) {
+                continue;
+            }
+            for (int patternLength : matched) {
+                int start = i - patternLength + 1;
+                if (start == 0 || !isIdentifierChar(text.charAt(start - 1))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+/**
+ * Source of externally managed instances, such as algorithm or strategy
+ * beans with injected dependencies.
+ *
+ * <p>Containers ask the lookup before instantiating a class reflectively.
+ * The Spring Boot starter backs it with the application context; without a
+ * container the default {@link #NONE} always falls back to reflection.</p>
+ *
+ * @author avinzhang
+ */
+public interface BeanLookup {
+
+    /**
+     * Lookup that never finds an instance.
+     */
+    BeanLookup NONE = new BeanLookup() {
+        @Override
+        public <T> T getBean(Class<T> type) {
+            return null;
+        }
+    };
+
+    /**
+     * @param type the requested type
+     * @param <T>  the type
+     * @return a managed instance, or null if there is none
+     */
+    <T> T getBean(Class<T> type);
+}
@@ -0,0 +1,69 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Writes to the immutable fields of {@link BoundSql}.
+ *
+ * <p>The reflective field handles are resolved and made accessible once at
+ * class loading instead of on every rewritten statement.</p>
+ *
+ * @author avinzhang
+ */
+public final class BoundSqlHelper {
+    private static final Field SQL_FIELD = accessibleField("sql");
+    private static final Field PARAMETER_MAPPINGS_FIELD =
+            accessibleField("parameterMappings");
+
+    private BoundSqlHelper() {
+        throw new UnsupportedOperationException("BoundSqlHelper is a utility" +
+                " class and cannot be instantiated");
+    }
+
+    private static Field accessibleField(String name) {
+        try {
+            Field field = BoundSql.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new DesensitizeException("BoundSql." + name + " not found", e);
+        }
+    }
+
+    /**
+     * Replaces the SQL of a bound statement.
+     *
+     * @param boundSql the bound statement
+     * @param sql      the new SQL
+     */
+    public static void setSql(BoundSql boundSql, String sql) {
+        try {
+            SQL_FIELD.set(boundSql, sql);
+        } catch (IllegalAccessException e) {
+            throw new DesensitizeException("Failed to rewrite BoundSql.sql", e);
+        }
+    }
+
+    /**
+     * Replaces the parameter mappings of a bound statement. The list of a
+     * static statement is shared by all its executions, so it must be
+     * replaced, never modified in place.
+     *
+     * @param boundSql          the bound statement
+     * @param parameterMappings the new mappings
+     */
+    public static void setParameterMappings(BoundSql boundSql,
+                                            List<ParameterMapping> parameterMappings) {
+        try {
+            PARAMETER_MAPPINGS_FIELD.set(boundSql, parameterMappings);
+        } catch (IllegalAccessException e) {
+            throw new DesensitizeException("Failed to rewrite " +
+                    "BoundSql.parameterMappings", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded concurrent cache for derived SQL metadata.
+ *
+ * <p>Cached values are pure functions of their keys (for example a verdict
+ * or an analysis computed from SQL text), so eviction only costs a
+ * recomputation. When the bound is reached an arbitrary entry is evicted;
+ * there is no LRU bookkeeping on the read path. Lookups and evictions are
+ * counted with striped counters, see {@link #stats()}.</p>
+ *
+ * <p><strong>Thread Safety:</strong> backed by ConcurrentHashMap, safe for
+ * concurrent use without external locking.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author avinzhang
+ */
+public final class BoundedCache<K, V> {
+    private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize maximum number of entries kept
+     */
+    public BoundedCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached value, computing and caching it if absent.
+     *
+     * @param key             the cache key
+     * @param mappingFunction computes the value for an absent key; a null
+     *                        result is returned but not cached
+     * @return the cached or computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = cache.get(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = mappingFunction.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value, or null if absent.
+     */
+    public V getIfPresent(K key) {
+        V value = cache.get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Caches a value, evicting an arbitrary entry if the cache is full.
+     */
+    public void put(K key, V value) {
+        if (cache.size() >= maxSize && !cache.containsKey(key)) {
+            evictOne();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * Passes every entry to an action, in no particular order.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        cache.forEach(action);
+    }
+
+    /**
+     * Removes the entries whose key matches the filter.
+     */
+    public void removeIf(Predicate<? super K> filter) {
+        cache.keySet().removeIf(filter);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return the current number of entries
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the lookup and eviction counts since creation
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), cache.size());
+    }
+
+    private void evictOne() {
+        Iterator<K> iterator = cache.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits      lookups that found a value
+     * @param misses    lookups that did not
+     * @param evictions entries evicted to respect the bound
+     * @param size      the current number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        /**
+         * @return hits over lookups, 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
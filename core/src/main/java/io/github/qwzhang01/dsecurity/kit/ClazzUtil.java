@@ -28,7 +28,6 @@ package io.github.qwzhang01.dsecurity.kit;
 
 import io.github.qwzhang01.dsecurity.domain.AnnotatedField;
 import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
-import org.springframework.util.StringUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -68,7 +67,7 @@ public final class ClazzUtil {
             return obj;
         }
 
-        String capitalizedName = StringUtils.capitalize(propertyName);
+        String capitalizedName = StringUtil.capitalize(propertyName);
 
         Object result = tryGetterMethod(obj, "get" + capitalizedName);
         if (result != null) {
@@ -93,7 +92,7 @@ public final class ClazzUtil {
                     "cannot be null");
         }
 
-        String setterName = "set" + StringUtils.capitalize(propertyName);
+        String setterName = "set" + StringUtil.capitalize(propertyName);
 
         if (trySetterMethod(obj, setterName, value)) {
             return;
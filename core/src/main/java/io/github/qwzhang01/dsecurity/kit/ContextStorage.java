@@ -0,0 +1,100 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Storage of a per-execution context value.
+ *
+ * <p>{@link #call(Object, Callable)} is the binding operation: the value is
+ * visible to {@link #get()} for the duration of the task only, and the
+ * previous value is back in place afterwards. Task decorators use it to
+ * bind a captured context on the executing thread. Outside a binding,
+ * {@code DataScopeHelper.strategy(...)} and {@code execute(...)} start a
+ * context with {@link #set(Object)} and end it with {@link #remove()}, so
+ * an implementation must support both without an enclosing {@code call}.
+ * The default {@link #threadLocal()} implementation keeps one
+ * {@link ThreadLocal} per storage.</p>
+ *
+ * @param <T> the context type
+ * @author avinzhang
+ */
+public interface ContextStorage<T> {
+
+    /**
+     * @param <T> the context type
+     * @return a new storage backed by a {@link ThreadLocal}
+     */
+    static <T> ContextStorage<T> threadLocal() {
+        return new ThreadLocalStorage<>();
+    }
+
+    /**
+     * @return the current value, or null if there is none
+     */
+    T get();
+
+    /**
+     * Replaces the current value.
+     *
+     * @param value the new value, not null
+     */
+    void set(T value);
+
+    /**
+     * Removes the current value.
+     */
+    void remove();
+
+    /**
+     * Runs a task with the value bound and restores the previous value
+     * afterwards.
+     *
+     * @param value the value to bind, null to run without one
+     * @param task  the task
+     * @param <R>   the result type
+     * @return the task result
+     * @throws Exception thrown by the task
+     */
+    default <R> R call(T value, Callable<R> task) throws Exception {
+        T previous = get();
+        if (value == null) {
+            remove();
+        } else {
+            set(value);
+        }
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                remove();
+            } else {
+                set(previous);
+            }
+        }
+    }
+
+    /**
+     * {@link ThreadLocal}-backed storage.
+     */
+    final class ThreadLocalStorage<T> implements ContextStorage<T> {
+        private final ThreadLocal<T> value = new ThreadLocal<>();
+
+        private ThreadLocalStorage() {
+        }
+
+        @Override
+        public T get() {
+            return value.get();
+        }
+
+        @Override
+        public void set(T value) {
+            this.value.set(value);
+        }
+
+        @Override
+        public void remove() {
+            value.remove();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.domain.Encrypt;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.type.handler.EncryptTypeHandler;
+import io.github.qwzhang01.dsecurity.interceptor.FusedSecurityInterceptor;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Programmatic setup for applications without Spring, such as batch jobs.
+ *
+ * <pre>
+ * Configuration configuration = ...; // mappers added
+ * DataSecurityRuntime runtime = DataSecurityBootstrap.install(configuration,
+ *         new MyEncryptionAlgo());
+ * </pre>
+ *
+ * <p>Creates the containers, installs them as the current
+ * {@link DataSecurityRuntime}, registers the {@link Encrypt} type handler
+ * and the {@link FusedSecurityInterceptor}, and resolves
+ * {@code @EncryptHint} bindings of the mappers already added.</p>
+ *
+ * @author avinzhang
+ */
+public final class DataSecurityBootstrap {
+
+    private DataSecurityBootstrap() {
+        throw new UnsupportedOperationException("DataSecurityBootstrap is a " +
+                "utility class and cannot be instantiated");
+    }
+
+    /**
+     * Installs data security with the default algorithm and no SQL
+     * printing.
+     *
+     * @param configuration the MyBatis configuration
+     * @return the installed runtime
+     */
+    public static DataSecurityRuntime install(Configuration configuration) {
+        return install(configuration, new DefaultEncryptionAlgo());
+    }
+
+    /**
+     * Installs data security on a MyBatis configuration.
+     *
+     * @param configuration the MyBatis configuration
+     * @param defaultAlgo   the default encryption algorithm
+     * @return the installed runtime
+     */
+    public static DataSecurityRuntime install(Configuration configuration,
+                                              EncryptionAlgo defaultAlgo) {
+        DataSecurityRuntime runtime = new DataSecurityRuntime(
+                new EncryptionAlgoContainer(defaultAlgo),
+                new EncryptFieldTableContainer(),
+                new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+
+        configuration.getTypeHandlerRegistry().register(Encrypt.class,
+                EncryptTypeHandler.class);
+        configuration.addInterceptor(new FusedSecurityInterceptor(false));
+        runtime.getHintContainer().init(configuration);
+        return runtime;
+    }
+}
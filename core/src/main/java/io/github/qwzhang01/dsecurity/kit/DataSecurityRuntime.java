@@ -0,0 +1,114 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The containers the interceptors work with, resolved once.
+ *
+ * <p>The installed runtime is read from a volatile field, so hot paths pay a
+ * field load instead of an {@code ApplicationContext} bean resolution per
+ * row or parameter. The Spring auto-configuration installs it once all
+ * singletons exist; without Spring, build one from the containers and
+ * {@link #install(DataSecurityRuntime)} it before executing statements.
+ * Until a runtime is installed, {@link #current()} falls back to the
+ * resolver registered with {@link #setFallback(Supplier)}; the starter
+ * registers one that reads the containers from the application
+ * context.</p>
+ *
+ * @author avinzhang
+ */
+public final class DataSecurityRuntime {
+    private static volatile DataSecurityRuntime current;
+    private static volatile Supplier<DataSecurityRuntime> fallback;
+
+    private final AbstractEncryptAlgoContainer algoContainer;
+    private final EncryptFieldTableContainer fieldTableContainer;
+    private final EncryptHintContainer hintContainer;
+    private final DataScopeStrategyContainer strategyContainer;
+
+    public DataSecurityRuntime(AbstractEncryptAlgoContainer algoContainer,
+                               EncryptFieldTableContainer fieldTableContainer,
+                               EncryptHintContainer hintContainer,
+                               DataScopeStrategyContainer strategyContainer) {
+        this.algoContainer = Objects.requireNonNull(algoContainer, "algoContainer");
+        this.fieldTableContainer =
+                Objects.requireNonNull(fieldTableContainer, "fieldTableContainer");
+        this.hintContainer = Objects.requireNonNull(hintContainer, "hintContainer");
+        this.strategyContainer =
+                Objects.requireNonNull(strategyContainer, "strategyContainer");
+    }
+
+    /**
+     * Makes a runtime the current one.
+     *
+     * @param runtime the runtime
+     */
+    public static synchronized void install(DataSecurityRuntime runtime) {
+        current = Objects.requireNonNull(runtime, "runtime");
+    }
+
+    /**
+     * Registers how a runtime is resolved while none is installed, for
+     * example during container startup.
+     *
+     * @param resolver the resolver, or null to remove it
+     */
+    public static void setFallback(Supplier<DataSecurityRuntime> resolver) {
+        fallback = resolver;
+    }
+
+    /**
+     * Returns the installed runtime, or one from the fallback resolver if
+     * none is installed yet.
+     *
+     * @return the current runtime
+     * @throws DesensitizeException if no runtime is installed and there is
+     *                              no fallback
+     */
+    public static DataSecurityRuntime current() {
+        DataSecurityRuntime runtime = current;
+        if (runtime != null) {
+            return runtime;
+        }
+        Supplier<DataSecurityRuntime> resolver = fallback;
+        if (resolver == null) {
+            throw new DesensitizeException("Data security runtime not installed");
+        }
+        return resolver.get();
+    }
+
+    /**
+     * Removes this runtime if it is the current one, for example when its
+     * application context closes.
+     */
+    public void uninstall() {
+        synchronized (DataSecurityRuntime.class) {
+            if (current == this) {
+                current = null;
+            }
+        }
+    }
+
+    public AbstractEncryptAlgoContainer getAlgoContainer() {
+        return algoContainer;
+    }
+
+    public EncryptFieldTableContainer getFieldTableContainer() {
+        return fieldTableContainer;
+    }
+
+    public EncryptHintContainer getHintContainer() {
+        return hintContainer;
+    }
+
+    public DataScopeStrategyContainer getStrategyContainer() {
+        return strategyContainer;
+    }
+}
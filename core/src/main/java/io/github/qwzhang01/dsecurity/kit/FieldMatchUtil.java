@@ -1,15 +1,14 @@
 package io.github.qwzhang01.dsecurity.kit;
 
 import io.github.qwzhang01.dsecurity.domain.ParameterEncryptInfo;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
 import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer.EncryptColumn;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
 import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
-import io.github.qwzhang01.sql.tool.model.SqlParam;
-import io.github.qwzhang01.sql.tool.model.SqlTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 /**
  * Field matching utility for encryption field identification.
  *
@@ -36,12 +35,8 @@ public final class FieldMatchUtil {
     /**
      * Retrieves the encryption algorithm class for a specific table field.
      *
-     * <p>This method tries multiple naming format variants to match the field:</p>
-     * <ul>
-     *   <li>Original field name</li>
-     *   <li>camelCase to snake_case conversion</li>
-     *   <li>snake_case to camelCase conversion</li>
-     * </ul>
+     * <p>The registry matches the original field name as well as its
+     * camelCase and snake_case variants with a single lookup.</p>
      *
      * @param tableName the table name
      * @param fieldName the field name
@@ -49,22 +44,13 @@ public final class FieldMatchUtil {
      */
     private static Class<? extends EncryptionAlgo> getEncryptAlgo(String tableName, String fieldName) {
         EncryptFieldTableContainer container =
-                SpringContextUtil.getBean(EncryptFieldTableContainer.class);
-
-        // 尝试多种命名格式
-        String[] variants = {
-                fieldName,
-                StringUtil.camelToUnderscore(fieldName),
-                StringUtil.underscoreToCamel(fieldName)
-        };
-
-        for (String variant : variants) {
-            if (container.isEncrypt(tableName, variant)) {
-                return container.getAlgo(tableName, variant);
-            }
+                DataSecurityRuntime.current().getFieldTableContainer();
+        EncryptColumn column = container.find(tableName, fieldName);
+        if (column == null) {
+            return null;
         }
-
-        return null;
+        return column.getAlgo() != null ? column.getAlgo()
+                : DefaultEncryptionAlgo.class;
     }
 
     /**
@@ -103,21 +89,18 @@ public final class FieldMatchUtil {
      *   <li>Multiple naming convention support</li>
      * </ol>
      *
-     * @param paramName   the parameter name
-     * @param paramValue  the parameter value
-     * @param sqlAnalysis SQL analysis information
-     * @param tables      list of tables in the SQL
+     * @param paramName  the parameter name
+     * @param paramValue the parameter value
+     * @param analysis   tables and parameter columns of the SQL
      * @return encryption information if match found, null otherwise
      */
     public static ParameterEncryptInfo matchParameterToTableField(String paramName, String paramValue,
-                                                                  List<SqlParam> sqlAnalysis, List<SqlTable> tables) {
+                                                                  SqlAnalysis analysis) {
         // 清理参数名
         String cleanParamName = StringUtil.cleanParameterName(paramName);
 
         // 遍历所有表，检查是否有匹配的加密字段
-        for (SqlTable tableInfo : tables) {
-            String tableName = tableInfo.getName();
-
+        for (String tableName : analysis.tables()) {
             ParameterEncryptInfo encryptInfo = createEncryptInfo(tableName,
                     cleanParamName, paramValue);
             if (encryptInfo != null) {
@@ -127,13 +110,10 @@ public final class FieldMatchUtil {
         }
 
         // Match from SQL conditions
-        for (SqlParam condition : sqlAnalysis) {
-            String columnName = condition.getColumn();
-
+        for (String columnName : analysis.paramColumns()) {
             if (isFieldNameMatch(cleanParamName, columnName)) {
                 // Found matching field, check which table contains this encrypted field
-                for (SqlTable tableInfo : tables) {
-                    String tableName = tableInfo.getName();
+                for (String tableName : analysis.tables()) {
                     ParameterEncryptInfo encryptInfo =
                             createEncryptInfo(tableName, columnName,
                                     paramValue);
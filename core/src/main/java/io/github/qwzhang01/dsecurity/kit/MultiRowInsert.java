@@ -0,0 +1,247 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text-level recognizer for multi-row {@code INSERT ... VALUES} statements.
+ *
+ * <p>Batch inserts generated by MyBatis foreach or MyBatis-Plus repeat one
+ * row template many times, so their placeholder count grows with the batch
+ * size. This class recognizes such a statement in a single scan without a
+ * SQL parser: only the column list is read, and each placeholder of the
+ * row template is mapped to its column. Placeholder {@code i} of the whole
+ * statement then belongs to column {@code columnOf(i % placeholdersPerRow())}.</p>
+ *
+ * <p>A statement is recognized only if it has at least two rows, every row
+ * has one expression per column, every placeholder is a bare {@code ?}
+ * expression at the same positions in every row, and no placeholder follows
+ * the rows (an {@code ON DUPLICATE KEY UPDATE} tail using {@code VALUES(col)}
+ * is allowed). Anything else returns null and takes the regular path.</p>
+ *
+ * <p><strong>Examples:</strong></p>
+ * <pre>
+ * INSERT INTO user (id, phone) VALUES (?, ?), (?, ?)        = 2 rows
+ * INSERT INTO user (id, phone) VALUES (?, ?)                = null
+ * INSERT INTO user (id, phone) VALUES (?, lower(?)), (?, ?) = null
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class MultiRowInsert {
+    private static final Pattern HEAD = Pattern.compile(
+            "\\s*(?:insert|replace)\\s+(?:ignore\\s+)?into\\s+([`\"\\w.$]+)\\s*" +
+                    "\\(([^()]*)\\)\\s*values?\\s*",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String table;
+    private final List<String> columns;
+    private final int[] placeholderColumns;
+    private final int rows;
+    private final String templateKey;
+
+    private MultiRowInsert(String table, List<String> columns,
+                           int[] placeholderColumns, int rows,
+                           String templateKey) {
+        this.table = table;
+        this.columns = columns;
+        this.placeholderColumns = placeholderColumns;
+        this.rows = rows;
+        this.templateKey = templateKey;
+    }
+
+    /**
+     * Recognizes a multi-row insert.
+     *
+     * @param sql the SQL text
+     * @return the recognized statement, or null if it is not a multi-row
+     * insert of a single row template
+     */
+    public static MultiRowInsert detect(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher head = HEAD.matcher(sql);
+        if (!head.lookingAt()) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : head.group(2).split(",")) {
+            columns.add(unquote(column.trim()));
+        }
+        String table = unquote(head.group(1));
+        int dot = table.lastIndexOf('.');
+        if (dot >= 0) {
+            table = unquote(table.substring(dot + 1));
+        }
+
+        int pos = head.end();
+        int length = sql.length();
+        int rows = 0;
+        int[] template = null;
+        int firstRowEnd = pos;
+        while (pos < length && sql.charAt(pos) == '(') {
+            int[] row = new int[columns.size()];
+            int end = scanRow(sql, pos, columns.size(), row);
+            if (end < 0) {
+                return null;
+            }
+            int[] placeholders = compact(row);
+            if (template == null) {
+                template = placeholders;
+                firstRowEnd = end;
+            } else if (!Arrays.equals(template, placeholders)) {
+                return null;
+            }
+            rows++;
+            pos = skipWhitespace(sql, end);
+            if (pos < length && sql.charAt(pos) == ',') {
+                pos = skipWhitespace(sql, pos + 1);
+            } else {
+                break;
+            }
+        }
+        if (rows < 2 || template.length == 0 || hasPlaceholder(sql, pos)) {
+            return null;
+        }
+        return new MultiRowInsert(table, List.copyOf(columns), template, rows,
+                sql.substring(0, firstRowEnd));
+    }
+
+    /**
+     * Scans one parenthesized row starting at {@code start}.
+     *
+     * @param row receives, per expression, 1 for a bare placeholder and 0
+     *            for an expression without placeholder
+     * @return the index after the closing parenthesis, or -1 if the row
+     * does not match the column list or uses a placeholder inside a larger
+     * expression
+     */
+    private static int scanRow(String sql, int start, int columnCount, int[] row) {
+        int depth = 0;
+        int expression = 0;
+        int expressionStart = start + 1;
+        int placeholders = 0;
+        for (int i = start; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlText.closingQuote(sql, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == '?') {
+                placeholders++;
+            } else if ((c == ',' && depth == 1) || (c == ')' && depth == 1)) {
+                if (expression >= columnCount) {
+                    return -1;
+                }
+                if (placeholders > 0) {
+                    if (placeholders > 1 || !"?".equals(sql.substring(expressionStart, i).trim())) {
+                        return -1;
+                    }
+                    row[expression] = 1;
+                }
+                expression++;
+                expressionStart = i + 1;
+                placeholders = 0;
+                if (c == ')') {
+                    return expression == columnCount ? i + 1 : -1;
+                }
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] compact(int[] row) {
+        int count = 0;
+        for (int flag : row) {
+            count += flag;
+        }
+        int[] placeholders = new int[count];
+        int next = 0;
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == 1) {
+                placeholders[next++] = i;
+            }
+        }
+        return placeholders;
+    }
+
+    private static boolean hasPlaceholder(String sql, int from) {
+        for (int i = from; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlText.closingQuote(sql, i);
+                if (i < 0) {
+                    return true;
+                }
+            } else if (c == '?') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(String sql, int pos) {
+        while (pos < sql.length() && Character.isWhitespace(sql.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static String unquote(String identifier) {
+        if (identifier.length() >= 2) {
+            char first = identifier.charAt(0);
+            char last = identifier.charAt(identifier.length() - 1);
+            if ((first == '`' || first == '"') && first == last) {
+                return identifier.substring(1, identifier.length() - 1);
+            }
+        }
+        return identifier;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return number of rows in the statement
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of placeholders in each row
+     */
+    public int placeholdersPerRow() {
+        return placeholderColumns.length;
+    }
+
+    /**
+     * @param placeholder placeholder position within a row
+     * @return the column bound to it
+     */
+    public String columnOf(int placeholder) {
+        return columns.get(placeholderColumns[placeholder]);
+    }
+
+    /**
+     * @return text up to the end of the first row, identical for all
+     * statements sharing this row template regardless of their row count
+     */
+    public String getTemplateKey() {
+        return templateKey;
+    }
+}
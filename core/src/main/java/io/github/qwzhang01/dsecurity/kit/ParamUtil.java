@@ -2,21 +2,17 @@ package io.github.qwzhang01.dsecurity.kit;
 
 import io.github.qwzhang01.dsecurity.domain.ParameterEncryptInfo;
 import io.github.qwzhang01.dsecurity.domain.ParameterRestoreInfo;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
 import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
-import io.github.qwzhang01.dsecurity.encrypt.context.SqlRewriteContext;
 import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
 import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
-import io.github.qwzhang01.sql.tool.helper.ParserHelper;
-import io.github.qwzhang01.sql.tool.model.SqlParam;
-import io.github.qwzhang01.sql.tool.model.SqlTable;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 
 import static io.github.qwzhang01.dsecurity.kit.ClazzUtil.setPropertyValue;
@@ -52,9 +48,56 @@ public final class ParamUtil {
      * Analyze parameters to determine which need encryption
      */
     public static List<ParameterEncryptInfo> analyzeParameters(List<ParameterMapping> parameterMappings,
-                                                               List<SqlParam> params,
-                                                               List<SqlTable> tables,
+                                                               SqlAnalysis analysis,
                                                                Object parameterObject) {
+        return analyzeParameters(parameterMappings, analysis, parameterObject,
+                null);
+    }
+
+    /**
+     * Analyze the parameters of a bound statement, including additional
+     * parameters such as foreach items.
+     *
+     * <p>Additional parameters carry generated names ({@code __frch_item_0})
+     * that cannot be matched to a column by name. They are matched by
+     * position through the cached {@link StatementPlan} of the SQL.</p>
+     *
+     * @param boundSql        the bound statement
+     * @param analysis        tables and parameter columns of its SQL
+     * @param parameterObject the parameter object
+     * @return parameters that need encryption
+     */
+    public static List<ParameterEncryptInfo> analyzeParameters(BoundSql boundSql,
+                                                               SqlAnalysis analysis,
+                                                               Object parameterObject) {
+        List<ParameterEncryptInfo> encryptInfos = analyzeParameters(
+                boundSql.getParameterMappings(), analysis, parameterObject,
+                boundSql);
+        List<ParameterEncryptInfo> additional = analyzeAdditionalParameters(
+                boundSql, analysis, parameterObject);
+        if (additional.isEmpty()) {
+            return encryptInfos;
+        }
+        List<ParameterEncryptInfo> all = new ArrayList<>(encryptInfos);
+        all.addAll(additional);
+        return all;
+    }
+
+    /**
+     * Builds and caches the positional plan of a statement ahead of its
+     * first execution.
+     *
+     * @param sql      the SQL text
+     * @param analysis tables and parameter columns of the SQL
+     */
+    public static void prepareStatementPlan(String sql, SqlAnalysis analysis) {
+        StatementPlan.of(sql, analysis);
+    }
+
+    private static List<ParameterEncryptInfo> analyzeParameters(List<ParameterMapping> parameterMappings,
+                                                                SqlAnalysis analysis,
+                                                                Object parameterObject,
+                                                                BoundSql boundSql) {
         if (parameterObject == null) {
             return Collections.emptyList();
         }
@@ -66,20 +109,68 @@ public final class ParamUtil {
         if (parameterObject instanceof Map paramMap) {
             if (isQueryWrapperParameter(parameterObject)) {
                 log.debug("QueryWrapper parameter detected");
-                return analyzeQueryWrapperParameters(paramMap, params, tables);
+                return analyzeQueryWrapperParameters(paramMap, analysis);
             }
-            return analyzeMapParameters(paramMap, parameterMappings, params,
-                    tables);
+            return analyzeMapParameters(paramMap, parameterMappings, analysis,
+                    boundSql);
         }
         return analyzeObjectParameters(parameterObject, parameterMappings,
-                params, tables);
+                analysis, boundSql);
+    }
+
+    /**
+     * Check if a parameter mapping refers to an additional parameter of the
+     * bound statement (foreach item or bind variable)
+     */
+    private static boolean isAdditionalParameter(BoundSql boundSql,
+                                                 String property) {
+        return boundSql != null && boundSql.hasAdditionalParameter(property);
+    }
+
+    /**
+     * Analyze additional parameters by placeholder position
+     */
+    private static List<ParameterEncryptInfo> analyzeAdditionalParameters(BoundSql boundSql,
+                                                                          SqlAnalysis analysis,
+                                                                          Object parameterObject) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        StatementPlan plan = null;
+        MetaObject parameterMeta = null;
+        List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
+        for (int i = 0; i < parameterMappings.size(); i++) {
+            String property = parameterMappings.get(i).getProperty();
+            if (!isAdditionalParameter(boundSql, property)) {
+                continue;
+            }
+            if (plan == null) {
+                plan = StatementPlan.of(boundSql.getSql(), analysis);
+                parameterMeta = SystemMetaObject.forObject(parameterObject);
+            }
+            if (!plan.isEncrypted(i)) {
+                continue;
+            }
+
+            ParameterEncryptInfo encryptInfo = analyzePropertyParameter(boundSql,
+                    parameterMeta, property, plan.tableAt(i), plan.fieldAt(i),
+                    plan.algoAt(i));
+            if (encryptInfo != null) {
+                encryptInfos.add(encryptInfo);
+                log.debug("Added additional parameter encryption: {} -> {}.{}",
+                        property, plan.tableAt(i), plan.fieldAt(i));
+            }
+        }
+        return encryptInfos;
     }
 
     /**
      * Analyze QueryWrapper parameters
      */
     private static List<ParameterEncryptInfo> analyzeQueryWrapperParameters(Map<String, Object> paramMap,
-                                                                            List<SqlParam> params, List<SqlTable> tables) {
+                                                                            SqlAnalysis analysis) {
         log.debug("Analyzing QueryWrapper parameters: {}", paramMap.keySet());
 
         Object wrapper = paramMap.get("ew");
@@ -89,14 +180,15 @@ public final class ParamUtil {
         }
 
         try {
+            QueryWrapperAccessor accessor = QueryWrapperAccessor.of(wrapper);
             Map<String, Object> paramNameValuePairs =
-                    getParamNameValuePairs(wrapper);
+                    accessor.getParamNameValuePairs(wrapper);
             if (paramNameValuePairs == null || paramNameValuePairs.isEmpty()) {
                 log.debug("No parameters in QueryWrapper");
                 return Collections.emptyList();
             }
 
-            String sqlSegment = getSqlSegment(wrapper);
+            String sqlSegment = accessor.getSqlSegment(wrapper);
             if (sqlSegment == null || sqlSegment.isEmpty()) {
                 log.debug("No SQL segment in QueryWrapper");
                 return Collections.emptyList();
@@ -106,7 +198,7 @@ public final class ParamUtil {
             log.debug("QueryWrapper params: {}", paramNameValuePairs);
 
             Map<String, String> fieldParamMapping =
-                    parseFieldParamMapping(sqlSegment);
+                    QueryWrapperAccessor.parseFieldParamMapping(sqlSegment);
 
             List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
             for (Map.Entry<String, String> entry :
@@ -120,7 +212,7 @@ public final class ParamUtil {
                             " {}", fieldName, paramName, paramValue);
 
                     ParameterEncryptInfo encryptInfo =
-                            FieldMatchUtil.matchParameterToTableField(fieldName, (String) paramValue, params, tables);
+                            FieldMatchUtil.matchParameterToTableField(fieldName, (String) paramValue, analysis);
                     if (encryptInfo != null) {
                         String parameterKey =
                                 "ew.paramNameValuePairs." + paramName;
@@ -148,13 +240,17 @@ public final class ParamUtil {
     private static List<ParameterEncryptInfo> analyzeMapParameters(Map<String
             , Object> paramMap,
                                                                    List<ParameterMapping> parameterMappings,
-                                                                   List<SqlParam> params, List<SqlTable> tables) {
+                                                                   SqlAnalysis analysis,
+                                                                   BoundSql boundSql) {
         List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
         log.debug("Analyzing Map parameters: {}", paramMap.keySet());
 
         MetaObject metaObject = SystemMetaObject.forObject(paramMap);
         for (ParameterMapping mapping : parameterMappings) {
             String property = mapping.getProperty();
+            if (isAdditionalParameter(boundSql, property)) {
+                continue;
+            }
             Object value = null;
 
             try {
@@ -168,7 +264,7 @@ public final class ParamUtil {
                     log.debug("Checking parameter: {} = {}", property, value);
 
                     ParameterEncryptInfo encryptInfo = matchParameterToSqlField(
-                            property, (String) value, params, tables,
+                            property, (String) value, analysis,
                             parameterMappings);
                     if (encryptInfo != null) {
                         encryptInfo.setParameterKey(property);
@@ -194,8 +290,7 @@ public final class ParamUtil {
                 if (!alreadyProcessed) {
                     ParameterEncryptInfo encryptInfo =
                             FieldMatchUtil.matchParameterToTableField(
-                                    paramName, (String) paramValue, params,
-                                    tables);
+                                    paramName, (String) paramValue, analysis);
                     if (encryptInfo != null) {
                         encryptInfo.setParameterKey(paramName);
                         encryptInfo.setParameterMap(paramMap);
@@ -216,13 +311,17 @@ public final class ParamUtil {
      */
     private static List<ParameterEncryptInfo> analyzeObjectParameters(Object parameterObject,
                                                                       List<ParameterMapping> parameterMappings,
-                                                                      List<SqlParam> sqlAnalysis, List<SqlTable> tables) {
+                                                                      SqlAnalysis analysis,
+                                                                      BoundSql boundSql) {
         log.debug("Analyzing object parameters: {}",
                 parameterObject.getClass().getSimpleName());
 
         List<ParameterEncryptInfo> encryptInfos = new ArrayList<>();
         for (ParameterMapping mapping : parameterMappings) {
             String property = mapping.getProperty();
+            if (isAdditionalParameter(boundSql, property)) {
+                continue;
+            }
             try {
                 Object value = ClazzUtil.getPropertyValue(parameterObject,
                         property);
@@ -231,7 +330,7 @@ public final class ParamUtil {
                             value);
                     ParameterEncryptInfo encryptInfo =
                             matchParameterToSqlField(property, (String) value
-                                    , sqlAnalysis, tables, parameterMappings);
+                                    , analysis, parameterMappings);
                     if (encryptInfo != null) {
                         encryptInfo.setTargetObject(parameterObject);
                         encryptInfo.setPropertyName(property);
@@ -248,34 +347,153 @@ public final class ParamUtil {
         return encryptInfos;
     }
 
+    /**
+     * Binds one parameter property to a known encrypted column.
+     *
+     * <p>The property is resolved the way MyBatis resolves it: a property
+     * whose first segment is an additional parameter (for example
+     * {@code __frch_item_0.phone} from a foreach) is read from the BoundSql,
+     * anything else from the parameter object. For a nested property the
+     * returned info updates the object or map that directly holds the value.
+     * A top-level property is shadowed by an additional parameter of the
+     * same name, which MyBatis binds in preference to the parameter object,
+     * so even a single {@code String} parameter can be encrypted.</p>
+     *
+     * @param boundSql        the bound statement
+     * @param parameterMeta   meta object of the parameter object
+     * @param property        the parameter mapping property
+     * @param tableName       table of the encrypted column
+     * @param fieldName       the encrypted column
+     * @param algoClass       the column algorithm
+     * @return encryption info, or null if the value is not a string or the
+     * property cannot be resolved to a holder
+     */
+    public static ParameterEncryptInfo analyzePropertyParameter(BoundSql boundSql,
+                                                                MetaObject parameterMeta,
+                                                                String property,
+                                                                String tableName,
+                                                                String fieldName,
+                                                                Class<? extends EncryptionAlgo> algoClass) {
+        int dot = property.lastIndexOf('.');
+        if (dot < 0) {
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterMeta.hasGetter(property)) {
+                value = parameterMeta.getValue(property);
+            } else {
+                value = parameterMeta.getOriginalObject();
+            }
+            if (!(value instanceof String)) {
+                return null;
+            }
+            ParameterEncryptInfo encryptInfo = new ParameterEncryptInfo();
+            encryptInfo.setTableName(tableName);
+            encryptInfo.setFieldName(fieldName);
+            encryptInfo.setOriginalValue((String) value);
+            encryptInfo.setAlgoClass(algoClass);
+            encryptInfo.setBoundSql(boundSql);
+            encryptInfo.setParameterKey(property);
+            return encryptInfo;
+        }
+        String parentPath = property.substring(0, dot);
+        String name = property.substring(dot + 1);
+        try {
+            Object holder = boundSql.hasAdditionalParameter(parentPath)
+                    ? boundSql.getAdditionalParameter(parentPath)
+                    : parameterMeta.getValue(parentPath);
+            if (holder == null) {
+                return null;
+            }
+
+            ParameterEncryptInfo encryptInfo = new ParameterEncryptInfo();
+            Object value;
+            if (holder instanceof Map map) {
+                value = map.get(name);
+                encryptInfo.setParameterMap(map);
+                encryptInfo.setParameterKey(name);
+            } else {
+                value = ClazzUtil.getPropertyValue(holder, name);
+                encryptInfo.setTargetObject(holder);
+                encryptInfo.setPropertyName(name);
+            }
+            if (!(value instanceof String)) {
+                return null;
+            }
+            encryptInfo.setTableName(tableName);
+            encryptInfo.setFieldName(fieldName);
+            encryptInfo.setOriginalValue((String) value);
+            encryptInfo.setAlgoClass(algoClass);
+            return encryptInfo;
+        } catch (Exception e) {
+            throw new DesensitizeException("Failed to get parameter value: "
+                    + property, e);
+        }
+    }
+
+    /**
+     * Resolves the value of a parameter mapping property the same way as
+     * {@link #analyzePropertyParameter}, without checking its type.
+     *
+     * @param boundSql      the bound statement
+     * @param parameterMeta the meta object of the parameter object
+     * @param property      the parameter mapping property
+     * @return the value, or null if the property or its holder is null
+     */
+    public static Object getPropertyValue(BoundSql boundSql, MetaObject parameterMeta,
+                                          String property) {
+        int dot = property.lastIndexOf('.');
+        if (dot < 0) {
+            if (boundSql.hasAdditionalParameter(property)) {
+                return boundSql.getAdditionalParameter(property);
+            }
+            return parameterMeta.hasGetter(property) ? parameterMeta.getValue(property)
+                    : parameterMeta.getOriginalObject();
+        }
+        String parentPath = property.substring(0, dot);
+        String name = property.substring(dot + 1);
+        try {
+            Object holder = boundSql.hasAdditionalParameter(parentPath)
+                    ? boundSql.getAdditionalParameter(parentPath)
+                    : parameterMeta.getValue(parentPath);
+            if (holder == null) {
+                return null;
+            }
+            return holder instanceof Map<?, ?> map ? map.get(name)
+                    : ClazzUtil.getPropertyValue(holder, name);
+        } catch (Exception e) {
+            throw new DesensitizeException("Failed to get parameter value: "
+                    + property, e);
+        }
+    }
+
     /**
      * Map parameter to SQL field
      */
     private static ParameterEncryptInfo matchParameterToSqlField(String paramProperty, String paramValue,
-                                                                 List<SqlParam> params, List<SqlTable> tables,
+                                                                 SqlAnalysis analysis,
                                                                  List<ParameterMapping> parameterMappings) {
         int paramIndex = findParameterIndex(paramProperty, parameterMappings);
+        List<String> paramColumns = analysis.paramColumns();
 
-        if (paramIndex >= 0 && paramIndex < params.size()) {
-            SqlParam param = params.get(paramIndex);
+        if (paramIndex >= 0 && paramIndex < paramColumns.size()) {
+            String column = paramColumns.get(paramIndex);
 
-            for (SqlTable table : tables) {
+            for (String table : analysis.tables()) {
                 ParameterEncryptInfo encryptInfo = FieldMatchUtil
-                        .createEncryptInfo(table.getName(), param.getColumn()
-                                , paramValue);
+                        .createEncryptInfo(table, column, paramValue);
                 if (encryptInfo != null) {
                     log.debug("Position mapping found encryption field: " +
                                     "param[{}] -> SQL field[{}] -> table[{}] " +
                                     "(index:{})",
-                            paramProperty, param.getColumn(), table.getName()
-                            , paramIndex);
+                            paramProperty, column, table, paramIndex);
                     return encryptInfo;
                 }
             }
         }
         String fieldName = StringUtil.extractFieldName(paramProperty);
         return FieldMatchUtil.matchParameterToTableField(fieldName,
-                paramValue, params, tables);
+                paramValue, analysis);
     }
 
     /**
@@ -292,70 +510,47 @@ public final class ParamUtil {
     }
 
     /**
-     * Get QueryWrapper SQL segment
+     * Execute parameter encryption.
+     *
+     * <p>Values are grouped by algorithm and each algorithm receives its
+     * distinct values in a single {@link EncryptionAlgo#encryptBatch} call,
+     * so a large IN list on an encrypted column costs one batch instead of
+     * one lookup and call per value.</p>
+     *
+     * @return the original values to put back after execution
      */
-    private static String getSqlSegment(Object wrapper) {
-        try {
-            Method getSqlSegmentMethod =
-                    ClazzUtil.findMethod(wrapper.getClass(), "getSqlSegment");
-            if (getSqlSegmentMethod != null) {
-                getSqlSegmentMethod.setAccessible(true);
-                Object result = getSqlSegmentMethod.invoke(wrapper);
-                return result != null ? result.toString() : null;
-            }
-
-            Method getCustomSqlSegmentMethod =
-                    ClazzUtil.findMethod(wrapper.getClass(),
-                            "getCustomSqlSegment");
-            if (getCustomSqlSegmentMethod != null) {
-                getCustomSqlSegmentMethod.setAccessible(true);
-                Object result = getCustomSqlSegmentMethod.invoke(wrapper);
-                return result != null ? result.toString() : null;
-            }
-
-            log.debug("Unable to get QueryWrapper SQL segment");
-            return null;
-        } catch (Exception e) {
-            throw new DesensitizeException("Failed to get QueryWrapper SQL " +
-                    "segment", e);
-        }
-    }
-
-    /**
-     * Parse field-parameter mapping
-     */
-    private static Map<String, String> parseFieldParamMapping(String sqlSegment) {
-
-        if (StringUtil.isEmpty(sqlSegment)) {
-            return Collections.emptyMap();
+    public static List<ParameterRestoreInfo> encryptParameters(List<ParameterEncryptInfo> encryptInfos) {
+        Map<Class<? extends EncryptionAlgo>, Map<String, String>> encryptedByAlgo =
+                new HashMap<>();
+        for (ParameterEncryptInfo encryptInfo : encryptInfos) {
+            encryptedByAlgo.computeIfAbsent(encryptInfo.getAlgoClass(),
+                            k -> new LinkedHashMap<>())
+                    .putIfAbsent(encryptInfo.getOriginalValue(), null);
         }
 
-        try {
-            Map<String, String> mapping = new HashMap<>();
-            List<SqlParam> params = ParserHelper.getSpecParam("select * from " +
-                    "dumpy_table where " + sqlSegment);
-            for (SqlParam param : params) {
-                mapping.put("MPGENVAL" + param.getIndex(), param.getColumn());
+        AbstractEncryptAlgoContainer container =
+                DataSecurityRuntime.current().getAlgoContainer();
+        for (Map.Entry<Class<? extends EncryptionAlgo>, Map<String, String>> entry :
+                encryptedByAlgo.entrySet()) {
+            Map<String, String> values = entry.getValue();
+            try {
+                List<String> plain = new ArrayList<>(values.keySet());
+                List<String> encrypted =
+                        container.getAlgo(entry.getKey()).encryptBatch(plain);
+                for (int i = 0; i < plain.size(); i++) {
+                    values.put(plain.get(i), encrypted.get(i));
+                }
+            } catch (Exception e) {
+                throw new DesensitizeException("Failed to encrypt parameters " +
+                        "with " + entry.getKey().getSimpleName(), e);
             }
-            return mapping;
-        } catch (Exception e) {
-            throw new DesensitizeException("Failed to parse field-parameter " +
-                    "mapping", e);
         }
-    }
-
-    /**
-     * Execute parameter encryption
-     */
-    public static void encryptParameters(List<ParameterEncryptInfo> encryptInfos) {
-        List<ParameterRestoreInfo> restoreInfos = new ArrayList<>();
 
+        List<ParameterRestoreInfo> restoreInfos = new ArrayList<>(encryptInfos.size());
         for (ParameterEncryptInfo encryptInfo : encryptInfos) {
             try {
-                EncryptionAlgo algo =
-                        SpringContextUtil.getBean(AbstractEncryptAlgoContainer.class).getAlgo(encryptInfo.getAlgoClass());
-                String encryptedValue =
-                        algo.encrypt(encryptInfo.getOriginalValue());
+                String encryptedValue = encryptedByAlgo.get(encryptInfo.getAlgoClass())
+                        .get(encryptInfo.getOriginalValue());
 
                 ParameterRestoreInfo restoreInfo = new ParameterRestoreInfo();
                 restoreInfo.setOriginalValue(encryptInfo.getOriginalValue());
@@ -366,9 +561,15 @@ public final class ParamUtil {
                 restoreInfo.setPropertyName(encryptInfo.getPropertyName());
                 restoreInfo.setQueryWrapperParam(encryptInfo.isQueryWrapperParam());
                 restoreInfo.setQueryWrapperParamName(encryptInfo.getQueryWrapperParamName());
+                restoreInfo.setBoundSql(encryptInfo.getBoundSql());
 
                 if (encryptInfo.isQueryWrapperParam()) {
                     updateQueryWrapperParameter(encryptInfo, encryptedValue);
+                } else if (encryptInfo.getBoundSql() != null) {
+                    encryptInfo.getBoundSql().setAdditionalParameter(
+                            encryptInfo.getParameterKey(), encryptedValue);
+                    log.debug("Updated additional parameter: {} = {}",
+                            encryptInfo.getParameterKey(), encryptedValue);
                 } else if (encryptInfo.getParameterMap() != null && encryptInfo.getParameterKey() != null) {
                     if (encryptInfo.getMetaObject() != null && encryptInfo.getMetaObject().hasSetter(encryptInfo.getParameterKey())) {
                         encryptInfo.getMetaObject().setValue(encryptInfo.getParameterKey(), encryptedValue);
@@ -400,7 +601,7 @@ public final class ParamUtil {
             }
         }
 
-        SqlRewriteContext.cache(restoreInfos);
+        return restoreInfos;
     }
 
     /**
@@ -415,7 +616,7 @@ public final class ParamUtil {
             }
 
             Map<String, Object> paramNameValuePairs =
-                    getParamNameValuePairs(wrapper);
+                    QueryWrapperAccessor.of(wrapper).getParamNameValuePairs(wrapper);
             if (paramNameValuePairs == null) {
                 log.error("Unable to get QueryWrapper paramNameValuePairs");
                 return;
@@ -439,33 +640,6 @@ public final class ParamUtil {
         }
     }
 
-    /**
-     * Get QueryWrapper paramNameValuePairs
-     */
-    private static Map<String, Object> getParamNameValuePairs(Object wrapper) {
-        try {
-            Field paramField = ClazzUtil.findField(wrapper.getClass(),
-                    "paramNameValuePairs");
-            if (paramField != null) {
-                paramField.setAccessible(true);
-                return (Map<String, Object>) paramField.get(wrapper);
-            }
-
-            Method getterMethod = ClazzUtil.findMethod(wrapper.getClass(),
-                    "getParamNameValuePairs");
-            if (getterMethod != null) {
-                getterMethod.setAccessible(true);
-                return (Map<String, Object>) getterMethod.invoke(wrapper);
-            }
-
-            log.debug("Unable to get QueryWrapper paramNameValuePairs");
-            return null;
-        } catch (Exception e) {
-            throw new DesensitizeException("Failed to get QueryWrapper " +
-                    "paramNameValuePairs", e);
-        }
-    }
-
     /**
      * Restore original values
      */
@@ -481,6 +655,13 @@ public final class ParamUtil {
             try {
                 if (restoreInfo.isQueryWrapperParam()) {
                     restoreQueryWrapperParameter(restoreInfo);
+                } else if (restoreInfo.getBoundSql() != null) {
+                    restoreInfo.getBoundSql().setAdditionalParameter(
+                            restoreInfo.getParameterKey(),
+                            restoreInfo.getOriginalValue());
+                    log.debug("Restored additional parameter: {} = {}",
+                            restoreInfo.getParameterKey(),
+                            restoreInfo.getOriginalValue());
                 } else if (restoreInfo.getParameterMap() != null && restoreInfo.getParameterKey() != null) {
                     if (restoreInfo.getMetaObject() != null && restoreInfo.getMetaObject().hasSetter(restoreInfo.getParameterKey())) {
                         restoreInfo.getMetaObject().setValue(restoreInfo.getParameterKey(), restoreInfo.getOriginalValue());
@@ -524,7 +705,7 @@ public final class ParamUtil {
             }
 
             Map<String, Object> paramNameValuePairs =
-                    getParamNameValuePairs(wrapper);
+                    QueryWrapperAccessor.of(wrapper).getParamNameValuePairs(wrapper);
             if (paramNameValuePairs == null) {
                 log.error("Unable to get QueryWrapper paramNameValuePairs for" +
                         " restoration");
@@ -0,0 +1,122 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.sql.tool.helper.ParserHelper;
+import io.github.qwzhang01.sql.tool.model.SqlParam;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached access to MyBatis-Plus wrapper internals.
+ *
+ * <p>Reflective members are resolved once per wrapper class. The mapping
+ * from {@code MPGENVAL} placeholders to columns is cached per SQL segment:
+ * wrappers built by the same code produce the same segment text, so at
+ * steady state no segment is parsed.</p>
+ *
+ * @author avinzhang
+ */
+final class QueryWrapperAccessor {
+    private static final Map<Class<?>, QueryWrapperAccessor> ACCESSORS =
+            new ConcurrentHashMap<>();
+    private static final BoundedCache<String, Map<String, String>> SEGMENT_MAPPINGS =
+            new BoundedCache<>(2048);
+
+    private final Field paramNameValuePairsField;
+    private final Method paramNameValuePairsGetter;
+    private final Method sqlSegmentGetter;
+
+    private QueryWrapperAccessor(Class<?> wrapperClass) {
+        this.paramNameValuePairsField = accessible(ClazzUtil.findField(wrapperClass,
+                "paramNameValuePairs"));
+        this.paramNameValuePairsGetter = paramNameValuePairsField != null ? null
+                : accessible(ClazzUtil.findMethod(wrapperClass, "getParamNameValuePairs"));
+        Method segment = ClazzUtil.findMethod(wrapperClass, "getSqlSegment");
+        if (segment == null) {
+            segment = ClazzUtil.findMethod(wrapperClass, "getCustomSqlSegment");
+        }
+        this.sqlSegmentGetter = accessible(segment);
+    }
+
+    static QueryWrapperAccessor of(Object wrapper) {
+        return ACCESSORS.computeIfAbsent(wrapper.getClass(), QueryWrapperAccessor::new);
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        if (member != null) {
+            member.setAccessible(true);
+        }
+        return member;
+    }
+
+    /**
+     * Returns the wrapper's paramNameValuePairs, or null if it has none.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> getParamNameValuePairs(Object wrapper) {
+        try {
+            if (paramNameValuePairsField != null) {
+                return (Map<String, Object>) paramNameValuePairsField.get(wrapper);
+            }
+            if (paramNameValuePairsGetter != null) {
+                return (Map<String, Object>) paramNameValuePairsGetter.invoke(wrapper);
+            }
+            return null;
+        } catch (Exception e) {
+            throw new DesensitizeException("Failed to get QueryWrapper " +
+                    "paramNameValuePairs", e);
+        }
+    }
+
+    /**
+     * Returns the wrapper's SQL segment, or null if it has none.
+     */
+    String getSqlSegment(Object wrapper) {
+        if (sqlSegmentGetter == null) {
+            return null;
+        }
+        try {
+            Object result = sqlSegmentGetter.invoke(wrapper);
+            return result != null ? result.toString() : null;
+        } catch (Exception e) {
+            throw new DesensitizeException("Failed to get QueryWrapper SQL " +
+                    "segment", e);
+        }
+    }
+
+    /**
+     * Maps each {@code MPGENVALn} parameter of a segment to the column it is
+     * compared with.
+     *
+     * @param sqlSegment the wrapper SQL segment
+     * @return unmodifiable parameter name to column mapping
+     */
+    static Map<String, String> parseFieldParamMapping(String sqlSegment) {
+        if (StringUtil.isEmpty(sqlSegment)) {
+            return Collections.emptyMap();
+        }
+        return SEGMENT_MAPPINGS.get(sqlSegment, QueryWrapperAccessor::parseSegment);
+    }
+
+    private static Map<String, String> parseSegment(String sqlSegment) {
+        try {
+            Map<String, String> mapping = new HashMap<>();
+            List<SqlParam> params = ParserHelper.getSpecParam("select * from " +
+                    "dumpy_table where " + sqlSegment);
+            for (SqlParam param : params) {
+                mapping.put("MPGENVAL" + param.getIndex(), param.getColumn());
+            }
+            return Collections.unmodifiableMap(mapping);
+        } catch (Exception e) {
+            throw new DesensitizeException("Failed to parse field-parameter " +
+                    "mapping", e);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.sql.tool.helper.ParserHelper;
+import io.github.qwzhang01.sql.tool.model.SqlTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Cache of {@link SqlAnalysis} by SQL text, with an optional snapshot file
+ * that carries the analyses over restarts.
+ *
+ * <p>{@link #save(Path)} writes every cached analysis to a compact binary
+ * file keyed by a 64-bit hash of the SQL text. {@link #load(Path)} maps that
+ * file read-only and reads only its index; an entry is decoded on the first
+ * lookup of its hash and used only if the stored SQL text equals the
+ * statement, otherwise the statement is parsed afresh. A file written by
+ * another library or parser version, or in another format, is ignored.</p>
+ *
+ * <p>File layout (big-endian):</p>
+ * <pre>
+ * int    magic "SDSA"
+ * int    format version
+ * bytes  library and parser version (int length, UTF-8)
+ * int    entry count
+ * (long hash, int offset) * count, sorted by hash
+ * entries: SQL, table count, tables, column count, columns
+ *          (strings as int length and UTF-8, length -1 = null)
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class SqlAnalysisStore {
+    private static final Logger log = LoggerFactory.getLogger(SqlAnalysisStore.class);
+
+    private static final int MAGIC = 0x53445341;
+    private static final int FORMAT_VERSION = 1;
+    private static final int CACHE_SIZE = 8192;
+
+    private final BoundedCache<String, SqlAnalysis> analyses =
+            new BoundedCache<>(CACHE_SIZE);
+    private final String libraryVersion = libraryVersion();
+    private volatile Snapshot snapshot;
+
+    private SqlAnalysisStore() {
+    }
+
+    public static SqlAnalysisStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the analysis of a statement, from the cache, the loaded
+     * snapshot or by parsing it. A statement that cannot be parsed yields
+     * {@link SqlAnalysis#EMPTY}.
+     *
+     * @param sql the SQL text
+     * @return the analysis
+     */
+    public SqlAnalysis analyze(String sql) {
+        return analyses.get(sql, this::computeAnalysis);
+    }
+
+    private SqlAnalysis computeAnalysis(String sql) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            SqlAnalysis stored = current.find(sql);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        try {
+            // The parser has no combined entry point: tables and parameters
+            // take one pass each, the second only if there is a table
+            List<SqlTable> tables = ParserHelper.getTables(sql);
+            if (tables == null || tables.isEmpty()) {
+                return SqlAnalysis.EMPTY;
+            }
+            return SqlAnalysis.of(tables, ParserHelper.getParam(sql));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return SqlAnalysis.EMPTY;
+        }
+    }
+
+    /**
+     * Maps a snapshot file written by {@link #save(Path)}. A missing,
+     * foreign or corrupt file is ignored.
+     *
+     * @param file the snapshot file
+     * @return true if the snapshot was loaded
+     */
+    public boolean load(Path file) {
+        if (!Files.isReadable(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC
+                    || buffer.getInt() != FORMAT_VERSION
+                    || !libraryVersion.equals(readString(buffer))) {
+                log.info("Ignoring SQL analysis snapshot {} of another version", file);
+                return false;
+            }
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / 12) {
+                log.warn("Ignoring corrupt SQL analysis snapshot {}", file);
+                return false;
+            }
+            long[] hashes = new long[count];
+            int[] offsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                hashes[i] = buffer.getLong();
+                offsets[i] = buffer.getInt();
+            }
+            snapshot = new Snapshot(buffer, hashes, offsets);
+            log.info("Loaded SQL analysis snapshot {}: {} statements", file, count);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable SQL analysis snapshot {}: {}", file,
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the cached analyses to a snapshot file. The file is replaced
+     * atomically.
+     *
+     * @param file the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Map<String, SqlAnalysis> entries = new HashMap<>();
+        analyses.forEach(entries::put);
+        TreeMap<Long, String> byHash = new TreeMap<>();
+        for (String sql : entries.keySet()) {
+            // On a hash collision one of the statements is simply not stored
+            byHash.putIfAbsent(hash(sql), sql);
+        }
+
+        List<byte[]> encoded = new ArrayList<>(byHash.size());
+        for (String sql : byHash.values()) {
+            encoded.add(encode(sql, entries.get(sql)));
+        }
+        byte[] version = libraryVersion.getBytes(StandardCharsets.UTF_8);
+        int offset = 4 + 4 + 4 + version.length + 4 + byHash.size() * 12;
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeBytes(out, version);
+                out.writeInt(byHash.size());
+                int i = 0;
+                for (Long hash : byHash.keySet()) {
+                    out.writeLong(hash);
+                    out.writeInt(offset);
+                    offset += encoded.get(i++).length;
+                }
+                for (byte[] entry : encoded) {
+                    out.write(entry);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Saved SQL analysis snapshot {}: {} statements", file, byHash.size());
+    }
+
+    /**
+     * @return the number of cached analyses
+     */
+    public int size() {
+        return analyses.size();
+    }
+
+    /**
+     * Drops all cached analyses and the loaded snapshot.
+     */
+    public void clear() {
+        analyses.clear();
+        snapshot = null;
+    }
+
+    private static byte[] encode(String sql, SqlAnalysis analysis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeBytes(out, sql.getBytes(StandardCharsets.UTF_8));
+        out.writeInt(analysis.tables().size());
+        for (String table : analysis.tables()) {
+            writeBytes(out, table.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeInt(analysis.paramColumns().size());
+        for (String column : analysis.paramColumns()) {
+            if (column == null) {
+                out.writeInt(-1);
+            } else {
+                writeBytes(out, column.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the SQL text.
+     */
+    static long hash(String sql) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sql.length(); i++) {
+            hash ^= sql.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String libraryVersion() {
+        return artifactVersion("seven-data-security-core") + "/"
+                + artifactVersion("seven-sql-parser");
+    }
+
+    private static String artifactVersion(String artifactId) {
+        String resource = "META-INF/maven/io.github.qwzhang01/" + artifactId
+                + "/pom.properties";
+        try (InputStream in = SqlAnalysisStore.class.getClassLoader()
+                .getResourceAsStream(resource)) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                return properties.getProperty("version", "unknown");
+            }
+        } catch (IOException e) {
+            log.debug("Cannot read {}: {}", resource, e.getMessage());
+        }
+        return "unknown";
+    }
+
+    /**
+     * Read-only view of a mapped snapshot file. Entries are decoded on
+     * demand; the index is kept as sorted arrays.
+     */
+    private static final class Snapshot {
+        private final ByteBuffer buffer;
+        private final long[] hashes;
+        private final int[] offsets;
+
+        private Snapshot(ByteBuffer buffer, long[] hashes, int[] offsets) {
+            this.buffer = buffer;
+            this.hashes = hashes;
+            this.offsets = offsets;
+        }
+
+        private SqlAnalysis find(String sql) {
+            int index = Arrays.binarySearch(hashes, hash(sql));
+            if (index < 0) {
+                return null;
+            }
+            try {
+                // Absolute reads on a private duplicate: safe for concurrent use
+                ByteBuffer entry = buffer.duplicate().position(offsets[index]);
+                if (!sql.equals(readString(entry))) {
+                    return null;
+                }
+                List<String> tables = new ArrayList<>();
+                for (int i = entry.getInt(); i > 0; i--) {
+                    tables.add(readString(entry));
+                }
+                List<String> columns = new ArrayList<>();
+                for (int i = entry.getInt(); i > 0; i--) {
+                    columns.add(readString(entry));
+                }
+                return tables.isEmpty() || columns.isEmpty()
+                        ? SqlAnalysis.EMPTY : new SqlAnalysis(tables, columns);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                log.debug("Corrupt SQL analysis snapshot entry, reparsing");
+                return null;
+            }
+        }
+    }
+
+    private static final class Holder {
+        private static final SqlAnalysisStore INSTANCE = new SqlAnalysisStore();
+    }
+}
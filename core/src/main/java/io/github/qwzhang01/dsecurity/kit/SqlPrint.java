@@ -9,10 +9,11 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Date;
@@ -36,10 +37,6 @@ public class SqlPrint {
     private static final Logger log = LoggerFactory.getLogger(SqlPrint.class);
 
     // 线程安全的日期格式化器
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
-            ThreadLocal.withInitial(
-                    () -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
-            );
     private static final DateTimeFormatter DATE_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final DateTimeFormatter DATE_FORMATTER =
@@ -54,6 +51,13 @@ public class SqlPrint {
         return Holder.INSTANCE;
     }
 
+    /**
+     * 是否需要打印 SQL（DEBUG 级别未开启时调用方可跳过 BoundSql 的构建）
+     */
+    public boolean isEnabled() {
+        return log.isDebugEnabled();
+    }
+
     public void print(Configuration configuration, BoundSql boundSql,
                       String sqlId, long startTime, Object result) {
         try {
@@ -148,7 +152,9 @@ public class SqlPrint {
         try {
             String strValue;
             if (value instanceof Date) {
-                strValue = DATE_FORMAT.get().format((Date) value);
+                // java.sql.Date/Time do not support toInstant()
+                strValue = DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(
+                        ((Date) value).getTime()).atZone(ZoneId.systemDefault()));
             } else if (value instanceof LocalDateTime) {
                 strValue = ((LocalDateTime) value).format(DATE_TIME_FORMATTER);
             } else if (value instanceof LocalDate) {
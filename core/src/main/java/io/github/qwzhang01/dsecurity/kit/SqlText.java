@@ -0,0 +1,66 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+/**
+ * Scanning of SQL text outside quoted strings and identifiers.
+ *
+ * <p>Quoted text starts at {@code '}, {@code "} or {@code `} and ends at the
+ * same quote; a doubled quote and a backslash escape do not end it. Every
+ * component that locates {@code ?} placeholders or validates quotes uses
+ * these methods, so they always agree on where quoted text ends.</p>
+ *
+ * @author avinzhang
+ */
+public final class SqlText {
+
+    private SqlText() {
+    }
+
+    /**
+     * @param sql   the SQL text
+     * @param start the index of the opening quote
+     * @return the index of the closing quote, or -1 if unterminated
+     */
+    public static int closingQuote(String sql, int start) {
+        char quote = sql.charAt(start);
+        for (int i = start + 1; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param sql the SQL text
+     * @return the number of {@code ?} placeholders outside quoted text; an
+     * unterminated quote hides the rest of the text
+     */
+    public static int countPlaceholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = closingQuote(sql, i);
+                i = end < 0 ? sql.length() : end;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param sql the SQL text
+     * @return true if the SQL has a {@code ?} placeholder outside quoted text
+     */
+    public static boolean hasPlaceholder(String sql) {
+        return countPlaceholders(sql) > 0;
+    }
+}
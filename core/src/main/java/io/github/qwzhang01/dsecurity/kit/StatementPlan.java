@@ -0,0 +1,89 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.domain.ParameterEncryptInfo;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+
+import java.util.List;
+
+/**
+ * Encrypted column bound to each placeholder position of one SQL statement.
+ *
+ * <p>Built once from the statement's {@link SqlAnalysis} and cached by SQL
+ * text, so positional parameters that cannot be matched by name, such as
+ * foreach items, are resolved with an array lookup.</p>
+ *
+ * @author avinzhang
+ */
+final class StatementPlan {
+    private static final BoundedCache<String, StatementPlan> PLANS =
+            new BoundedCache<>(2048);
+
+    private final long registryVersion;
+    private final String[] tables;
+    private final String[] fields;
+    private final Class<? extends EncryptionAlgo>[] algos;
+
+    @SuppressWarnings("unchecked")
+    private StatementPlan(SqlAnalysis analysis, long registryVersion) {
+        this.registryVersion = registryVersion;
+        List<String> columns = analysis.paramColumns();
+        this.tables = new String[columns.size()];
+        this.fields = new String[columns.size()];
+        this.algos = new Class[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            if (column == null) {
+                continue;
+            }
+            for (String table : analysis.tables()) {
+                ParameterEncryptInfo encryptInfo =
+                        FieldMatchUtil.createEncryptInfo(table, column, null);
+                if (encryptInfo != null) {
+                    tables[i] = table;
+                    fields[i] = encryptInfo.getFieldName();
+                    algos[i] = encryptInfo.getAlgoClass();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached plan of a statement. A plan built against an older
+     * encrypted-column registry is rebuilt.
+     *
+     * @param sql      the SQL text the analysis was computed from
+     * @param analysis the analysis of the statement
+     * @return the plan
+     */
+    static StatementPlan of(String sql, SqlAnalysis analysis) {
+        long version = DataSecurityRuntime.current().getFieldTableContainer()
+                .getVersion();
+        StatementPlan plan = PLANS.get(sql, key -> new StatementPlan(analysis, version));
+        if (plan.registryVersion != version) {
+            plan = new StatementPlan(analysis, version);
+            PLANS.put(sql, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * @return true if the placeholder at this position is an encrypted column
+     */
+    boolean isEncrypted(int position) {
+        return position < algos.length && algos[position] != null;
+    }
+
+    String tableAt(int position) {
+        return tables[position];
+    }
+
+    String fieldAt(int position) {
+        return fields[position];
+    }
+
+    Class<? extends EncryptionAlgo> algoAt(int position) {
+        return algos[position];
+    }
+}
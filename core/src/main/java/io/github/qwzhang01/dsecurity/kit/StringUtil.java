@@ -185,6 +185,19 @@ public final class StringUtil {
         return str == null || str.trim().isEmpty();
     }
 
+    /**
+     * Upper-cases the first character, as used for getter and setter names.
+     *
+     * @param str the string
+     * @return the capitalized string, or the input if null or empty
+     */
+    public static String capitalize(String str) {
+        if (str == null || str.isEmpty() || Character.isUpperCase(str.charAt(0))) {
+            return str;
+        }
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+
     public static String clearSqlTip(String sql) {
         if (isEmpty(sql)) {
             return sql;
@@ -0,0 +1,36 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+/**
+ * Data scope strategy whose condition only depends on the principal it is
+ * computed for and the search rights of the context.
+ *
+ * <p>The {@link io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer}
+ * caches the join/where (or {@link ScopePredicate}) per strategy, principal
+ * key and search rights, so permission tables are not queried for every
+ * scoped statement. Entries expire after the configured TTL; when a
+ * principal's permissions change, evict them right away with
+ * {@code DataScopeStrategyContainer#invalidate(Object)}.</p>
+ *
+ * <pre>
+ * public class DepartmentScopeStrategy implements CacheableDataScopeStrategy&lt;Long&gt; {
+ *     {@code @Override}
+ *     public Object principalKey() {
+ *         return CurrentUser.id();
+ *     }
+ *     ...
+ * }
+ * </pre>
+ *
+ * @param <T> permission data type
+ * @author avinzhang
+ */
+public interface CacheableDataScopeStrategy<T> extends DataScopeStrategy<T> {
+
+    /**
+     * Key of the principal the condition is computed for, with value-based
+     * {@code equals}/{@code hashCode}.
+     *
+     * @return the key, or null to compute the condition without caching
+     */
+    Object principalKey();
+}
@@ -0,0 +1,59 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import java.util.Collection;
+
+/**
+ * Data scope strategy for {@link io.github.qwzhang01.dsecurity.scope.annotation.DataScope}
+ * that restricts one column to a set of values.
+ *
+ * <p>The statement is rewritten once into a template with the condition
+ * {@code column IN (...)}; per execution only the values returned here are
+ * bound, without parsing.</p>
+ *
+ * <pre>
+ * public class DepartmentScopeStrategy implements ColumnDataScopeStrategy&lt;Long&gt; {
+ *     {@code @Override}
+ *     public Collection&lt;?&gt; values() {
+ *         return CurrentUser.isAdmin() ? null : CurrentUser.deptIds();
+ *     }
+ *     ...
+ * }
+ * </pre>
+ *
+ * @param <T> permission data type
+ * @author avinzhang
+ */
+public interface ColumnDataScopeStrategy<T> extends DataScopeStrategy<T> {
+
+    /**
+     * Values the scoped column may take in the current execution.
+     *
+     * @return the values, empty to match no row, or null to leave the
+     * statement unrestricted
+     */
+    Collection<?> values();
+
+    /**
+     * Not used by the processor, which builds the condition from
+     * {@link #values()} and the column of the {@code @DataScope}
+     * declaration.
+     *
+     * @return an empty join
+     */
+    @Override
+    default String join() {
+        return "";
+    }
+
+    /**
+     * Not used by the processor, which builds the condition from
+     * {@link #values()} and the column of the {@code @DataScope}
+     * declaration.
+     *
+     * @return an empty condition
+     */
+    @Override
+    default String where() {
+        return "";
+    }
+}
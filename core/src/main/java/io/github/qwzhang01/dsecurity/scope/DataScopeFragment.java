@@ -0,0 +1,192 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+import io.github.qwzhang01.sql.tool.helper.ParserHelper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Validated, reusable join/where templates of a data scope condition.
+ *
+ * <p>Create fragments once, typically as constants of a
+ * {@link ParameterizedDataScopeStrategy}, and bind the values of each
+ * execution with {@link #bind(Object...)}. Creation checks the templates
+ * (quotes and parentheses balanced, a single statement without
+ * {@code --}, {@code /*} or MySQL {@code #} comments, a join that starts
+ * with {@code JOIN}, a where without a leading {@code WHERE}/{@code AND})
+ * and grafts them onto a probe statement once, so a malformed condition
+ * fails at startup rather than on the first scoped query. The text is
+ * normalized, so equal fragments always produce the same rewrite cache key
+ * and the statement is parsed once per SQL rather than once per strategy
+ * call.</p>
+ *
+ * <pre>
+ * private static final DataScopeFragment OWN_DEPARTMENTS = DataScopeFragment.of(
+ *         "JOIN user_dept ud ON ud.dept_id = t.dept_id",
+ *         "ud.user_id = ?");
+ *
+ * {@code @Override}
+ * public ScopePredicate predicate() {
+ *     return OWN_DEPARTMENTS.bind(CurrentUser.id());
+ * }
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class DataScopeFragment {
+    private static final String PROBE_SQL = "SELECT * FROM dsecurity_probe t";
+    private static final Pattern JOIN_START = Pattern.compile(
+            "^(?:(?:LEFT|RIGHT|FULL)\\s+(?:OUTER\\s+)?|INNER\\s+|CROSS\\s+)?JOIN\\s",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE_START = Pattern.compile(
+            "^(?:WHERE|AND|OR)\\s", Pattern.CASE_INSENSITIVE);
+
+    private final String join;
+    private final String where;
+    private final int joinSlots;
+    private final int whereSlots;
+
+    private DataScopeFragment(String join, String where, int joinSlots, int whereSlots) {
+        this.join = join;
+        this.where = where;
+        this.joinSlots = joinSlots;
+        this.whereSlots = whereSlots;
+    }
+
+    /**
+     * @param join  the JOIN template, may be empty
+     * @param where the WHERE condition template, may be empty
+     * @return the validated fragment
+     * @throws DesensitizeException if a template is malformed
+     */
+    public static DataScopeFragment of(String join, String where) {
+        String j = normalize(join, "join");
+        String w = normalize(where, "where");
+        if (!j.isEmpty() && !JOIN_START.matcher(j).find()) {
+            throw new DesensitizeException("Data scope join must start with JOIN: " + j);
+        }
+        if (WHERE_START.matcher(w).find()) {
+            throw new DesensitizeException("Data scope where must be a bare " +
+                    "condition, without WHERE/AND/OR: " + w);
+        }
+        if (!j.isEmpty() || !w.isEmpty()) {
+            probe(j, w);
+        }
+        return new DataScopeFragment(j, w, SqlText.countPlaceholders(j),
+                SqlText.countPlaceholders(w));
+    }
+
+    /**
+     * @param where the WHERE condition template
+     * @return the validated fragment without join
+     */
+    public static DataScopeFragment where(String where) {
+        return of("", where);
+    }
+
+    /**
+     * Binds the values of one execution.
+     *
+     * @param values the values, join placeholders first
+     * @return the predicate
+     * @throws DesensitizeException if the number of values does not match
+     */
+    public ScopePredicate bind(Object... values) {
+        return bind(Arrays.asList(values));
+    }
+
+    /**
+     * Binds the values of one execution.
+     *
+     * @param values the values, join placeholders first
+     * @return the predicate
+     * @throws DesensitizeException if the number of values does not match
+     */
+    public ScopePredicate bind(List<?> values) {
+        return ScopePredicate.bound(join, where, joinSlots + whereSlots, values);
+    }
+
+    public String getJoin() {
+        return join;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    /**
+     * @return the number of values {@link #bind(List)} takes
+     */
+    public int getSlots() {
+        return joinSlots + whereSlots;
+    }
+
+    /**
+     * Trims the template and collapses whitespace outside quoted text,
+     * checking quotes, parentheses, statement separators and comments.
+     */
+    private static String normalize(String template, String part) {
+        if (template == null) {
+            return "";
+        }
+        String text = template.trim();
+        StringBuilder normalized = new StringBuilder(text.length());
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = SqlText.closingQuote(text, i);
+                if (end < 0) {
+                    throw new DesensitizeException("Unterminated quote in data scope "
+                            + part + ": " + text);
+                }
+                normalized.append(text, i, end + 1);
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                if (normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+            } else if (c == ';' || c == '#' || (c == '-' || c == '/') && i + 1 < text.length()
+                    && text.charAt(i + 1) == (c == '-' ? '-' : '*')) {
+                throw new DesensitizeException("Data scope " + part + " must be a " +
+                        "single fragment without ';' or comments: " + text);
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth < 0) {
+                    throw new DesensitizeException("Unbalanced parentheses in data scope "
+                            + part + ": " + text);
+                }
+                normalized.append(c);
+            }
+        }
+        if (depth != 0) {
+            throw new DesensitizeException("Unbalanced parentheses in data scope "
+                    + part + ": " + text);
+        }
+        return normalized.toString();
+    }
+
+    private static void probe(String join, String where) {
+        try {
+            if (!join.isEmpty() && !where.isEmpty()) {
+                ParserHelper.addJoinAndWhere(PROBE_SQL, join, where);
+            } else if (!join.isEmpty()) {
+                ParserHelper.addJoin(PROBE_SQL, join);
+            } else {
+                ParserHelper.addWhere(PROBE_SQL, where);
+            }
+        } catch (RuntimeException e) {
+            throw new DesensitizeException("Invalid data scope fragment (join: " + join
+                    + ", where: " + where + ")", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DataScopeFragment{join='" + join + "', where='" + where + "'}";
+    }
+}
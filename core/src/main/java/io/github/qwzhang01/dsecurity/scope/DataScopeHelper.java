@@ -2,11 +2,13 @@ package io.github.qwzhang01.dsecurity.scope;
 
 
 import com.baomidou.mybatisplus.core.exceptions.MybatisPlusException;
-import io.github.qwzhang01.dsecurity.kit.SpringContextUtil;
+import io.github.qwzhang01.dsecurity.kit.ContextStorage;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
 import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 
 /**
@@ -23,12 +25,26 @@ import java.util.concurrent.Callable;
  *   <li>Support for both search and validation scenarios</li>
  * </ul>
  *
+ * <p>The context lives in one {@link ContextStorage}, a
+ * {@link ThreadLocal} unless replaced with
+ * {@link #setContextStorage(ContextStorage)}. Work handed to other threads
+ * takes it along through {@link DataScopePropagation}.</p>
+ *
  * @author avinzhang
  */
 public class DataScopeHelper {
-    private static final ThreadLocal<Context<?>> CONTEXT = new ThreadLocal<>();
-    private static final ThreadLocal<Context<?>> CONTEXT_CACHE =
-            new ThreadLocal<>();
+    private static volatile ContextStorage<Context<?>> storage =
+            ContextStorage.threadLocal();
+
+    /**
+     * Replaces the storage of the data scope context. Call it at startup,
+     * before any context is set.
+     *
+     * @param contextStorage the storage
+     */
+    public static void setContextStorage(ContextStorage<Context<?>> contextStorage) {
+        storage = Objects.requireNonNull(contextStorage, "contextStorage");
+    }
 
     /**
      * Checks if data scope is enabled.
@@ -36,11 +52,11 @@ public class DataScopeHelper {
      * @return true if data scope is active
      */
     public static boolean isStarted() {
-        Context<?> context = CONTEXT.get();
-        if (context == null) {
+        Context<?> context = storage.get();
+        if (context == null || context.suspended) {
             return false;
         }
-        return context.getDataScopeFlag();
+        return Boolean.TRUE.equals(context.getDataScopeFlag());
     }
 
     /**
@@ -53,11 +69,11 @@ public class DataScopeHelper {
     public static <T> Context<T> strategy(Class<?
             extends DataScopeStrategy<T>> strategy) {
         @SuppressWarnings("unchecked")
-        Context<T> context = (Context<T>) CONTEXT.get();
+        Context<T> context = (Context<T>) storage.get();
         if (context == null) {
             context = new Context<>();
             context.setDataScopeFlag(true);
-            CONTEXT.set(context);
+            storage.set(context);
         }
 
         context.setStrategy(strategy);
@@ -66,12 +82,9 @@ public class DataScopeHelper {
 
     public static <T> List<T> getSearchRight() {
         @SuppressWarnings("unchecked")
-        Context<T> context = (Context<T>) CONTEXT.get();
+        Context<T> context = (Context<T>) storage.get();
         if (context == null) {
-            context = (Context<T>) CONTEXT_CACHE.get();
-            if (context == null) {
-                return null;
-            }
+            return null;
         }
         return context.getSearchRight();
     }
@@ -82,8 +95,8 @@ public class DataScopeHelper {
      * @return data scope strategy class
      */
     public static Class<? extends DataScopeStrategy<?>> getStrategy() {
-        Context<?> context = CONTEXT.get();
-        if (context == null) {
+        Context<?> context = storage.get();
+        if (context == null || context.suspended) {
             return null;
         }
         return context.getStrategy();
@@ -93,8 +106,31 @@ public class DataScopeHelper {
      * Clears thread-local data scope variables.
      */
     public static void clear() {
-        CONTEXT.remove();
-        CONTEXT_CACHE.remove();
+        storage.remove();
+    }
+
+    /**
+     * Captures the current context for use on another thread.
+     *
+     * @return a copy of the current context, or null if there is none
+     */
+    public static Context<?> snapshot() {
+        Context<?> context = storage.get();
+        return context == null ? null : context.copy();
+    }
+
+    /**
+     * Runs a task with the given context bound, restoring the previous one
+     * afterwards.
+     *
+     * @param context the context captured by {@link #snapshot()}, may be null
+     * @param task    the task
+     * @param <R>     the result type
+     * @return the task result
+     * @throws Exception thrown by the task
+     */
+    public static <R> R callWith(Context<?> context, Callable<R> task) throws Exception {
+        return storage.call(context, task);
     }
 
     /**
@@ -105,28 +141,34 @@ public class DataScopeHelper {
      * @return the query result
      */
     public static <R> R execute(Callable<R> function) {
-        Context<?> context = CONTEXT.get();
+        Context<?> context = storage.get();
         if (context == null) {
             context = new Context<>();
             context.setDataScopeFlag(false);
-            CONTEXT.set(context);
+            storage.set(context);
         }
         return context.execute(function);
     }
 
+    /**
+     * Suspends the context while a statement is rewritten, so statements
+     * issued by the strategy itself are not filtered. The search rights stay
+     * readable.
+     */
     public static void cache() {
-        Context<?> context = CONTEXT.get();
+        Context<?> context = storage.get();
         if (context != null) {
-            CONTEXT_CACHE.set(context);
-            CONTEXT.remove();
+            context.suspended = true;
         }
     }
 
+    /**
+     * Resumes the context suspended by {@link #cache()}.
+     */
     public static void restore() {
-        Context<?> context = CONTEXT_CACHE.get();
+        Context<?> context = storage.get();
         if (context != null) {
-            CONTEXT.set(context);
-            CONTEXT_CACHE.remove();
+            context.suspended = false;
         }
     }
 
@@ -154,6 +196,20 @@ public class DataScopeHelper {
          * Data scope query strategy
          */
         private Class<? extends DataScopeStrategy<T>> strategy;
+        /**
+         * Set while the current statement is being rewritten
+         */
+        private boolean suspended;
+
+        private Context<T> copy() {
+            Context<T> copy = new Context<>();
+            copy.dataScopeFlag = dataScopeFlag;
+            copy.searchRight = searchRight == null ? null : new ArrayList<>(searchRight);
+            copy.validRights = validRights == null ? null : new ArrayList<>(validRights);
+            copy.withoutRights = withoutRights == null ? null : new ArrayList<>(withoutRights);
+            copy.strategy = strategy;
+            return copy;
+        }
 
         public List<T> getSearchRight() {
             return searchRight;
@@ -235,7 +291,7 @@ public class DataScopeHelper {
 
         public <R> R execute(Callable<R> function) {
             DataScopeStrategyContainer container =
-                    SpringContextUtil.getBean(DataScopeStrategyContainer.class);
+                    DataSecurityRuntime.current().getStrategyContainer();
             DataScopeStrategy<?> obj = container.getStrategy(strategy);
             // 由于容器返回的是通配符类型，这里需要进行类型转换
             @SuppressWarnings("unchecked")
@@ -0,0 +1,212 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Carries the {@link DataScopeHelper} context over to other threads.
+ *
+ * <p>Each wrapper captures a copy of the caller's context when it is
+ * created and binds it around the task on the executing thread, restoring
+ * whatever that thread had before. Copies keep parallel tasks from
+ * suspending each other's context while a statement is rewritten.</p>
+ *
+ * <pre>
+ * DataScopeHelper.strategy(OrgStrategy.class).setSearchRight(orgIds)
+ *         .execute(() -&gt; DataScopePropagation
+ *                 .supplyAsync(() -&gt; mapper.selectList(null), executor)
+ *                 .join());
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class DataScopePropagation {
+
+    private DataScopePropagation() {
+        throw new UnsupportedOperationException("DataScopePropagation is a " +
+                "utility class and cannot be instantiated");
+    }
+
+    /**
+     * @param task the task
+     * @return the task running with the caller's data scope context
+     */
+    public static Runnable wrap(Runnable task) {
+        DataScopeHelper.Context<?> context = DataScopeHelper.snapshot();
+        if (context == null) {
+            return task;
+        }
+        return () -> call(context, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @param task the task
+     * @param <R>  the result type
+     * @return the task running with the caller's data scope context
+     */
+    public static <R> Callable<R> wrap(Callable<R> task) {
+        DataScopeHelper.Context<?> context = DataScopeHelper.snapshot();
+        if (context == null) {
+            return task;
+        }
+        return () -> DataScopeHelper.callWith(context, task);
+    }
+
+    /**
+     * @param supplier the supplier
+     * @param <R>      the result type
+     * @return the supplier running with the caller's data scope context
+     */
+    public static <R> Supplier<R> wrapSupplier(Supplier<R> supplier) {
+        DataScopeHelper.Context<?> context = DataScopeHelper.snapshot();
+        if (context == null) {
+            return supplier;
+        }
+        return () -> call(context, supplier::get);
+    }
+
+    /**
+     * Decorates an executor so every submitted task takes the submitter's
+     * context along.
+     *
+     * @param executor the executor
+     * @return the decorated executor
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Decorates an executor service so every submitted task takes the
+     * submitter's context along.
+     *
+     * @param executorService the executor service
+     * @return the decorated executor service
+     */
+    public static ExecutorService propagating(ExecutorService executorService) {
+        return new PropagatingExecutorService(executorService);
+    }
+
+    /**
+     * {@link CompletableFuture#supplyAsync(Supplier, Executor)} with the
+     * caller's context.
+     */
+    public static <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier,
+                                                       Executor executor) {
+        return CompletableFuture.supplyAsync(wrapSupplier(supplier), executor);
+    }
+
+    /**
+     * {@link CompletableFuture#runAsync(Runnable, Executor)} with the
+     * caller's context.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+
+    private static <R> R call(DataScopeHelper.Context<?> context, Callable<R> task) {
+        try {
+            return DataScopeHelper.callWith(context, task);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DesensitizeException(e);
+        }
+    }
+
+    private static final class PropagatingExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        private PropagatingExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return delegate.submit(wrap(task));
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return delegate.submit(wrap(task));
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return delegate.submit(wrap(task), result);
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+                throws InterruptedException {
+            return delegate.invokeAll(wrapAll(tasks));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks,
+                                             long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.invokeAll(wrapAll(tasks), timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+                throws InterruptedException, ExecutionException {
+            return delegate.invokeAny(wrapAll(tasks));
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks,
+                               long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.invokeAny(wrapAll(tasks), timeout, unit);
+        }
+
+        private static <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+            List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                wrapped.add(wrap(task));
+            }
+            return wrapped;
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
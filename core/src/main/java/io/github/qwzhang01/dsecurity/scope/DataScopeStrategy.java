@@ -48,6 +48,22 @@ public interface DataScopeStrategy<T> {
      */
     String where();
 
+    /**
+     * Whether the integer {@code IN} lists of {@link #where()} only test
+     * integral columns, so runs of consecutive IDs may be bound as
+     * {@code BETWEEN} ranges when the list reaches the IN-list threshold.
+     *
+     * <p>Off by default: on a text or decimal column a range also matches
+     * values the list does not contain, such as {@code 1.5} for
+     * {@code IN (1, 2)}. Long lists are then bound as {@code IN (?, ...)}
+     * only.</p>
+     *
+     * @return true to allow range compaction
+     */
+    default boolean integralInLists() {
+        return false;
+    }
+
     /**
      * Validates and sets effective permission data.
      *
@@ -0,0 +1,57 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+/**
+ * Data scope strategy that returns its condition as a template with bind
+ * values instead of literal SQL.
+ *
+ * <p>The processor binds the values as extra parameters of the statement,
+ * so per-user IDs never appear in the SQL text and all users share one
+ * rewritten statement.</p>
+ *
+ * <pre>
+ * public class DepartmentScopeStrategy implements ParameterizedDataScopeStrategy&lt;Long&gt; {
+ *     {@code @Override}
+ *     public ScopePredicate predicate() {
+ *         return ScopePredicate.where(
+ *                 "t.dept_id IN (SELECT dept_id FROM user_dept WHERE user_id = ?)",
+ *                 CurrentUser.id());
+ *     }
+ *     ...
+ * }
+ * </pre>
+ *
+ * @param <T> permission data type
+ * @author avinzhang
+ */
+public interface ParameterizedDataScopeStrategy<T> extends DataScopeStrategy<T> {
+
+    /**
+     * Data scope condition of the current execution.
+     *
+     * @return the condition, or {@link ScopePredicate#NONE} if no condition
+     * is needed
+     */
+    ScopePredicate predicate();
+
+    /**
+     * Not used by the processor, which dispatches on this type and takes
+     * the condition from {@link #predicate()}.
+     *
+     * @return an empty join
+     */
+    @Override
+    default String join() {
+        return "";
+    }
+
+    /**
+     * Not used by the processor, which dispatches on this type and takes
+     * the condition from {@link #predicate()}.
+     *
+     * @return an empty condition
+     */
+    @Override
+    default String where() {
+        return "";
+    }
+}
@@ -0,0 +1,743 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import java.util.*;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of {@code long} permission IDs.
+ *
+ * <p>Roaring-style layout: IDs are split into the high 48 bits, kept as a
+ * sorted key array, and the low 16 bits, kept per key in a container. A
+ * container holds a sorted {@code char[]} while it has at most
+ * {@value #ARRAY_MAX} values and a 1024-word bitmap otherwise, so sparse
+ * and dense ID sets both stay compact and set operations work container by
+ * container instead of scanning boxed lists.</p>
+ *
+ * <p>Meant for {@link DataScopeStrategy#validDs(List, List)} implementations
+ * checking large rights lists, and for generating SQL from contiguous ID
+ * runs through {@link #ranges()} or {@link ScopePredicate#whereIn(String,
+ * RightsBitmap)}:</p>
+ *
+ * <pre>
+ * RightsBitmap owned = RightsBitmap.of(userDeptIds);
+ * RightsBitmap denied = RightsBitmap.of(validRights).andNot(owned)
+ *         .andNot(RightsBitmap.of(withoutRights));
+ * if (!denied.isEmpty()) {
+ *     throw new DesensitizeException("No permission: " + denied);
+ * }
+ * </pre>
+ *
+ * <p>Instances are mutable through {@link #add(long)} and
+ * {@link #addRange(long, long)} and not thread-safe; the set operations
+ * return new instances.</p>
+ *
+ * @author avinzhang
+ */
+public final class RightsBitmap {
+    /**
+     * Maximum cardinality of an array container.
+     */
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private long[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RightsBitmap() {
+        this(4);
+    }
+
+    private RightsBitmap(int capacity) {
+        this.keys = new long[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    /**
+     * @param ids the IDs, {@code null} elements are skipped
+     * @return a bitmap of the IDs
+     */
+    public static RightsBitmap of(Collection<? extends Number> ids) {
+        RightsBitmap bitmap = new RightsBitmap();
+        if (ids != null) {
+            for (Number id : ids) {
+                if (id != null) {
+                    bitmap.add(id.longValue());
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param ids the IDs
+     * @return a bitmap of the IDs
+     */
+    public static RightsBitmap of(long... ids) {
+        RightsBitmap bitmap = new RightsBitmap();
+        for (long id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param start the first ID
+     * @param end   the last ID, inclusive
+     * @return a bitmap of all IDs from start to end
+     */
+    public static RightsBitmap range(long start, long end) {
+        return new RightsBitmap().addRange(start, end);
+    }
+
+    /**
+     * @param id the ID
+     * @return this bitmap
+     */
+    public RightsBitmap add(long id) {
+        long key = id >> 16;
+        int i = indexOf(key);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) id);
+        } else {
+            insert(-i - 1, key, new ArrayContainer().add((char) id));
+        }
+        return this;
+    }
+
+    /**
+     * @param start the first ID
+     * @param end   the last ID, inclusive
+     * @return this bitmap
+     */
+    public RightsBitmap addRange(long start, long end) {
+        if (start > end) {
+            return this;
+        }
+        for (long key = start >> 16; ; key++) {
+            int lo = key == start >> 16 ? (char) start : 0;
+            int hi = key == end >> 16 ? (char) end : 0xFFFF;
+            int i = indexOf(key);
+            if (i >= 0) {
+                containers[i] = containers[i].addRange(lo, hi);
+            } else {
+                insert(-i - 1, key, new ArrayContainer().addRange(lo, hi));
+            }
+            if (key == end >> 16) {
+                return this;
+            }
+        }
+    }
+
+    public boolean contains(long id) {
+        int i = indexOf(id >> 16);
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return true if every ID of other is in this bitmap
+     */
+    public boolean containsAll(RightsBitmap other) {
+        return other.andNot(this).isEmpty();
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return true if the bitmaps share an ID
+     */
+    public boolean intersects(RightsBitmap other) {
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            int c = Long.compare(keys[i], other.keys[j]);
+            if (c == 0) {
+                if (Container.and(containers[i], other.containers[j]) != null) {
+                    return true;
+                }
+                i++;
+                j++;
+            } else if (c < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of IDs
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return the IDs in both bitmaps
+     */
+    public RightsBitmap and(RightsBitmap other) {
+        RightsBitmap result = new RightsBitmap(Math.min(size, other.size) + 1);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            int c = Long.compare(keys[i], other.keys[j]);
+            if (c == 0) {
+                result.append(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            } else if (c < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return the IDs in either bitmap
+     */
+    public RightsBitmap or(RightsBitmap other) {
+        RightsBitmap result = new RightsBitmap(size + other.size + 1);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            int c = i == size ? 1 : j == other.size ? -1
+                    : Long.compare(keys[i], other.keys[j]);
+            if (c == 0) {
+                result.append(keys[i], Container.or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            } else if (c < 0) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return the IDs of this bitmap that are not in other
+     */
+    public RightsBitmap andNot(RightsBitmap other) {
+        RightsBitmap result = new RightsBitmap(size + 1);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.append(keys[i], Container.andNot(containers[i], other.containers[j]));
+            } else {
+                result.append(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits the IDs in ascending order.
+     *
+     * @param action the action
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            long base = keys[i] << 16;
+            containers[i].forEachRun((lo, hi) -> {
+                for (int v = lo; v <= hi; v++) {
+                    action.accept(base | v);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the IDs in ascending order
+     */
+    public long[] toArray() {
+        long[] ids = new long[Math.toIntExact(cardinality())];
+        int[] next = {0};
+        forEach(id -> ids[next[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * @return the IDs in ascending order
+     */
+    public List<Long> toList() {
+        List<Long> ids = new ArrayList<>(Math.toIntExact(cardinality()));
+        forEach(ids::add);
+        return ids;
+    }
+
+    /**
+     * Maximal runs of consecutive IDs, in ascending order.
+     *
+     * @return the runs
+     */
+    public List<Range> ranges() {
+        List<Range> ranges = new ArrayList<>();
+        long[] run = {0, 0};
+        boolean[] open = {false};
+        for (int i = 0; i < size; i++) {
+            long base = keys[i] << 16;
+            containers[i].forEachRun((lo, hi) -> {
+                long start = base | lo;
+                long end = base | hi;
+                if (open[0] && run[1] != Long.MAX_VALUE && run[1] + 1 == start) {
+                    run[1] = end;
+                    return;
+                }
+                if (open[0]) {
+                    ranges.add(new Range(run[0], run[1]));
+                }
+                run[0] = start;
+                run[1] = end;
+                open[0] = true;
+            });
+        }
+        if (open[0]) {
+            ranges.add(new Range(run[0], run[1]));
+        }
+        return ranges;
+    }
+
+    private int indexOf(long key) {
+        // Appending in ascending order is the common case
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, long key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(long key, Container container) {
+        if (container != null) {
+            insert(size, key, container);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RightsBitmap other) || size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i] || !containers[i].equals(other.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(keys[i]);
+            hash = 31 * hash + containers[i].hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Range range : ranges()) {
+            joiner.add(range.toString());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Run of consecutive IDs.
+     *
+     * @param start the first ID
+     * @param end   the last ID, inclusive
+     */
+    public record Range(long start, long end) {
+        /**
+         * @return the number of IDs in the run
+         */
+        public long length() {
+            return end - start + 1;
+        }
+
+        @Override
+        public String toString() {
+            return start == end ? String.valueOf(start) : start + ".." + end;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RunConsumer {
+        void accept(int lo, int hi);
+    }
+
+    /**
+     * Low 16 bits of the IDs sharing a key. Containers are canonical: an
+     * array container never holds more than {@link #ARRAY_MAX} values and a
+     * bitmap container never holds fewer, and empty containers are dropped.
+     */
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        abstract Container add(char value);
+
+        abstract Container addRange(int lo, int hi);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract BitmapContainer toBitmap();
+
+        abstract Container copy();
+
+        abstract void forEachRun(RunConsumer consumer);
+
+        /**
+         * @return the intersection, or null if empty
+         */
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer array) {
+                return array.filter(b, true);
+            }
+            if (b instanceof ArrayContainer array) {
+                return array.filter(a, true);
+            }
+            long[] words = ((BitmapContainer) a).words.clone();
+            long[] other = ((BitmapContainer) b).words;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= other[i];
+            }
+            return BitmapContainer.normalize(words);
+        }
+
+        static Container or(Container a, Container b) {
+            if (a instanceof ArrayContainer x && b instanceof ArrayContainer y
+                    && x.size + y.size <= ARRAY_MAX) {
+                return x.merge(y);
+            }
+            long[] words = a.toBitmap().words.clone();
+            long[] other = b.toBitmap().words;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] |= other[i];
+            }
+            return BitmapContainer.normalize(words);
+        }
+
+        /**
+         * @return the values of a not in b, or null if empty
+         */
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer array) {
+                return array.filter(b, false);
+            }
+            long[] words = ((BitmapContainer) a).words.clone();
+            if (b instanceof ArrayContainer array) {
+                for (int i = 0; i < array.size; i++) {
+                    char v = array.values[i];
+                    words[v >>> 6] &= ~(1L << v);
+                }
+            } else {
+                long[] other = ((BitmapContainer) b).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~other[i];
+                }
+            }
+            return BitmapContainer.normalize(words);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = size > 0 && values[size - 1] < value ? -size - 1
+                    : Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container addRange(int lo, int hi) {
+            if (size + hi - lo + 1 > ARRAY_MAX) {
+                BitmapContainer bitmap = toBitmap();
+                bitmap.addRange(lo, hi);
+                // Overlapping values may keep it small enough for an array
+                return bitmap.cardinality > ARRAY_MAX ? bitmap
+                        : BitmapContainer.normalize(bitmap.words);
+            }
+            Container result = this;
+            for (int v = lo; v <= hi; v++) {
+                result = result.add((char) v);
+            }
+            return result;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, size), size);
+        }
+
+        @Override
+        void forEachRun(RunConsumer consumer) {
+            int i = 0;
+            while (i < size) {
+                int j = i;
+                while (j + 1 < size && values[j + 1] == values[j] + 1) {
+                    j++;
+                }
+                consumer.accept(values[i], values[j]);
+                i = j + 1;
+            }
+        }
+
+        /**
+         * @return the values that are (keep) or are not (!keep) in other,
+         * or null if none
+         */
+        Container filter(Container other, boolean keep) {
+            char[] kept = new char[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i]) == keep) {
+                    kept[n++] = values[i];
+                }
+            }
+            return n == 0 ? null : new ArrayContainer(kept, n);
+        }
+
+        Container merge(ArrayContainer other) {
+            char[] merged = new char[size + other.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || i < size && values[i] < other.values[j]) {
+                    merged[n++] = values[i++];
+                } else if (i == size || other.values[j] < values[i]) {
+                    merged[n++] = other.values[j++];
+                } else {
+                    merged[n++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(merged, n);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayContainer other
+                    && Arrays.equals(values, 0, size, other.values, 0, other.size);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + values[i];
+            }
+            return hash;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * @return the canonical container of the words, or null if empty
+         */
+        static Container normalize(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            if (cardinality > ARRAY_MAX) {
+                return bitmap;
+            }
+            char[] values = new char[cardinality];
+            int[] n = {0};
+            bitmap.forEachRun((lo, hi) -> {
+                for (int v = lo; v <= hi; v++) {
+                    values[n[0]++] = (char) v;
+                }
+            });
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container addRange(int lo, int hi) {
+            int first = lo >>> 6;
+            int last = hi >>> 6;
+            for (int w = first; w <= last; w++) {
+                long mask = -1L;
+                if (w == first) {
+                    mask &= -1L << lo;
+                }
+                if (w == last) {
+                    mask &= -1L >>> (63 - (hi & 63));
+                }
+                cardinality += Long.bitCount(mask & ~words[w]);
+                words[w] |= mask;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEachRun(RunConsumer consumer) {
+            int start = nextSetBit(0);
+            while (start >= 0) {
+                int end = nextClearBit(start);
+                consumer.accept(start, end - 1);
+                start = end > 0xFFFF ? -1 : nextSetBit(end);
+            }
+        }
+
+        private int nextSetBit(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        private int nextClearBit(int from) {
+            int w = from >>> 6;
+            long word = ~words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == BITMAP_WORDS) {
+                    return 0x10000;
+                }
+                word = ~words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitmapContainer other && Arrays.equals(words, other.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+
+import java.util.*;
+
+/**
+ * Data scope condition with {@code ?} placeholders and their bind values.
+ *
+ * <p>The join and where templates take the place of the literal
+ * {@link DataScopeStrategy#join()}/{@link DataScopeStrategy#where()}
+ * fragments. Values are bound in placeholder order, join placeholders
+ * first. Because the values never enter the SQL text, the rewritten SQL is
+ * the same for every user, which keeps server- and client-side statement
+ * caches and the rewrite cache effective.</p>
+ *
+ * <pre>
+ * ScopePredicate.where("t.dept_id IN (SELECT dept_id FROM user_dept WHERE user_id = ?)", userId);
+ * ScopePredicate.of("LEFT JOIN user_dept ud ON ud.dept_id = t.dept_id AND ud.user_id = ?",
+ *         "ud.role &gt;= ?", List.of(userId, role));
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public final class ScopePredicate {
+
+    /**
+     * No condition.
+     */
+    public static final ScopePredicate NONE = new ScopePredicate("", "",
+            Collections.emptyList());
+
+    /**
+     * Shortest run of consecutive IDs written as a range by
+     * {@link #whereIn(String, RightsBitmap)}.
+     */
+    static final int MIN_RANGE_LENGTH = 3;
+
+    private final String join;
+    private final String where;
+    private final List<Object> values;
+
+    private ScopePredicate(String join, String where, List<Object> values) {
+        this.join = join;
+        this.where = where;
+        this.values = values;
+    }
+
+    /**
+     * @param join   the JOIN template, may be empty
+     * @param where  the WHERE template, may be empty
+     * @param values the bind values, join placeholders first
+     * @return the predicate
+     * @throws DesensitizeException if the number of values does not match
+     *                              the number of placeholders
+     */
+    public static ScopePredicate of(String join, String where, List<?> values) {
+        String j = join == null ? "" : join.trim();
+        String w = where == null ? "" : where.trim();
+        List<Object> v = values == null ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(values));
+        int placeholders = SqlText.countPlaceholders(j) + SqlText.countPlaceholders(w);
+        if (placeholders != v.size()) {
+            throw new DesensitizeException("Data scope predicate has " + placeholders
+                    + " placeholders but " + v.size() + " values");
+        }
+        return new ScopePredicate(j, w, v);
+    }
+
+    /**
+     * Creates a predicate from templates whose placeholders were already
+     * counted, see {@link DataScopeFragment}.
+     */
+    static ScopePredicate bound(String join, String where, int placeholders,
+                                List<?> values) {
+        if (placeholders != values.size()) {
+            throw new DesensitizeException("Data scope predicate has " + placeholders
+                    + " placeholders but " + values.size() + " values");
+        }
+        return new ScopePredicate(join, where,
+                Collections.unmodifiableList(new ArrayList<>(values)));
+    }
+
+    /**
+     * @param where  the WHERE template
+     * @param values the bind values
+     * @return a predicate without join
+     */
+    public static ScopePredicate where(String where, Object... values) {
+        return of("", where, Arrays.asList(values));
+    }
+
+    /**
+     * Builds {@code column IN (?, ?, ...)}. The SQL text only varies with
+     * the number of values; an empty collection matches no row.
+     *
+     * @param column the column expression
+     * @param values the allowed values
+     * @return a predicate without join
+     */
+    public static ScopePredicate whereIn(String column, Collection<?> values) {
+        if (values.isEmpty()) {
+            return of("", "1 = 0", Collections.emptyList());
+        }
+        StringJoiner in = new StringJoiner(", ", column + " IN (", ")");
+        for (int i = 0; i < values.size(); i++) {
+            in.add("?");
+        }
+        return of("", in.toString(), new ArrayList<>(values));
+    }
+
+    /**
+     * Builds a condition from the runs of a bitmap: runs of at least
+     * {@value #MIN_RANGE_LENGTH} IDs become {@code column BETWEEN ? AND ?},
+     * the remaining IDs one {@code column IN (...)}. The SQL text varies
+     * with the shape of the set rather than its size; an empty bitmap
+     * matches no row.
+     *
+     * @param column the column expression
+     * @param rights the allowed IDs
+     * @return a predicate without join
+     */
+    public static ScopePredicate whereIn(String column, RightsBitmap rights) {
+        if (rights.isEmpty()) {
+            return of("", "1 = 0", Collections.emptyList());
+        }
+        List<Object> values = new ArrayList<>();
+        List<Object> singles = new ArrayList<>();
+        StringJoiner or = new StringJoiner(" OR ", "(", ")");
+        for (RightsBitmap.Range range : rights.ranges()) {
+            if (range.length() >= MIN_RANGE_LENGTH) {
+                or.add(column + " BETWEEN ? AND ?");
+                values.add(range.start());
+                values.add(range.end());
+            } else {
+                for (long id = range.start(); id <= range.end(); id++) {
+                    singles.add(id);
+                }
+            }
+        }
+        if (!singles.isEmpty()) {
+            StringJoiner in = new StringJoiner(", ", column + " IN (", ")");
+            for (int i = 0; i < singles.size(); i++) {
+                in.add("?");
+            }
+            or.add(in.toString());
+            values.addAll(singles);
+        }
+        return of("", or.toString(), values);
+    }
+
+    public String getJoin() {
+        return join;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return true if there is neither a join nor a where condition
+     */
+    public boolean isEmpty() {
+        return join.isEmpty() && where.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ScopePredicate{join='" + join + "', where='" + where
+                + "', values=" + values + '}';
+    }
+}
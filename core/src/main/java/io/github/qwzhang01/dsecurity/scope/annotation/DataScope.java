@@ -0,0 +1,50 @@
+package io.github.qwzhang01.dsecurity.scope.annotation;
+
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares the data scope of mapper statements.
+ *
+ * <p>On a method it applies to the statements of that method; on a mapper
+ * interface to all of its SELECT, UPDATE and DELETE statements, unless the
+ * method declares its own. Each statement gets the condition
+ * {@code column IN (values)}, with the values supplied by the strategy on
+ * every execution. Unlike {@code DataScopeHelper}, no context has to be
+ * opened around the call.</p>
+ *
+ * <p>Scopes are resolved against the mapped statements at startup, and
+ * static SQL is rewritten into a template there; dynamic SQL is rewritten
+ * once per distinct SQL text. Executions only splice the bind
+ * placeholders into the template.</p>
+ *
+ * <pre>
+ * {@code @DataScope(value = DepartmentScopeStrategy.class, column = "t.dept_id")}
+ * public interface OrderMapper extends BaseMapper&lt;Order&gt; {
+ *     List&lt;Order&gt; selectRecent(@Param("since") LocalDate since);
+ * }
+ * </pre>
+ *
+ * @author avinzhang
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DataScope {
+
+    /**
+     * The strategy supplying the allowed values.
+     *
+     * @return the strategy class
+     */
+    Class<? extends ColumnDataScopeStrategy<?>> value();
+
+    /**
+     * The scoped column, qualified with the table alias used in the
+     * statement if there is one, for example {@code t.dept_id}.
+     *
+     * @return the column
+     */
+    String column();
+}
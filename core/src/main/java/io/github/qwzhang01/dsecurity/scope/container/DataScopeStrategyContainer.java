@@ -0,0 +1,203 @@
+package io.github.qwzhang01.dsecurity.scope.container;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.BeanLookup;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+import io.github.qwzhang01.dsecurity.scope.CacheableDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.DataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data scope strategy container for managing strategy instances.
+ *
+ * <p>This container manages data scope strategy instances using lazy
+ * instantiation with caching. It follows the Factory Pattern to create
+ * and cache strategy objects.</p>
+ *
+ * <p><strong>Features:</strong></p>
+ * <ul>
+ *   <li>Thread-safe caching with ConcurrentHashMap</li>
+ *   <li>{@link BeanLookup} integration for dependency injection</li>
+ *   <li>Fallback to reflection-based instantiation</li>
+ *   <li>Per-principal condition cache for
+ *   {@link CacheableDataScopeStrategy} implementations, bounded in size
+ *   and time, with explicit invalidation</li>
+ * </ul>
+ *
+ * @author avinzhang
+ */
+public class DataScopeStrategyContainer {
+    /**
+     * Default maximum number of cached conditions.
+     */
+    public static final int DEFAULT_CONDITION_CACHE_SIZE = 10_000;
+    /**
+     * Default time a cached condition is used.
+     */
+    public static final Duration DEFAULT_CONDITION_TTL = Duration.ofMinutes(5);
+
+    private static final ConcurrentHashMap<Class<? extends DataScopeStrategy<
+            ?>>, DataScopeStrategy<?>> ALGO_CACHE = new ConcurrentHashMap<>();
+
+    private volatile BeanLookup beanLookup = BeanLookup.NONE;
+    private volatile BoundedCache<ConditionKey, CachedCondition> conditions =
+            new BoundedCache<>(DEFAULT_CONDITION_CACHE_SIZE);
+    private volatile long conditionTtlNanos = DEFAULT_CONDITION_TTL.toNanos();
+    /**
+     * Bumped by every invalidation, so a condition computed while one ran
+     * is not cached afterwards.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Sets where strategy instances with injected dependencies are looked up
+     * before reflective instantiation.
+     *
+     * @param beanLookup the lookup
+     */
+    public void setBeanLookup(BeanLookup beanLookup) {
+        this.beanLookup = beanLookup == null ? BeanLookup.NONE : beanLookup;
+    }
+
+    /**
+     * Configures the condition cache, dropping the cached conditions.
+     *
+     * @param maxSize the maximum number of cached conditions
+     * @param ttl     how long a condition is used; zero turns caching off
+     */
+    public void configureConditionCache(int maxSize, Duration ttl) {
+        this.conditions = new BoundedCache<>(maxSize);
+        this.conditionTtlNanos = ttl.toNanos();
+        invalidations.incrementAndGet();
+    }
+
+    public DataScopeStrategy<?> getStrategy(Class<?
+            extends DataScopeStrategy<?>> strategy) {
+        DataScopeStrategy<?> scopeStrategy = ALGO_CACHE.get(strategy);
+        if (scopeStrategy == null) {
+            scopeStrategy = beanLookup.getBean(strategy);
+            if (scopeStrategy == null) {
+                try {
+                    scopeStrategy = strategy.getConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new DesensitizeException(e);
+                }
+            }
+            ALGO_CACHE.putIfAbsent(strategy, scopeStrategy);
+        }
+
+        return scopeStrategy;
+    }
+
+    /**
+     * Returns the condition of a strategy for the current execution, from
+     * the cache when the strategy is a {@link CacheableDataScopeStrategy}
+     * with a principal key.
+     *
+     * @param strategy the strategy class
+     * @return the condition
+     */
+    public ScopeCondition getCondition(Class<? extends DataScopeStrategy<?>> strategy) {
+        DataScopeStrategy<?> obj = getStrategy(strategy);
+        long ttl = conditionTtlNanos;
+        if (ttl <= 0 || !(obj instanceof CacheableDataScopeStrategy<?> cacheable)) {
+            return condition(obj);
+        }
+        Object principalKey = cacheable.principalKey();
+        if (principalKey == null) {
+            return condition(obj);
+        }
+
+        BoundedCache<ConditionKey, CachedCondition> cache = conditions;
+        ConditionKey key = new ConditionKey(strategy, principalKey,
+                DataScopeHelper.getSearchRight());
+        long now = System.nanoTime();
+        CachedCondition cached = cache.getIfPresent(key);
+        if (cached != null && now - cached.loadedAt() < ttl) {
+            return cached.condition();
+        }
+        long generation = invalidations.get();
+        ScopeCondition condition = condition(obj);
+        if (generation == invalidations.get()) {
+            cache.put(key.detached(), new CachedCondition(condition, now));
+        }
+        return condition;
+    }
+
+    /**
+     * Evicts the cached conditions of a principal, e.g. after its roles or
+     * organization changed.
+     *
+     * @param principalKey the principal key
+     */
+    public void invalidate(Object principalKey) {
+        invalidations.incrementAndGet();
+        conditions.removeIf(key -> key.principalKey().equals(principalKey));
+    }
+
+    /**
+     * Evicts the cached conditions of a strategy for all principals.
+     *
+     * @param strategy the strategy class
+     */
+    public void invalidate(Class<? extends DataScopeStrategy<?>> strategy) {
+        invalidations.incrementAndGet();
+        conditions.removeIf(key -> key.strategy().equals(strategy));
+    }
+
+    /**
+     * Evicts all cached conditions.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        conditions.clear();
+    }
+
+    /**
+     * @return hit and miss counts of the condition cache
+     */
+    public BoundedCache.Stats getConditionCacheStats() {
+        return conditions.stats();
+    }
+
+    private static ScopeCondition condition(DataScopeStrategy<?> obj) {
+        if (obj instanceof ParameterizedDataScopeStrategy<?> parameterized) {
+            ScopePredicate predicate = parameterized.predicate();
+            if (predicate == null) {
+                predicate = ScopePredicate.NONE;
+            }
+            return new ScopeCondition(predicate.getJoin(), predicate.getWhere(),
+                    predicate);
+        }
+        if (obj instanceof ColumnDataScopeStrategy<?>) {
+            // Without the declared column there is no condition; fail closed
+            throw new DesensitizeException(obj.getClass().getName()
+                    + " is a ColumnDataScopeStrategy and only applies through @DataScope");
+        }
+        return new ScopeCondition(obj.join(), obj.where(), null);
+    }
+
+    private record ConditionKey(Class<?> strategy, Object principalKey,
+                                List<?> searchRight) {
+
+        /**
+         * @return a key that no longer shares the context's mutable list
+         */
+        ConditionKey detached() {
+            return searchRight == null ? this : new ConditionKey(strategy,
+                    principalKey, new ArrayList<>(searchRight));
+        }
+    }
+
+    private record CachedCondition(ScopeCondition condition, long loadedAt) {
+    }
+}
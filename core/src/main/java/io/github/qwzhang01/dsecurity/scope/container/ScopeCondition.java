@@ -0,0 +1,15 @@
+package io.github.qwzhang01.dsecurity.scope.container;
+
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+
+/**
+ * Data scope condition returned by a strategy for one execution.
+ *
+ * @param join      the literal JOIN, or the join template of the predicate
+ * @param where     the literal WHERE, or the where template of the predicate
+ * @param predicate the bound predicate of a parameterized strategy, null
+ *                  for a literal condition
+ * @author avinzhang
+ */
+public record ScopeCondition(String join, String where, ScopePredicate predicate) {
+}
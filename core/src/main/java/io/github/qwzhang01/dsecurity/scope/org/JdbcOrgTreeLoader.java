@@ -0,0 +1,241 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Loads organization rows from a table over JDBC.
+ *
+ * <p>With an update timestamp column, {@link #loadChanges(Instant)} only
+ * reads rows changed since the previous load, measured on the database
+ * clock; rows flagged in the optional deleted column are reported as
+ * removals. With interval columns, the nested-set numbers are written back
+ * after each load in one transaction, updating only the rows whose numbers
+ * changed, so queries can join the table and filter on {@code lft}. Data
+ * scope conditions then read the bounds of each subtree from the table
+ * itself, so they stay consistent with the stored numbers.</p>
+ *
+ * <p>Only one instance should write the intervals of a table; turn writing
+ * off with {@link #setWriteIntervals(boolean)} on the others, which still
+ * read the bounds in SQL.</p>
+ *
+ * <p>Statements are issued directly on the data source, outside MyBatis,
+ * so they are not subject to data scope.</p>
+ *
+ * @author avinzhang
+ */
+public class JdbcOrgTreeLoader implements OrgTreeLoader {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+    private static final int BATCH_SIZE = 500;
+    private static final String CLOCK_SQL = "SELECT CURRENT_TIMESTAMP";
+
+    private final DataSource dataSource;
+    private final String table;
+    private final String idColumn;
+    private final String parentColumn;
+    private String updatedColumn;
+    private String deletedColumn;
+    private String lftColumn;
+    private String rgtColumn;
+    private boolean writeIntervals = true;
+
+    /**
+     * @param dataSource   the data source
+     * @param table        the organization table
+     * @param idColumn     the ID column
+     * @param parentColumn the parent ID column
+     */
+    public JdbcOrgTreeLoader(DataSource dataSource, String table, String idColumn,
+                             String parentColumn) {
+        this.dataSource = dataSource;
+        this.table = identifier(table);
+        this.idColumn = identifier(idColumn);
+        this.parentColumn = identifier(parentColumn);
+    }
+
+    /**
+     * @param updatedColumn the column holding the last update time of a row
+     * @return this loader
+     */
+    public JdbcOrgTreeLoader setUpdatedColumn(String updatedColumn) {
+        this.updatedColumn = identifier(updatedColumn);
+        return this;
+    }
+
+    /**
+     * @param deletedColumn the logical delete flag, non-zero for deleted rows
+     * @return this loader
+     */
+    public JdbcOrgTreeLoader setDeletedColumn(String deletedColumn) {
+        this.deletedColumn = identifier(deletedColumn);
+        return this;
+    }
+
+    /**
+     * @param lftColumn the maintained left bound column
+     * @param rgtColumn the maintained right bound column
+     * @return this loader
+     */
+    public JdbcOrgTreeLoader setIntervalColumns(String lftColumn, String rgtColumn) {
+        this.lftColumn = identifier(lftColumn);
+        this.rgtColumn = identifier(rgtColumn);
+        return this;
+    }
+
+    /**
+     * @param writeIntervals false if another instance maintains the interval
+     *                       columns
+     * @return this loader
+     */
+    public JdbcOrgTreeLoader setWriteIntervals(boolean writeIntervals) {
+        this.writeIntervals = writeIntervals;
+        return this;
+    }
+
+    @Override
+    public List<OrgNode> loadAll() {
+        String sql = "SELECT " + idColumn + ", " + parentColumn + " FROM " + table
+                + (deletedColumn == null ? "" : " WHERE " + deletedColumn + " = 0");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            List<OrgNode> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                rows.add(new OrgNode(resultSet.getLong(1), parent(resultSet)));
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new DesensitizeException("Failed to load organizations from " + table, e);
+        }
+    }
+
+    /**
+     * Reads {@code CURRENT_TIMESTAMP} when changes are tracked; override
+     * for databases that need another query, such as Oracle.
+     */
+    @Override
+    public Instant currentTime() {
+        if (updatedColumn == null) {
+            return Instant.now();
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CLOCK_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getTimestamp(1).toInstant();
+        } catch (SQLException e) {
+            throw new DesensitizeException("Failed to read the database time", e);
+        }
+    }
+
+    @Override
+    public Changes loadChanges(Instant since) {
+        if (updatedColumn == null || since == null) {
+            return null;
+        }
+        String sql = "SELECT " + idColumn + ", " + parentColumn
+                + (deletedColumn == null ? "" : ", " + deletedColumn)
+                + " FROM " + table + " WHERE " + updatedColumn + " >= ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setTimestamp(1, Timestamp.from(since));
+            List<OrgNode> upserts = new ArrayList<>();
+            List<Long> removals = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long id = resultSet.getLong(1);
+                    if (deletedColumn != null && resultSet.getInt(3) != 0) {
+                        removals.add(id);
+                    } else {
+                        upserts.add(new OrgNode(id, parent(resultSet)));
+                    }
+                }
+            }
+            return new Changes(upserts, removals);
+        } catch (SQLException e) {
+            throw new DesensitizeException("Failed to load organization changes from "
+                    + table, e);
+        }
+    }
+
+    @Override
+    public String subtreeCondition(String column) {
+        if (lftColumn == null) {
+            return null;
+        }
+        return column + " BETWEEN (SELECT " + lftColumn + " FROM " + table + " WHERE "
+                + idColumn + " = ?) AND (SELECT " + rgtColumn + " FROM " + table
+                + " WHERE " + idColumn + " = ?)";
+    }
+
+    @Override
+    public void writeIntervals(OrgTreeIndex index) {
+        if (lftColumn == null || !writeIntervals) {
+            return;
+        }
+        // Unchanged rows match no row, so only renumbered ones are written
+        String update = "UPDATE " + table + " SET " + lftColumn + " = ?, " + rgtColumn
+                + " = ? WHERE " + idColumn + " = ? AND (" + lftColumn + " IS NULL OR "
+                + rgtColumn + " IS NULL OR " + lftColumn + " <> ? OR " + rgtColumn
+                + " <> ?)";
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(update)) {
+                int[] pending = {0};
+                SQLException[] failure = {null};
+                index.forEachInterval((id, lft, rgt) -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        statement.setInt(1, lft);
+                        statement.setInt(2, rgt);
+                        statement.setLong(3, id);
+                        statement.setInt(4, lft);
+                        statement.setInt(5, rgt);
+                        statement.addBatch();
+                        if (++pending[0] % BATCH_SIZE == 0) {
+                            statement.executeBatch();
+                        }
+                    } catch (SQLException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                if (pending[0] % BATCH_SIZE != 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DesensitizeException("Failed to write organization intervals to "
+                    + table, e);
+        }
+    }
+
+    private Long parent(ResultSet resultSet) throws SQLException {
+        long parent = resultSet.getLong(2);
+        return resultSet.wasNull() ? null : parent;
+    }
+
+    private static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new DesensitizeException("Invalid table or column name: " + name);
+        }
+        return name;
+    }
+}
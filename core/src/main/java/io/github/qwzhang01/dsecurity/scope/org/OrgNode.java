@@ -0,0 +1,11 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+/**
+ * Organization row of the tree.
+ *
+ * @param id       the organization ID
+ * @param parentId the parent ID, null (or an unknown ID) for a root
+ * @author avinzhang
+ */
+public record OrgNode(long id, Long parentId) {
+}
@@ -0,0 +1,109 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * Current {@link OrgTreeIndex} of an organization table.
+ *
+ * <p>The index is loaded on first use and replaced atomically by
+ * {@link #refresh()} and {@link #refreshChanges()}; readers always see a
+ * complete index. Call {@code refreshChanges()} from a scheduler or after
+ * organization changes: when the loader can report changed rows only those
+ * are read, and the encoding is recomputed in memory. Load times come
+ * from {@link OrgTreeLoader#currentTime()}, so changes are detected on the
+ * source's clock. The new index is published only after the loader has
+ * stored its intervals.</p>
+ *
+ * <pre>
+ * OrgTree tree = new OrgTree(new JdbcOrgTreeLoader(dataSource, "sys_dept", "id", "parent_id")
+ *         .setUpdatedColumn("update_time").setDeletedColumn("deleted"));
+ * scheduler.scheduleWithFixedDelay(tree::refreshChanges, 1, 1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public class OrgTree {
+    private static final Logger log = LoggerFactory.getLogger(OrgTree.class);
+
+    private final OrgTreeLoader loader;
+    private volatile OrgTreeIndex index;
+    private Instant loadedAt;
+
+    public OrgTree(OrgTreeLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * @return the current index, loading it on first use
+     */
+    public OrgTreeIndex current() {
+        OrgTreeIndex current = index;
+        return current != null ? current : load();
+    }
+
+    /**
+     * @param column the {@code lft} column of the scoped rows
+     * @return the loader's condition reading subtree bounds in SQL, or null
+     * @see OrgTreeLoader#subtreeCondition(String)
+     */
+    public String subtreeCondition(String column) {
+        return loader.subtreeCondition(column);
+    }
+
+    /**
+     * Loads all rows and replaces the index, even if one is already loaded.
+     *
+     * @return the new index
+     */
+    public synchronized OrgTreeIndex refresh() {
+        Instant start = loader.currentTime();
+        OrgTreeIndex refreshed = OrgTreeIndex.build(loader.loadAll());
+        publish(refreshed, start);
+        log.debug("Loaded organization tree with {} nodes", refreshed.size());
+        return refreshed;
+    }
+
+    /**
+     * Applies the rows changed since the previous load, or loads all rows
+     * if the loader cannot report changes.
+     *
+     * @return the new index
+     */
+    public synchronized OrgTreeIndex refreshChanges() {
+        if (index == null) {
+            return load();
+        }
+        Instant start = loader.currentTime();
+        OrgTreeLoader.Changes changes = loader.loadChanges(loadedAt);
+        if (changes == null) {
+            return refresh();
+        }
+        if (changes.isEmpty()) {
+            loadedAt = start;
+            return index;
+        }
+        OrgTreeIndex refreshed = index.withChanges(changes.upserts(), changes.removals());
+        publish(refreshed, start);
+        log.debug("Applied {} changed and {} removed organizations",
+                changes.upserts().size(), changes.removals().size());
+        return refreshed;
+    }
+
+    /**
+     * Loads the index unless a concurrent caller loaded it while this one
+     * waited for the lock, so a burst of first uses loads only once.
+     */
+    private synchronized OrgTreeIndex load() {
+        OrgTreeIndex current = index;
+        return current != null ? current : refresh();
+    }
+
+    private void publish(OrgTreeIndex refreshed, Instant start) {
+        loader.writeIntervals(refreshed);
+        index = refreshed;
+        loadedAt = start;
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * "Organization and all sub-organizations" data scope over an
+ * {@link OrgTree}.
+ *
+ * <p>Subclasses name the organizations of the current principal; the
+ * condition covers their subtrees. In {@link Mode#LFT} mode the column
+ * holds the organization's maintained {@code lft} number, and the
+ * condition is one {@code BETWEEN} per merged subtree, so its size does not
+ * grow with the subtree. When the loader stores the intervals, the bounds
+ * are read from the organization table in SQL, so the condition follows
+ * the stored numbers even while another instance renumbers them. In
+ * {@link Mode#ID} mode the column holds the organization ID, and the
+ * subtree IDs are bound as ranges and an {@code IN} list, see
+ * {@link ScopePredicate#whereIn(String,
+ * io.github.qwzhang01.dsecurity.scope.RightsBitmap)}.</p>
+ *
+ * <pre>
+ * public class DeptScopeStrategy extends OrgTreeDataScopeStrategy {
+ *     public DeptScopeStrategy(OrgTree deptTree) {
+ *         super(deptTree, Mode.LFT, "JOIN sys_dept d ON d.id = t.dept_id", "d.lft");
+ *     }
+ *
+ *     {@code @Override}
+ *     protected Collection&lt;Long&gt; scopeRoots() {
+ *         return CurrentUser.isAdmin() ? null : List.of(CurrentUser.deptId());
+ *     }
+ * }
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public abstract class OrgTreeDataScopeStrategy implements ParameterizedDataScopeStrategy<Long> {
+    private final OrgTree tree;
+    private final Mode mode;
+    private final String join;
+    private final String column;
+
+    /**
+     * @param tree   the organization tree
+     * @param mode   what the column holds
+     * @param join   JOIN bringing the column into the statement, may be empty
+     * @param column the column, qualified with its alias
+     */
+    protected OrgTreeDataScopeStrategy(OrgTree tree, Mode mode, String join, String column) {
+        this.tree = tree;
+        this.mode = mode;
+        this.join = join == null ? "" : join;
+        this.column = column;
+    }
+
+    /**
+     * Organizations of the current principal.
+     *
+     * @return the organization IDs, or null if the principal is not
+     * restricted
+     */
+    protected abstract Collection<Long> scopeRoots();
+
+    @Override
+    public ScopePredicate predicate() {
+        Collection<Long> roots = scopeRoots();
+        if (roots == null) {
+            return ScopePredicate.NONE;
+        }
+        OrgTreeIndex index = tree.current();
+        if (mode == Mode.ID) {
+            ScopePredicate ids = ScopePredicate.whereIn(column, index.subtreeIds(roots));
+            return ScopePredicate.of(join, ids.getWhere(), ids.getValues());
+        }
+
+        // Bounds read in SQL take the root twice, in-memory ones lft and rgt
+        String stored = tree.subtreeCondition(column);
+        List<Object> values = new ArrayList<>();
+        if (stored != null) {
+            for (Long root : index.outermost(roots)) {
+                values.add(root);
+                values.add(root);
+            }
+        } else {
+            for (OrgTreeIndex.Interval interval : index.intervals(roots)) {
+                values.add(interval.lft());
+                values.add(interval.rgt());
+            }
+        }
+        if (values.isEmpty()) {
+            return ScopePredicate.of(join, "1 = 0", List.of());
+        }
+        String subtree = stored != null ? stored : column + " BETWEEN ? AND ?";
+        int subtrees = values.size() / 2;
+        StringJoiner or = new StringJoiner(" OR ", subtrees > 1 ? "(" : "",
+                subtrees > 1 ? ")" : "");
+        for (int i = 0; i < subtrees; i++) {
+            or.add(subtree);
+        }
+        return ScopePredicate.of(join, or.toString(), values);
+    }
+
+    /**
+     * Checks that every organization lies within the principal's subtrees.
+     *
+     * @throws DesensitizeException if one does not
+     */
+    @Override
+    public void validDs(List<Long> validRights) {
+        validDs(validRights, null);
+    }
+
+    /**
+     * Checks that every organization not whitelisted lies within the
+     * principal's subtrees.
+     *
+     * @throws DesensitizeException if one does not
+     */
+    @Override
+    public void validDs(List<Long> validRights, List<Long> withoutRights) {
+        Collection<Long> roots = scopeRoots();
+        if (roots == null || validRights == null) {
+            return;
+        }
+        OrgTreeIndex index = tree.current();
+        for (Long right : validRights) {
+            if (right == null || withoutRights != null && withoutRights.contains(right)) {
+                continue;
+            }
+            if (!index.isWithin(roots, right)) {
+                throw new DesensitizeException("No data permission for organization "
+                        + right);
+            }
+        }
+    }
+
+    /**
+     * What the scoped column holds.
+     */
+    public enum Mode {
+        /**
+         * The organization's nested-set left number, maintained e.g. by
+         * {@link JdbcOrgTreeLoader#setIntervalColumns(String, String)}.
+         */
+        LFT,
+        /**
+         * The organization ID.
+         */
+        ID
+    }
+}
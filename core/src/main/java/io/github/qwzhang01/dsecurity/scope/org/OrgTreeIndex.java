@@ -0,0 +1,294 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.RightsBitmap;
+
+import java.util.*;
+
+/**
+ * Immutable nested-set encoding of an organization tree.
+ *
+ * <p>A depth-first walk numbers every node twice: {@code lft} on entry and
+ * {@code rgt} on exit. A node's subtree is exactly the nodes whose
+ * {@code lft} lies in {@code [lft, rgt]}, and it is a contiguous run of the
+ * pre-order, so "department and all sub-departments" is one interval
+ * however deep or wide the subtree is. Children are visited in ID order,
+ * which makes the numbering deterministic for a given set of rows.</p>
+ *
+ * @author avinzhang
+ */
+public final class OrgTreeIndex {
+    /**
+     * Index of an empty tree.
+     */
+    public static final OrgTreeIndex EMPTY = build(Collections.emptyList());
+
+    private final Map<Long, OrgNode> nodes;
+    private final Map<Long, Integer> positions;
+    /**
+     * IDs in pre-order.
+     */
+    private final long[] preorder;
+    private final int[] lft;
+    private final int[] rgt;
+
+    private OrgTreeIndex(Map<Long, OrgNode> nodes, Map<Long, Integer> positions,
+                         long[] preorder, int[] lft, int[] rgt) {
+        this.nodes = nodes;
+        this.positions = positions;
+        this.preorder = preorder;
+        this.lft = lft;
+        this.rgt = rgt;
+    }
+
+    /**
+     * Encodes a tree.
+     *
+     * @param rows the organization rows
+     * @return the index
+     * @throws DesensitizeException if the rows contain a cycle
+     */
+    public static OrgTreeIndex build(Collection<OrgNode> rows) {
+        Map<Long, OrgNode> nodes = new HashMap<>(rows.size() * 2);
+        for (OrgNode row : rows) {
+            nodes.put(row.id(), row);
+        }
+        return encode(nodes);
+    }
+
+    /**
+     * Applies changed rows to a copy of this index.
+     *
+     * @param upserts  new or changed rows
+     * @param removals IDs of deleted rows; their children become roots
+     *                 unless re-parented by the upserts
+     * @return the new index
+     */
+    public OrgTreeIndex withChanges(Collection<OrgNode> upserts, Collection<Long> removals) {
+        if (upserts.isEmpty() && removals.isEmpty()) {
+            return this;
+        }
+        Map<Long, OrgNode> changed = new HashMap<>(nodes);
+        for (Long id : removals) {
+            changed.remove(id);
+        }
+        for (OrgNode row : upserts) {
+            changed.put(row.id(), row);
+        }
+        return encode(changed);
+    }
+
+    private static OrgTreeIndex encode(Map<Long, OrgNode> nodes) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> roots = new ArrayList<>();
+        for (OrgNode node : nodes.values()) {
+            Long parent = node.parentId();
+            if (parent == null || parent == node.id() || !nodes.containsKey(parent)) {
+                roots.add(node.id());
+            } else {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(node.id());
+            }
+        }
+        Collections.sort(roots);
+        children.values().forEach(Collections::sort);
+
+        int size = nodes.size();
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+        long[] preorder = new long[size];
+        int[] lft = new int[size];
+        int[] rgt = new int[size];
+        int counter = 1;
+        int next = 0;
+        // Explicit stack: deep trees must not overflow the call stack
+        Deque<long[]> stack = new ArrayDeque<>();
+        for (Long root : roots) {
+            stack.push(new long[]{root, 0});
+            while (!stack.isEmpty()) {
+                long[] frame = stack.peek();
+                long id = frame[0];
+                List<Long> kids = children.getOrDefault(id, Collections.emptyList());
+                if (frame[1] == 0) {
+                    positions.put(id, next);
+                    preorder[next] = id;
+                    lft[next] = counter++;
+                    next++;
+                }
+                if (frame[1] < kids.size()) {
+                    stack.push(new long[]{kids.get((int) frame[1]++), 0});
+                } else {
+                    rgt[positions.get(id)] = counter++;
+                    stack.pop();
+                }
+            }
+        }
+        if (next != size) {
+            throw new DesensitizeException("Organization tree has a cycle: "
+                    + (size - next) + " rows are not reachable from a root");
+        }
+        return new OrgTreeIndex(Map.copyOf(nodes), positions, preorder, lft, rgt);
+    }
+
+    /**
+     * @return the number of organizations
+     */
+    public int size() {
+        return preorder.length;
+    }
+
+    public boolean contains(long id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * @param id the organization ID
+     * @return the row, or null if unknown
+     */
+    public OrgNode node(long id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * @param id the organization ID
+     * @return the nested-set interval of its subtree, or null if unknown
+     */
+    public Interval interval(long id) {
+        Integer position = positions.get(id);
+        return position == null ? null : new Interval(lft[position], rgt[position]);
+    }
+
+    /**
+     * Merged intervals of the subtrees of several organizations; nested
+     * and adjacent subtrees collapse into one interval.
+     *
+     * @param roots the organization IDs, unknown IDs are ignored
+     * @return the intervals in ascending order
+     */
+    public List<Interval> intervals(Collection<Long> roots) {
+        List<Interval> intervals = new ArrayList<>(roots.size());
+        for (Long root : roots) {
+            Interval interval = root == null ? null : interval(root);
+            if (interval != null) {
+                intervals.add(interval);
+            }
+        }
+        intervals.sort(Comparator.comparingInt(Interval::lft));
+        List<Interval> merged = new ArrayList<>(intervals.size());
+        for (Interval interval : intervals) {
+            Interval last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && interval.lft() <= last.rgt() + 1) {
+                if (interval.rgt() > last.rgt()) {
+                    merged.set(merged.size() - 1, new Interval(last.lft(), interval.rgt()));
+                }
+            } else {
+                merged.add(interval);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Organizations among several whose subtrees are not nested in the
+     * subtree of another one.
+     *
+     * @param roots the organization IDs, unknown IDs are ignored
+     * @return the IDs in ascending order of their intervals
+     */
+    public List<Long> outermost(Collection<Long> roots) {
+        List<Long> known = new ArrayList<>(roots.size());
+        for (Long root : roots) {
+            if (root != null && positions.containsKey(root) && !known.contains(root)) {
+                known.add(root);
+            }
+        }
+        known.sort(Comparator.comparingInt(id -> lft[positions.get(id)]));
+        List<Long> outermost = new ArrayList<>(known.size());
+        int lastRgt = 0;
+        for (Long root : known) {
+            int position = positions.get(root);
+            if (lft[position] > lastRgt) {
+                outermost.add(root);
+                lastRgt = rgt[position];
+            }
+        }
+        return outermost;
+    }
+
+    /**
+     * @param ancestor the possible ancestor
+     * @param id       the organization
+     * @return true if id is the ancestor or one of its descendants
+     */
+    public boolean isWithin(long ancestor, long id) {
+        Integer a = positions.get(ancestor);
+        Integer n = positions.get(id);
+        return a != null && n != null && lft[a] <= lft[n] && lft[n] <= rgt[a];
+    }
+
+    /**
+     * @param roots the organization IDs
+     * @param id    the organization
+     * @return true if id is in the subtree of one of the roots
+     */
+    public boolean isWithin(Collection<Long> roots, long id) {
+        Integer n = positions.get(id);
+        if (n == null) {
+            return false;
+        }
+        for (Long root : roots) {
+            if (root != null && isWithin(root, id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * IDs of the subtrees of several organizations, for tables that only
+     * store the organization ID.
+     *
+     * @param roots the organization IDs, unknown IDs are ignored
+     * @return the IDs
+     */
+    public RightsBitmap subtreeIds(Collection<Long> roots) {
+        RightsBitmap ids = new RightsBitmap();
+        for (Long root : roots) {
+            Integer position = root == null ? null : positions.get(root);
+            if (position == null) {
+                continue;
+            }
+            int count = (rgt[position] - lft[position] + 1) / 2;
+            for (int i = position; i < position + count; i++) {
+                ids.add(preorder[i]);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Passes the interval of every organization to an action, in pre-order.
+     *
+     * @param action receives ID, lft and rgt
+     */
+    public void forEachInterval(IntervalConsumer action) {
+        for (int i = 0; i < preorder.length; i++) {
+            action.accept(preorder[i], lft[i], rgt[i]);
+        }
+    }
+
+    /**
+     * Nested-set interval of a subtree.
+     *
+     * @param lft the left bound, the number of the subtree root
+     * @param rgt the right bound, inclusive
+     */
+    public record Interval(int lft, int rgt) {
+    }
+
+    /**
+     * Receives the interval of one organization.
+     */
+    @FunctionalInterface
+    public interface IntervalConsumer {
+        void accept(long id, int lft, int rgt);
+    }
+}
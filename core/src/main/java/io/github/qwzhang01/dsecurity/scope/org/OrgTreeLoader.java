@@ -0,0 +1,75 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Source of the organization rows of an {@link OrgTree}.
+ *
+ * @author avinzhang
+ * @see JdbcOrgTreeLoader
+ */
+public interface OrgTreeLoader {
+
+    /**
+     * @return all organization rows
+     */
+    List<OrgNode> loadAll();
+
+    /**
+     * Loads the rows changed since a point in time.
+     *
+     * @param since the start of the previous load
+     * @return the changes, or null if the source cannot tell, in which case
+     * everything is loaded again
+     */
+    default Changes loadChanges(Instant since) {
+        return null;
+    }
+
+    /**
+     * Current time of the source, taken at the start of each load and
+     * passed to the next {@link #loadChanges(Instant)}, so update times
+     * are compared on the clock that wrote them.
+     *
+     * @return the current time
+     */
+    default Instant currentTime() {
+        return Instant.now();
+    }
+
+    /**
+     * Condition matching the subtree of one organization with the bounds
+     * read from the stored intervals in SQL, for sources that maintain
+     * {@code lft/rgt} columns.
+     *
+     * @param column the {@code lft} column of the scoped rows
+     * @return a condition whose two placeholders both take the organization
+     * ID, or null if the source does not store intervals
+     */
+    default String subtreeCondition(String column) {
+        return null;
+    }
+
+    /**
+     * Stores the nested-set intervals of the current tree, for sources that
+     * maintain {@code lft/rgt} columns.
+     *
+     * @param index the current index
+     */
+    default void writeIntervals(OrgTreeIndex index) {
+    }
+
+    /**
+     * Rows changed since the previous load.
+     *
+     * @param upserts  new or changed rows
+     * @param removals IDs of deleted rows
+     */
+    record Changes(List<OrgNode> upserts, List<Long> removals) {
+
+        public boolean isEmpty() {
+            return upserts.isEmpty() && removals.isEmpty();
+        }
+    }
+}
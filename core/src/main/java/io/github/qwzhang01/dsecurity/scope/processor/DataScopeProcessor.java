@@ -0,0 +1,324 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.encrypt.context.StatementContext;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+import io.github.qwzhang01.dsecurity.kit.StringUtil;
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.DataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import io.github.qwzhang01.dsecurity.scope.annotation.DataScope;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.scope.container.ScopeCondition;
+import io.github.qwzhang01.sql.tool.helper.ParserHelper;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data scope processor for SQL modification.
+ *
+ * <p>This processor applies data scope (permission control) by modifying SQL
+ * statements to include additional WHERE clauses and JOINs based on the
+ * configured data scope strategy.</p>
+ *
+ * <p><strong>Features:</strong></p>
+ * <ul>
+ *   <li>Transparent SQL rewriting for permission control</li>
+ *   <li>Support for custom JOIN and WHERE conditions</li>
+ *   <li>Thread-safe operation with per-execution context</li>
+ *   <li>Automatic context cleanup after SQL execution</li>
+ * </ul>
+ *
+ * <p>The rewritten SQL depends only on the original SQL, the strategy and
+ * the join/where text it returns, so it is cached under exactly that key.
+ * Repeated scoped statements, including the COUNT statement MyBatis-Plus
+ * pagination issues before each page (cached under its own SQL), are not
+ * parsed again once their entry exists.</p>
+ *
+ * <p>A {@link ParameterizedDataScopeStrategy} returns its condition as a
+ * template with bind values. The templates are rewritten into the SQL
+ * (and cached) like literal conditions, and the values are added to the
+ * statement as parameter mappings at their placeholder positions, so the
+ * SQL text is the same for all users.</p>
+ *
+ * <p>Literal conditions with long integer {@code IN} lists take the same
+ * path: {@link InListCompactor} binds the lists, so users whose lists have
+ * the same size or run layout share one rewrite instead of each parsing
+ * thousands of literals.</p>
+ *
+ * <p>Statements declared with {@link DataScope} are scoped without a
+ * {@link DataScopeHelper} context: their SQL is rewritten once into a
+ * template, and each execution splices in the placeholders of the values
+ * returned by the {@link ColumnDataScopeStrategy}. A context opened around
+ * the call still applies on top.</p>
+ *
+ * @author avinzhang
+ */
+public class DataScopeProcessor {
+    private static final Logger log =
+            LoggerFactory.getLogger(DataScopeProcessor.class);
+    private static final int REWRITE_CACHE_SIZE = 4096;
+
+    /**
+     * Prefix of the additional parameters holding condition values.
+     */
+    private static final String VALUE_PARAMETER_PREFIX = "_dsecurity_scope_";
+    /**
+     * Prefix of the additional parameters holding {@code @DataScope} values.
+     */
+    private static final String DECLARED_PARAMETER_PREFIX = "_dsecurity_declared_";
+
+    /**
+     * Default of {@link #setInListThreshold(int)}: off, so literal
+     * conditions reach the SQL unchanged unless binding is enabled.
+     */
+    public static final int DEFAULT_IN_LIST_THRESHOLD = 0;
+
+    private final BoundedCache<RewriteKey, ScopedSql> rewrites =
+            new BoundedCache<>(REWRITE_CACHE_SIZE);
+    private final DeclaredScopes declaredScopes = new DeclaredScopes();
+    private volatile int inListThreshold = DEFAULT_IN_LIST_THRESHOLD;
+
+    private DataScopeProcessor() {
+    }
+
+    public static DataScopeProcessor getInstance() {
+        return DataScopeProcessor.Holder.INSTANCE;
+    }
+
+    /**
+     * Applies data scope to the SQL held by the statement context. The
+     * rewritten SQL stays in the context until the caller flushes it, so
+     * the BoundSql is written once per execution.
+     *
+     * @param context the per-execution statement context
+     */
+    public void apply(StatementContext context) {
+        DeclaredScopes.Declaration declaration =
+                declaredScopes.get(context.getMappedStatement());
+        if (declaration != DeclaredScopes.Declaration.NONE) {
+            applyDeclared(context, declaration);
+        }
+
+        if (!Boolean.TRUE.equals(DataScopeHelper.isStarted())) {
+            return;
+        }
+
+        // Apply data scope if enabled
+        boolean started = DataScopeHelper.isStarted();
+        Class<? extends DataScopeStrategy<?>> strategy =
+                DataScopeHelper.getStrategy();
+        if (!started && strategy != null) {
+            return;
+        }
+
+        // Clean data scope info to avoid affecting other SQL statements
+        DataScopeHelper.cache();
+        String join;
+        String where;
+        ScopePredicate predicate = null;
+        boolean integral;
+        try {
+            DataScopeStrategyContainer container =
+                    DataSecurityRuntime.current().getStrategyContainer();
+            ScopeCondition condition = container.getCondition(strategy);
+            join = condition.join();
+            where = condition.where();
+            predicate = condition.predicate();
+            integral = container.getStrategy(strategy).integralInLists();
+        } finally {
+            DataScopeHelper.restore();
+        }
+
+        if (StringUtil.isEmpty(join) && StringUtil.isEmpty(where)) {
+            return;
+        }
+        if (predicate == null && inListThreshold > 0 && !StringUtil.isEmpty(where)
+                && (StringUtil.isEmpty(join) || !SqlText.hasPlaceholder(join))) {
+            ScopePredicate compacted = InListCompactor.compact(where, inListThreshold,
+                    integral);
+            if (compacted != null) {
+                predicate = ScopePredicate.of(join, compacted.getWhere(),
+                        compacted.getValues());
+                join = predicate.getJoin();
+                where = predicate.getWhere();
+            }
+        }
+        if (predicate == null) {
+            context.rewriteSql(rewrites.get(new RewriteKey(context.getSql(),
+                    strategy, join, where, false), DataScopeProcessor::rewrite).getSql());
+            return;
+        }
+
+        int valueCount = predicate.getValues().size();
+        ScopedSql scoped = rewrites.get(new RewriteKey(context.getSql(), strategy,
+                join, where, true), key -> rewriteParameterized(key, valueCount));
+        bind(context, scoped, predicate.getValues());
+    }
+
+    /**
+     * Splices the values of a {@code @DataScope} strategy into the template
+     * of the statement's SQL.
+     */
+    private void applyDeclared(StatementContext context,
+                               DeclaredScopes.Declaration declaration) {
+        Collection<?> values;
+        // Statements issued by the strategy itself are not filtered
+        DataScopeHelper.cache();
+        try {
+            ColumnDataScopeStrategy<?> strategy = (ColumnDataScopeStrategy<?>)
+                    DataSecurityRuntime.current().getStrategyContainer()
+                            .getStrategy(declaration.strategy());
+            values = strategy.values();
+        } finally {
+            DataScopeHelper.restore();
+        }
+        if (values == null) {
+            return;
+        }
+
+        DeclaredScopes.Template template =
+                declaredScopes.template(context.getSql(), declaration.column());
+        List<ParameterMapping> original = context.getParameterMappings();
+        if (template.prefixParams() + template.suffixParams() != original.size()) {
+            throw new DesensitizeException("Data scope template of "
+                    + context.getMappedStatement().getId() + " has "
+                    + (template.prefixParams() + template.suffixParams())
+                    + " statement placeholders but " + original.size()
+                    + " parameter mappings");
+        }
+
+        StringBuilder sql = new StringBuilder(template.prefix().length()
+                + template.suffix().length() + values.size() * 3);
+        sql.append(template.prefix());
+        List<ParameterMapping> mappings = new ArrayList<>(original.size() + values.size());
+        mappings.addAll(original.subList(0, template.prefixParams()));
+        if (values.isEmpty()) {
+            // IN (NULL) matches no row
+            sql.append("NULL");
+        }
+        int i = 0;
+        for (Object value : values) {
+            sql.append(i == 0 ? "?" : ", ?");
+            mappings.add(valueMapping(context, DECLARED_PARAMETER_PREFIX + i++, value));
+        }
+        sql.append(template.suffix());
+        mappings.addAll(original.subList(template.prefixParams(), original.size()));
+        context.rewriteSql(sql.toString(), mappings);
+    }
+
+    /**
+     * Adds a condition value as additional parameter of the statement.
+     *
+     * @return the mapping of the parameter
+     */
+    private static ParameterMapping valueMapping(StatementContext context, String name,
+                                                 Object value) {
+        context.getBoundSql().setAdditionalParameter(name, value);
+        return new ParameterMapping.Builder(context.getMappedStatement().getConfiguration(),
+                name, value == null ? Object.class : value.getClass()).build();
+    }
+
+    /**
+     * Interleaves the condition values with the statement's own parameter
+     * mappings following the placeholder layout of the rewritten SQL.
+     */
+    private static void bind(StatementContext context, ScopedSql scoped,
+                             List<Object> values) {
+        List<ParameterMapping> original = context.getParameterMappings();
+        if (scoped.getOriginalCount() != original.size()) {
+            throw new DesensitizeException("Data scope rewrite of "
+                    + context.getMappedStatement().getId() + " has "
+                    + scoped.getOriginalCount() + " statement placeholders but "
+                    + original.size() + " parameter mappings");
+        }
+
+        int[] layout = scoped.getLayout();
+        List<ParameterMapping> mappings = new ArrayList<>(layout.length);
+        int next = 0;
+        for (int slot : layout) {
+            if (slot == ScopedSql.ORIGINAL) {
+                mappings.add(original.get(next++));
+                continue;
+            }
+            mappings.add(valueMapping(context, VALUE_PARAMETER_PREFIX + slot,
+                    values.get(slot)));
+        }
+        context.rewriteSql(scoped.getSql(), mappings);
+    }
+
+    /**
+     * Resolves the {@link DataScope} declarations of all statements of a
+     * MyBatis configuration and precompiles the templates of their static
+     * SQL. Statements registered later are resolved on first execution.
+     *
+     * @param configuration the MyBatis configuration
+     */
+    public void init(Configuration configuration) {
+        declaredScopes.init(configuration);
+    }
+
+    /**
+     * Sets the number of IDs from which a literal {@code IN} list of a
+     * condition is bound as parameters, as ranges where the IDs are
+     * contiguous and the strategy declares
+     * {@link DataScopeStrategy#integralInLists()}; 0, the default, turns it
+     * off. Lists that would bind more than 1000 values per condition stay
+     * literal.
+     *
+     * @param inListThreshold the minimum list length
+     */
+    public void setInListThreshold(int inListThreshold) {
+        this.inListThreshold = Math.max(0, inListThreshold);
+    }
+
+    /**
+     * @return hit and miss counts of the rewritten-SQL cache
+     */
+    public BoundedCache.Stats getRewriteCacheStats() {
+        return rewrites.stats();
+    }
+
+    private static ScopedSql rewrite(RewriteKey key) {
+        return ScopedSql.literal(rewrite(key.sql(), key.join(), key.where()));
+    }
+
+    private static ScopedSql rewriteParameterized(RewriteKey key, int valueCount) {
+        String[] marked = ScopedSql.mark(key.join(), key.where());
+        return ScopedSql.bind(rewrite(key.sql(), marked[0], marked[1]), valueCount);
+    }
+
+    private static String rewrite(String sql, String join, String where) {
+        sql = sql.trim();
+        if (!StringUtil.isEmpty(join) && !StringUtil.isEmpty(where)) {
+            return ParserHelper.addJoinAndWhere(sql, join.trim(), where.trim());
+        } else if (!StringUtil.isEmpty(join)) {
+            return ParserHelper.addJoin(sql, join.trim());
+        }
+        return ParserHelper.addWhere(sql, where.trim());
+    }
+
+    /**
+     * Everything a rewrite depends on. The SQL text itself is part of the
+     * key, so distinct statements never share an entry; String caches its
+     * hash, so the key costs no rehash of the SQL per lookup.
+     */
+    private record RewriteKey(String sql, Class<?> strategy, String join,
+                              String where, boolean parameterized) {
+    }
+
+    private static final class Holder {
+        private static final DataScopeProcessor INSTANCE =
+                new DataScopeProcessor();
+    }
+}
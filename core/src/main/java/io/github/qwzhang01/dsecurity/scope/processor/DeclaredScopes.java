@@ -0,0 +1,196 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+import io.github.qwzhang01.dsecurity.kit.StringUtil;
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.annotation.DataScope;
+import io.github.qwzhang01.sql.tool.helper.ParserHelper;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link DataScope} declarations of mapped statements and their rewrite
+ * templates.
+ *
+ * <p>Declarations are resolved per statement ID, at startup by
+ * {@link #init(Configuration)} and on first use for statements registered
+ * later; statements without one are cached as {@link Declaration#NONE}.
+ * The count statement of a MyBatis-Plus page query shares the declaration
+ * of its method, and overloads of a method must declare the same scope.
+ * The templates of static SQL are built during {@code init}, those of
+ * dynamic SQL on first use of each SQL text.</p>
+ *
+ * @author avinzhang
+ */
+final class DeclaredScopes {
+    private static final Logger log = LoggerFactory.getLogger(DeclaredScopes.class);
+    private static final int TEMPLATE_CACHE_SIZE = 4096;
+    private static final String SLOT = "'__dsecurity_scope_slot__'";
+    private static final String COUNT_SUFFIX = "_mpCount";
+
+    private final Map<String, Declaration> declarations = new ConcurrentHashMap<>();
+    private final BoundedCache<TemplateKey, Template> templates =
+            new BoundedCache<>(TEMPLATE_CACHE_SIZE);
+
+    /**
+     * Resolves the declarations of all statements of a MyBatis
+     * configuration and builds the templates of their static SQL.
+     *
+     * @param configuration the MyBatis configuration
+     */
+    void init(Configuration configuration) {
+        int declared = 0;
+        int precompiled = 0;
+        // StrictMap values may contain ambiguity markers for short names
+        for (Object statement : new ArrayList<Object>(configuration.getMappedStatements())) {
+            if (!(statement instanceof MappedStatement mappedStatement)) {
+                continue;
+            }
+            Declaration declaration = get(mappedStatement);
+            if (declaration == Declaration.NONE) {
+                continue;
+            }
+            declared++;
+            SqlSource sqlSource = mappedStatement.getSqlSource();
+            if (sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource) {
+                try {
+                    template(sqlSource.getBoundSql(null).getSql(), declaration.column());
+                    precompiled++;
+                } catch (RuntimeException e) {
+                    // Reported again, with the failing execution, on first use
+                    log.warn("Failed to precompile @DataScope template of {}",
+                            mappedStatement.getId(), e);
+                }
+            }
+        }
+        log.debug("Resolved @DataScope for {} mapped statements, {} precompiled",
+                declared, precompiled);
+    }
+
+    /**
+     * @param mappedStatement the mapped statement
+     * @return its declaration, or {@link Declaration#NONE}
+     */
+    Declaration get(MappedStatement mappedStatement) {
+        Declaration declaration = declarations.get(mappedStatement.getId());
+        if (declaration == null) {
+            declaration = declarations.computeIfAbsent(mappedStatement.getId(),
+                    id -> resolve(id, mappedStatement.getSqlCommandType()));
+        }
+        return declaration;
+    }
+
+    /**
+     * @param sql    the SQL of an execution
+     * @param column the scoped column
+     * @return the template of the SQL with the condition on the column
+     */
+    Template template(String sql, String column) {
+        return templates.get(new TemplateKey(sql, column), DeclaredScopes::compile);
+    }
+
+    private Declaration resolve(String statementId, SqlCommandType commandType) {
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0 || statementId.indexOf('!') >= 0) {
+            return Declaration.NONE;
+        }
+        Class<?> mapperClass;
+        try {
+            mapperClass = Resources.classForName(statementId.substring(0, dot));
+        } catch (ClassNotFoundException e) {
+            // XML-only namespace
+            return Declaration.NONE;
+        }
+
+        String methodName = statementId.substring(dot + 1);
+        if (methodName.endsWith(COUNT_SUFFIX)) {
+            methodName = methodName.substring(0, methodName.length() - COUNT_SUFFIX.length());
+        }
+        // Overloads share one statement ID, so their declarations must agree
+        Declaration declaration = null;
+        for (Method method : mapperClass.getMethods()) {
+            if (!method.getName().equals(methodName)
+                    || !method.isAnnotationPresent(DataScope.class)) {
+                continue;
+            }
+            Declaration declared = toDeclaration(statementId,
+                    method.getAnnotation(DataScope.class));
+            if (declaration != null && !declaration.equals(declared)) {
+                throw new DesensitizeException("Conflicting @DataScope on overloads of "
+                        + statementId);
+            }
+            declaration = declared;
+        }
+        if (declaration != null) {
+            return declaration;
+        }
+        DataScope dataScope = mapperClass.getAnnotation(DataScope.class);
+        if (dataScope != null && (commandType == SqlCommandType.SELECT
+                || commandType == SqlCommandType.UPDATE
+                || commandType == SqlCommandType.DELETE)) {
+            return toDeclaration(statementId, dataScope);
+        }
+        return Declaration.NONE;
+    }
+
+    private static Declaration toDeclaration(String statementId, DataScope dataScope) {
+        if (StringUtil.isEmpty(dataScope.column())) {
+            throw new DesensitizeException("@DataScope on " + statementId
+                    + " needs a column");
+        }
+        return new Declaration(dataScope.value(), dataScope.column().trim());
+    }
+
+    private static Template compile(TemplateKey key) {
+        String rewritten = ParserHelper.addWhere(key.sql().trim(),
+                key.column() + " IN (" + SLOT + ")");
+        int slot = rewritten.indexOf(SLOT);
+        if (slot < 0 || rewritten.indexOf(SLOT, slot + 1) >= 0) {
+            throw new DesensitizeException("Data scope rewrite on " + key.column()
+                    + " did not keep a single insertion point: " + rewritten);
+        }
+        String prefix = rewritten.substring(0, slot);
+        String suffix = rewritten.substring(slot + SLOT.length());
+        return new Template(prefix, suffix, SqlText.countPlaceholders(prefix),
+                SqlText.countPlaceholders(suffix));
+    }
+
+    /**
+     * Data scope declared for a statement.
+     *
+     * @param strategy the strategy supplying the values
+     * @param column   the scoped column
+     */
+    record Declaration(Class<? extends ColumnDataScopeStrategy<?>> strategy,
+                       String column) {
+        static final Declaration NONE = new Declaration(null, null);
+    }
+
+    /**
+     * Rewritten SQL split at the value list of the condition.
+     *
+     * @param prefix       the SQL up to the value list
+     * @param suffix       the SQL after the value list
+     * @param prefixParams the statement placeholders in the prefix
+     * @param suffixParams the statement placeholders in the suffix
+     */
+    record Template(String prefix, String suffix, int prefixParams, int suffixParams) {
+    }
+
+    private record TemplateKey(String sql, String column) {
+    }
+}
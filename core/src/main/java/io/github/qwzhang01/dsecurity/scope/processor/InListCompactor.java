@@ -0,0 +1,231 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+import io.github.qwzhang01.dsecurity.scope.RightsBitmap;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns large literal {@code IN} lists of a data scope condition into bound
+ * parameters.
+ *
+ * <p>Strategies often build {@code d.id IN (1, 2, ...)} with thousands of
+ * IDs. Such text differs per user, so every execution is parsed again and
+ * misses the rewrite and statement caches. Each integer list of at least
+ * the threshold length is replaced with placeholders in one of two shapes,
+ * whichever binds fewer values:</p>
+ * <ul>
+ *   <li>{@code column IN (?, ?, ...)}, one value per ID;</li>
+ *   <li>{@code (column BETWEEN ? AND ? OR ... OR column IN (?, ...))}, two
+ *   values per run of consecutive IDs, see
+ *   {@link ScopePredicate#whereIn(String, RightsBitmap)}. Only when the
+ *   strategy declares its lists integral, since a range on a text or
+ *   decimal column matches more than the list.</li>
+ * </ul>
+ * <p>The template then only depends on the list size or run layout, so
+ * users with the same shape share one parsed rewrite. A list is left
+ * literal if binding it would take the condition past
+ * {@link #MAX_BOUND_VALUES} values, which keeps statements within driver
+ * parameter limits and Oracle's 1000-element {@code IN} limit.</p>
+ * <p>Only a list whose column starts a boolean operand is bound: in
+ * {@code a + c IN (...)} the list tests {@code a + c}, so it stays
+ * literal.</p>
+ *
+ * @author avinzhang
+ */
+final class InListCompactor {
+    /**
+     * Head of an {@code IN} list up to its opening parenthesis; the list
+     * itself is scanned by {@link #scanIds}, since a repeated regex group
+     * recurses once per element and overflows the stack on long lists.
+     */
+    private static final Pattern IN_LIST = Pattern.compile(
+            "([A-Za-z_][\\w.`\"]*)\\s+(NOT\\s+)?IN\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Maximum number of values bound for the lists of one condition.
+     */
+    static final int MAX_BOUND_VALUES = 1000;
+
+    /**
+     * Keywords after which a column starts a boolean operand of its own.
+     */
+    private static final Set<String> OPERAND_BOUNDARIES =
+            Set.of("WHERE", "ON", "WHEN", "AND", "OR", "NOT");
+
+    private InListCompactor() {
+    }
+
+    /**
+     * @param where     the literal WHERE condition
+     * @param threshold the minimum number of IDs of a list to compact
+     * @param ranges    whether consecutive IDs may be bound as ranges,
+     *                  i.e. the lists only test integral columns
+     * @return the condition with bound lists, or null if no list qualifies
+     * or the condition already has placeholders
+     */
+    static ScopePredicate compact(String where, int threshold, boolean ranges) {
+        // A list of n IDs takes at least 2n - 1 characters
+        if (threshold < 1 || where.length() < 2 * threshold - 1
+                || SqlText.hasPlaceholder(where)) {
+            return null;
+        }
+        Matcher matcher = IN_LIST.matcher(where);
+        StringBuilder template = null;
+        List<Object> values = null;
+        int last = 0;
+        int scanned = 0;
+        while (matcher.find()) {
+            scanned = skipQuoted(where, scanned, matcher.start());
+            if (scanned > matcher.start()) {
+                // The match starts inside quoted text
+                continue;
+            }
+            if (!startsOperand(where, matcher.start())) {
+                // The column is the tail of a larger expression, e.g. a + c IN (...)
+                continue;
+            }
+            List<String> ids = new ArrayList<>();
+            int end = scanIds(where, matcher.end(), ids);
+            ScopePredicate bound = end < 0 || ids.size() < threshold ? null
+                    : bind(matcher.group(1), ids, ranges);
+            if (bound == null || (values == null ? 0 : values.size())
+                    + bound.getValues().size() > MAX_BOUND_VALUES) {
+                continue;
+            }
+            if (template == null) {
+                template = new StringBuilder(where.length() / 4);
+                values = new ArrayList<>();
+            }
+            template.append(where, last, matcher.start());
+            template.append(matcher.group(2) == null ? "" : "NOT ")
+                    .append(bound.getWhere());
+            values.addAll(bound.getValues());
+            last = end;
+        }
+        if (template == null) {
+            return null;
+        }
+        template.append(where, last, where.length());
+        return ScopePredicate.of("", template.toString(), values);
+    }
+
+    /**
+     * Advances from a position outside quoted text up to {@code to},
+     * skipping quoted text.
+     *
+     * @return the first position at or after {@code to} outside quoted text
+     */
+    private static int skipQuoted(String sql, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = SqlText.closingQuote(sql, i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return true if the text before {@code start} ends a boolean operand,
+     * i.e. is empty, {@code (} or one of {@link #OPERAND_BOUNDARIES}
+     */
+    private static boolean startsOperand(String sql, int start) {
+        int end = start;
+        while (end > 0 && Character.isWhitespace(sql.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0 || sql.charAt(end - 1) == '(') {
+            return true;
+        }
+        int begin = end;
+        while (begin > 0 && Character.isLetter(sql.charAt(begin - 1))) {
+            begin--;
+        }
+        if (begin == end || end == start || begin > 0
+                && (Character.isLetterOrDigit(sql.charAt(begin - 1))
+                || sql.charAt(begin - 1) == '_')) {
+            return false;
+        }
+        return OPERAND_BOUNDARIES.contains(sql.substring(begin, end).toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Reads a comma-separated integer list and its closing parenthesis.
+     *
+     * @param from the position after the opening parenthesis
+     * @param ids  receives the IDs
+     * @return the position after the closing parenthesis, or -1 if the list
+     * has anything but integers
+     */
+    private static int scanIds(String sql, int from, List<String> ids) {
+        int i = from;
+        while (true) {
+            i = skipWhitespace(sql, i);
+            int start = i;
+            if (i < sql.length() && sql.charAt(i) == '-') {
+                i++;
+            }
+            int digits = i;
+            while (i < sql.length() && sql.charAt(i) >= '0' && sql.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == digits) {
+                return -1;
+            }
+            ids.add(sql.substring(start, i));
+            i = skipWhitespace(sql, i);
+            if (i >= sql.length()) {
+                return -1;
+            }
+            char c = sql.charAt(i++);
+            if (c == ')') {
+                return i;
+            }
+            if (c != ',') {
+                return -1;
+            }
+        }
+    }
+
+    private static int skipWhitespace(String sql, int i) {
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the bound list, or null if an ID is out of the long range
+     */
+    private static ScopePredicate bind(String column, List<String> ids, boolean ranges) {
+        List<Long> list = new ArrayList<>(ids.size());
+        try {
+            for (String id : ids) {
+                list.add(Long.parseLong(id));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        RightsBitmap bitmap = RightsBitmap.of(list);
+        if (ranges) {
+            ScopePredicate compacted = ScopePredicate.whereIn(column, bitmap);
+            if (compacted.getValues().size() < bitmap.cardinality()) {
+                return compacted;
+            }
+        }
+        ScopePredicate in = ScopePredicate.whereIn(column, bitmap.toList());
+        // Parenthesized like the range form so a NOT prefix applies to all of it
+        return ScopePredicate.of("", "(" + in.getWhere() + ")", in.getValues());
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.SqlText;
+
+import java.util.Arrays;
+
+/**
+ * Placeholder layout of SQL rewritten with a parameterized data scope
+ * condition.
+ *
+ * <p>Before the rewrite every placeholder of the condition templates is
+ * replaced with a numbered string literal, which the parser carries through
+ * unchanged wherever it places the condition. Scanning the rewritten SQL
+ * then tells, for each placeholder in order, whether it belongs to the
+ * original statement or to which condition value, and the literals are
+ * turned back into placeholders.</p>
+ *
+ * @author avinzhang
+ */
+final class ScopedSql {
+    private static final String MARKER_PREFIX = "'__dsecurity_scope_";
+    private static final String MARKER_SUFFIX = "__'";
+
+    /**
+     * Layout entry of a placeholder of the original statement.
+     */
+    static final int ORIGINAL = -1;
+
+    private final String sql;
+    private final int[] layout;
+    private final int originalCount;
+
+    private ScopedSql(String sql, int[] layout, int originalCount) {
+        this.sql = sql;
+        this.layout = layout;
+        this.originalCount = originalCount;
+    }
+
+    /**
+     * SQL rewritten with a literal condition; it has no condition
+     * placeholders to bind.
+     *
+     * @param sql the rewritten SQL
+     * @return the rewrite
+     */
+    static ScopedSql literal(String sql) {
+        return new ScopedSql(sql, new int[0], ORIGINAL);
+    }
+
+    /**
+     * Replaces the placeholders of the join and where templates with
+     * markers numbered in value order, join first.
+     *
+     * @return the marked join and where templates
+     */
+    static String[] mark(String join, String where) {
+        int[] next = {0};
+        return new String[]{mark(join, next), mark(where, next)};
+    }
+
+    private static String mark(String template, int[] next) {
+        StringBuilder marked = new StringBuilder(template.length() + 16);
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = SqlText.closingQuote(template, i);
+                end = end < 0 ? template.length() - 1 : end;
+                marked.append(template, i, end + 1);
+                i = end;
+            } else if (c == '?') {
+                marked.append(MARKER_PREFIX).append(next[0]++).append(MARKER_SUFFIX);
+            } else {
+                marked.append(c);
+            }
+        }
+        return marked.toString();
+    }
+
+    /**
+     * Scans SQL rewritten with marked templates.
+     *
+     * @param rewritten  the rewritten SQL
+     * @param valueCount the number of condition values
+     * @return the SQL with placeholders and its layout
+     * @throws DesensitizeException if a marker was lost in the rewrite
+     */
+    static ScopedSql bind(String rewritten, int valueCount) {
+        StringBuilder sql = new StringBuilder(rewritten.length());
+        int[] layout = new int[16];
+        int size = 0;
+        int originals = 0;
+        int markers = 0;
+        for (int i = 0; i < rewritten.length(); i++) {
+            char c = rewritten.charAt(i);
+            int slot;
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = SqlText.closingQuote(rewritten, i);
+                end = end < 0 ? rewritten.length() - 1 : end;
+                slot = c == '\'' ? markerNumber(rewritten, i, end + 1) : ORIGINAL;
+                if (slot == ORIGINAL) {
+                    sql.append(rewritten, i, end + 1);
+                    i = end;
+                    continue;
+                }
+                sql.append('?');
+                i = end;
+                markers++;
+            } else if (c == '?') {
+                sql.append('?');
+                slot = ORIGINAL;
+                originals++;
+            } else {
+                sql.append(c);
+                continue;
+            }
+            if (size == layout.length) {
+                layout = Arrays.copyOf(layout, size * 2);
+            }
+            layout[size++] = slot;
+        }
+        if (markers != valueCount) {
+            throw new DesensitizeException("Data scope rewrite kept " + markers
+                    + " of " + valueCount + " condition placeholders");
+        }
+        return new ScopedSql(sql.toString(), Arrays.copyOf(layout, size),
+                originals);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return per placeholder, {@link #ORIGINAL} or the condition value index
+     */
+    int[] getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the number of placeholders of the original statement, or
+     * {@link #ORIGINAL} for a literal rewrite
+     */
+    int getOriginalCount() {
+        return originalCount;
+    }
+
+    private static int markerNumber(String sql, int start, int end) {
+        if (!sql.startsWith(MARKER_PREFIX, start)
+                || !sql.startsWith(MARKER_SUFFIX, end - MARKER_SUFFIX.length())) {
+            return ORIGINAL;
+        }
+        try {
+            return Integer.parseInt(sql.substring(start + MARKER_PREFIX.length(),
+                    end - MARKER_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return ORIGINAL;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.github.qwzhang01.dsecurity.apt.EncryptFieldIndexProcessor;
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译期加密字段索引测试：由注解处理器生成索引并按继承链合并
+ */
+@DisplayName("EncryptFieldIndex 测试")
+class EncryptFieldIndexTest {
+
+    @TempDir
+    static Path dir;
+
+    private static URLClassLoader classLoader;
+    private static EncryptFieldIndex index;
+
+    @BeforeAll
+    static void compile() throws Exception {
+        Path out = Files.createDirectories(dir.resolve("classes"));
+        // A superclass from a module built without the processor
+        compile(out, null, Map.of("sample/LegacyBase.java", """
+                package sample;
+                public class LegacyBase {
+                    @io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField
+                    private String email;
+                }
+                """));
+        compile(out, new EncryptFieldIndexProcessor(), Map.of(
+                "sample/BaseEntity.java", """
+                        package sample;
+                        import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+                        public class BaseEntity {
+                            private Long id;
+                            @EncryptField
+                            private String phone;
+                        }
+                        """,
+                "sample/Account.java", """
+                        package sample;
+                        import com.baomidou.mybatisplus.annotation.TableName;
+                        import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+                        @TableName("account")
+                        public class Account extends BaseEntity {
+                            @EncryptField
+                            private String idCard;
+                            private String name;
+                        }
+                        """,
+                "sample/Audited.java", """
+                        package sample;
+                        public class Audited {
+                            private Long createdBy;
+                        }
+                        """,
+                "sample/Note.java", """
+                        package sample;
+                        import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+                        public class Note extends Audited {
+                            @EncryptField
+                            private String content;
+                        }
+                        """,
+                "sample/Contact.java", """
+                        package sample;
+                        import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+                        public class Contact extends LegacyBase {
+                            @EncryptField
+                            private String phone;
+                        }
+                        """));
+        classLoader = new URLClassLoader(new URL[]{out.toUri().toURL()},
+                EncryptFieldIndexTest.class.getClassLoader());
+        index = EncryptFieldIndex.load(classLoader);
+    }
+
+    @Test
+    @DisplayName("索引只记录类自身声明的字段")
+    void testDeclaredFields() throws Exception {
+        EncryptFieldIndex.IndexedClass account = index.get(load("sample.Account"));
+
+        assertNotNull(account);
+        assertEquals("account", account.getTable());
+        assertTrue(account.isFlat());
+        assertEquals(List.of("idCard"), fieldNames(account));
+    }
+
+    @Test
+    @DisplayName("合并父类的加密字段")
+    void testResolveInheritedFields() throws Exception {
+        EncryptFieldIndex.IndexedClass account = index.resolve(load("sample.Account"));
+
+        assertNotNull(account);
+        assertEquals("sample.Account", account.getClassName());
+        assertEquals("account", account.getTable());
+        assertEquals(List.of("idCard", "phone"), fieldNames(account));
+        assertEquals(List.of("idCard", "phone"), account.getFields().stream()
+                .map(EncryptFieldIndex.IndexedField::column).toList());
+    }
+
+    @Test
+    @DisplayName("父类无加密字段时直接使用自身条目")
+    void testPlainSuperclass() throws Exception {
+        Class<?> note = load("sample.Note");
+
+        assertSame(index.get(note), index.resolve(note));
+    }
+
+    @Test
+    @DisplayName("父类带加密字段却未被索引时回退到注解扫描")
+    void testUnindexedSuperclass() throws Exception {
+        Class<?> contact = load("sample.Contact");
+
+        assertNotNull(index.get(contact));
+        assertNull(index.resolve(contact));
+        assertNull(index.get(load("sample.LegacyBase")));
+    }
+
+    @Test
+    @DisplayName("未索引的类返回 null")
+    void testNotIndexed() throws Exception {
+        assertNull(index.resolve(load("sample.Audited")));
+        assertNull(index.resolve(String.class));
+    }
+
+    private static Class<?> load(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, classLoader);
+    }
+
+    private static List<String> fieldNames(EncryptFieldIndex.IndexedClass indexed) {
+        return indexed.getFields().stream().map(EncryptFieldIndex.IndexedField::field)
+                .toList();
+    }
+
+    private static void compile(Path out, Processor processor, Map<String, String> sources)
+            throws IOException, URISyntaxException {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        List<File> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = src.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            files.add(file.toFile());
+        }
+        String classpath = String.join(File.pathSeparator, out.toString(),
+                location(EncryptField.class), location(TableName.class));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager =
+                     compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units =
+                    fileManager.getJavaFileObjectsFromFiles(files);
+            List<String> options = new ArrayList<>(List.of("-d", out.toString(),
+                    "-classpath", classpath));
+            if (processor == null) {
+                options.add("-proc:none");
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager,
+                    null, options, null, units);
+            if (processor != null) {
+                task.setProcessors(List.of(processor));
+            }
+            assertTrue(task.call(), "compilation failed");
+        }
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+    }
+}
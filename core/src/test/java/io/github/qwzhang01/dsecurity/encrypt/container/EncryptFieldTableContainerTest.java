@@ -0,0 +1,110 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 加密字段注册表测试
+ */
+@DisplayName("EncryptFieldTableContainer 测试")
+class EncryptFieldTableContainerTest {
+
+    @Test
+    @DisplayName("列名规范化只忽略大小写、引号和驼峰差异")
+    void testNormalizeColumn() {
+        assertEquals("phone_number", EncryptFieldTableContainer.normalizeColumn("phoneNumber"));
+        assertEquals("phone_number", EncryptFieldTableContainer.normalizeColumn("PHONE_NUMBER"));
+        assertEquals("phone_number", EncryptFieldTableContainer.normalizeColumn("`phone_number`"));
+        assertEquals("id_card", EncryptFieldTableContainer.normalizeColumn("id_card"));
+        assertEquals("idcard", EncryptFieldTableContainer.normalizeColumn("IDCARD"));
+        assertEquals("address2_line", EncryptFieldTableContainer.normalizeColumn("address2Line"));
+        assertNull(EncryptFieldTableContainer.normalizeColumn(null));
+    }
+
+    @Test
+    @DisplayName("表名规范化")
+    void testNormalizeTable() {
+        assertEquals("user_info", EncryptFieldTableContainer.normalizeTable("`USER_INFO`"));
+        assertEquals("userinfo", EncryptFieldTableContainer.normalizeTable("UserInfo"));
+    }
+
+    @Test
+    @DisplayName("注册的列按各种命名形式匹配")
+    void testRegister() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.register("user", "phone_number", PrefixAlgo.class);
+
+        assertTrue(container.hasEncrypt());
+        assertTrue(container.isEncrypt("user", "phone_number"));
+        assertTrue(container.isEncrypt("`USER`", "phoneNumber"));
+        assertTrue(container.isEncrypt("user", "PHONE_NUMBER"));
+        assertFalse(container.isEncrypt("user", "phonenumber"));
+        assertFalse(container.isEncrypt("account", "phone_number"));
+        assertEquals(PrefixAlgo.class, container.getAlgo("user", "phoneNumber"));
+    }
+
+    @Test
+    @DisplayName("下划线不同的列互不混淆")
+    void testUnderscoreSignificant() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.register("user", "id_card", PrefixAlgo.class);
+
+        assertTrue(container.isEncrypt("user", "idCard"));
+        assertFalse(container.isEncrypt("user", "idcard"));
+        assertEquals(DefaultEncryptionAlgo.class, container.getAlgo("user", "idcard"));
+    }
+
+    @Test
+    @DisplayName("预先生成的命名形式只对应原列")
+    void testVariants() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.register("USER_INFO", "addressLine_2", PrefixAlgo.class);
+
+        assertTrue(container.isEncrypt("user_info", "address_line_2"));
+        assertTrue(container.isEncrypt("\"USER_INFO\"", "`ADDRESS_LINE_2`"));
+        assertTrue(container.isEncrypt("`user_info`", "\"address_line_2\""));
+        assertFalse(container.isEncrypt("user_info", "addressLine2"));
+        assertFalse(container.isEncrypt("userInfo", "address_line_2"));
+    }
+
+    @Test
+    @DisplayName("未指定算法的注册列使用默认算法")
+    void testRegisterWithoutAlgo() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.register("user", "email", null);
+
+        assertEquals(DefaultEncryptionAlgo.class, container.getAlgo("user", "email"));
+    }
+
+    @Test
+    @DisplayName("注册与重新加载都发布新版本且保留注册的列")
+    void testVersionSwap() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.init();
+        long initial = container.getVersion();
+
+        container.register("user", "phone_number", PrefixAlgo.class);
+        long registered = container.getVersion();
+        assertNotEquals(initial, registered);
+
+        container.reload();
+        assertNotEquals(registered, container.getVersion());
+        assertTrue(container.isEncrypt("user", "phone_number"));
+        assertEquals(1, container.getColumns().size());
+    }
+
+    @Test
+    @DisplayName("按表名预筛选 SQL")
+    void testMayReferenceEncryptedTable() {
+        EncryptFieldTableContainer container = new EncryptFieldTableContainer();
+        container.register("user", "phone_number", PrefixAlgo.class);
+
+        assertTrue(container.mayReferenceEncryptedTable("SELECT * FROM user WHERE id = ?"));
+        assertTrue(container.mayReferenceEncryptedTable("select * from `USER` u"));
+        assertFalse(container.mayReferenceEncryptedTable("SELECT * FROM account"));
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.qwzhang01.dsecurity.encrypt.container;
+
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptHint;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer.Binding;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer.HintPlan;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EncryptHint 声明解析测试
+ */
+@DisplayName("EncryptHint 解析测试")
+class EncryptHintContainerTest {
+
+    private DataSecurityRuntime runtime;
+    private EncryptHintContainer container;
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        EncryptFieldTableContainer fieldTableContainer = new EncryptFieldTableContainer();
+        fieldTableContainer.register("user", "phone_number", PrefixAlgo.class);
+        container = new EncryptHintContainer();
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                fieldTableContainer, container, new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        configuration = new Configuration();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("按表和列解析算法")
+    void testTableColumnBinding() {
+        HintPlan plan = container.getPlan(statement(UserMapper.class, "findByMobile"));
+
+        assertEquals(new Binding("user", "phone_number", PrefixAlgo.class),
+                plan.binding("mobile"));
+        assertNull(plan.binding("name"));
+    }
+
+    @Test
+    @DisplayName("foreach 元素按 item 名称匹配")
+    void testForeachItem() {
+        HintPlan plan = container.getPlan(statement(UserMapper.class, "findByPhones"));
+
+        assertNotNull(plan.binding("__frch_item_0"));
+        assertEquals(plan.binding("item"), plan.binding("__frch_item_12"));
+        assertEquals(new Binding("", "", PrefixAlgo.class),
+                plan.binding("__frch_query_3.idCard"));
+    }
+
+    @Test
+    @DisplayName("分页 count 语句沿用原方法的声明")
+    void testCountStatement() {
+        HintPlan plan = container.getPlan(statement(UserMapper.class,
+                "findByMobile_mpCount"));
+
+        assertEquals(new Binding("user", "phone_number", PrefixAlgo.class),
+                plan.binding("mobile"));
+    }
+
+    @Test
+    @DisplayName("无声明的语句返回 NONE")
+    void testNoHint() {
+        assertSame(HintPlan.NONE, container.getPlan(statement(UserMapper.class, "count")));
+        assertSame(HintPlan.NONE, container.getPlan(statement(UserMapper.class,
+                "findByMobile!selectKey")));
+        assertSame(HintPlan.NONE, container.getPlan(statement("xml.only", "find")));
+    }
+
+    @Test
+    @DisplayName("重载方法声明一致时合并")
+    void testConsistentOverloads() {
+        HintPlan plan = container.getPlan(statement(UserMapper.class, "findByName"));
+
+        assertNotNull(plan.binding("name"));
+        assertNotNull(plan.binding("mobile"));
+    }
+
+    @Test
+    @DisplayName("重载方法声明冲突时报错")
+    void testConflictingOverloads() {
+        MappedStatement statement = statement(ConflictMapper.class, "find");
+
+        assertThrows(DesensitizeException.class, () -> container.getPlan(statement));
+    }
+
+    @Test
+    @DisplayName("声明的列不是加密列时报错")
+    void testUnknownColumn() {
+        MappedStatement statement = statement(ConflictMapper.class, "findByEmail");
+
+        assertThrows(DesensitizeException.class, () -> container.getPlan(statement));
+    }
+
+    @Test
+    @DisplayName("启动后注册的语句在首次使用时解析")
+    void testStatementRegisteredAfterInit() {
+        container.init(configuration);
+        configuration.addMapper(UserMapper.class);
+
+        MappedStatement statement = configuration.getMappedStatement(
+                UserMapper.class.getName() + ".findByMobile");
+        assertNotSame(HintPlan.NONE, container.getPlan(statement));
+    }
+
+    @Test
+    @DisplayName("初始化的配置中没有声明时跳过查找，新注册的 Mapper 会被扫描")
+    void testMayHaveHints() {
+        assertTrue(container.mayHaveHints());
+
+        container.init(configuration);
+        assertFalse(container.mayHaveHints());
+
+        configuration.addMapper(UserMapper.class);
+        assertTrue(container.mayHaveHints());
+    }
+
+    private MappedStatement statement(Class<?> mapper, String method) {
+        return statement(mapper.getName(), method);
+    }
+
+    private MappedStatement statement(String namespace, String method) {
+        return new MappedStatement.Builder(configuration, namespace + "." + method,
+                new RawSqlSource(configuration, "SELECT 1", Object.class),
+                SqlCommandType.SELECT).build();
+    }
+
+    public interface UserMapper {
+        @EncryptHint(param = "mobile", table = "user", column = "phone_number")
+        @Select("SELECT id FROM user WHERE phone_number = #{mobile}")
+        List<Long> findByMobile(@Param("mobile") String mobile);
+
+        @EncryptHint(param = "item", table = "user", column = "phone_number")
+        @EncryptHint(param = "query.idCard", algo = PrefixAlgo.class)
+        List<Long> findByPhones(List<String> phones, Object query);
+
+        @EncryptHint(param = "name", algo = PrefixAlgo.class)
+        List<Long> findByName(String name);
+
+        @EncryptHint(param = "name", algo = PrefixAlgo.class)
+        @EncryptHint(param = "mobile", table = "user", column = "phone_number")
+        List<Long> findByName(String name, String mobile);
+
+        long count();
+    }
+
+    public interface ConflictMapper {
+        @EncryptHint(param = "phone", algo = PrefixAlgo.class)
+        List<Long> find(String phone);
+
+        @EncryptHint(param = "phone", algo = EncryptionAlgo.class, table = "user",
+                column = "phone_number")
+        List<Long> find(String phone, int limit);
+
+        @EncryptHint(param = "email", table = "user", column = "email")
+        List<Long> findByEmail(String email);
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.qwzhang01.dsecurity.encrypt.processor;
+
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptHint;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.context.StatementContext;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.kit.MultiRowInsert;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 加密处理器多行插入测试
+ */
+@DisplayName("EncryptProcessor 多行插入测试")
+class EncryptProcessorTest {
+
+    private DataSecurityRuntime runtime;
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        EncryptFieldTableContainer fieldTableContainer = new EncryptFieldTableContainer();
+        fieldTableContainer.register("account", "phone", EncryptionAlgo.class);
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                fieldTableContainer, new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        configuration = new Configuration();
+        configuration.addMapper(AccountMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("按行模板加密多行插入的参数")
+    void testEncryptRows() {
+        List<Map<String, Object>> rows = List.of(row(1L, "13800000001"),
+                row(2L, "13800000002"));
+        StatementContext context = context(rows);
+
+        assertTrue(EncryptProcessor.getInstance().encryptMultiRowInsert(context,
+                detect(context)));
+        assertEquals(PrefixAlgo.PREFIX + "13800000001", rows.get(0).get("phone"));
+        assertEquals(PrefixAlgo.PREFIX + "13800000002", rows.get(1).get("phone"));
+    }
+
+    @Test
+    @DisplayName("空值不加密也不回退")
+    void testNullValue() {
+        List<Map<String, Object>> rows = List.of(row(1L, null), row(2L, "13800000002"));
+        StatementContext context = context(rows);
+
+        assertTrue(EncryptProcessor.getInstance().encryptMultiRowInsert(context,
+                detect(context)));
+        assertNull(rows.get(0).get("phone"));
+        assertEquals(PrefixAlgo.PREFIX + "13800000002", rows.get(1).get("phone"));
+    }
+
+    @Test
+    @DisplayName("无法按文本解析的值回退到常规路径且不做部分加密")
+    void testUnresolvedValueFallsBack() {
+        List<Map<String, Object>> rows = List.of(row(1L, "13800000001"),
+                row(2L, 13800000002L));
+        StatementContext context = context(rows);
+
+        assertFalse(EncryptProcessor.getInstance().encryptMultiRowInsert(context,
+                detect(context)));
+        assertEquals("13800000001", rows.get(0).get("phone"));
+        assertEquals(13800000002L, rows.get(1).get("phone"));
+    }
+
+    @Test
+    @DisplayName("冲突的加密声明使语句失败，而不是以明文执行")
+    void testConflictingHintsFail() {
+        MappedStatement ms = new MappedStatement.Builder(configuration,
+                ConflictMapper.class.getName() + ".find",
+                new RawSqlSource(configuration, "SELECT id FROM account WHERE phone = #{phone}",
+                        Map.class), SqlCommandType.SELECT).build();
+        Map<String, Object> parameter = new HashMap<>(Map.of("phone", "13800000001"));
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        StatementContext context = StatementContext.of(configuration.newStatementHandler(
+                null, ms, parameter, RowBounds.DEFAULT, null, boundSql));
+
+        assertThrows(DesensitizeException.class,
+                () -> EncryptProcessor.getInstance().encryptParameters(context));
+        assertEquals("13800000001", parameter.get("phone"));
+    }
+
+    private StatementContext context(List<Map<String, Object>> rows) {
+        MappedStatement ms = configuration.getMappedStatement(
+                AccountMapper.class.getName() + ".insertAll");
+        MapperMethod.ParamMap<Object> parameter = new MapperMethod.ParamMap<>();
+        parameter.put("list", rows);
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        return StatementContext.of(configuration.newStatementHandler(null, ms, parameter,
+                RowBounds.DEFAULT, null, boundSql));
+    }
+
+    private static MultiRowInsert detect(StatementContext context) {
+        MultiRowInsert insert = MultiRowInsert.detect(context.getOriginalSql());
+        assertNotNull(insert);
+        return insert;
+    }
+
+    private static Map<String, Object> row(Long id, Object phone) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("phone", phone);
+        return row;
+    }
+
+    public interface ConflictMapper {
+        @EncryptHint(param = "phone", algo = PrefixAlgo.class)
+        List<Long> find(String phone);
+
+        @EncryptHint(param = "phone", table = "account", column = "phone")
+        List<Long> find(String phone, int limit);
+    }
+
+    public interface AccountMapper {
+        @Insert("<script>INSERT INTO account (id, phone) VALUES "
+                + "<foreach collection='list' item='item' separator=','>"
+                + "(#{item.id}, #{item.phone})</foreach></script>")
+        int insertAll(@Param("list") List<Map<String, Object>> rows);
+    }
+}
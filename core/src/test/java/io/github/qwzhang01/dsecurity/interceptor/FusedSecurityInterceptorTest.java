@@ -0,0 +1,209 @@
+package io.github.qwzhang01.dsecurity.interceptor;
+
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.DataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import io.github.qwzhang01.dsecurity.support.TestDatabase;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 融合拦截器测试
+ */
+@DisplayName("融合拦截器测试")
+class FusedSecurityInterceptorTest {
+
+    private DataSecurityRuntime runtime;
+
+    @BeforeEach
+    void setUp() {
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                new EncryptFieldTableContainer(), new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataScopeHelper.clear();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("查询结果自动解密")
+    void testDecrypt() {
+        try (SqlSession session = open("fused_decrypt",
+                new FusedSecurityInterceptor(false)).openSession()) {
+            Account account = session.getMapper(AccountMapper.class).selectById(1L);
+
+            assertEquals("13800000001", account.getPhone());
+        }
+    }
+
+    @Test
+    @DisplayName("数据权限条件作用于查询")
+    void testDataScope() {
+        SqlSessionFactory factory = open("fused_scope", new FusedSecurityInterceptor(false));
+        List<Account> scoped;
+        try (SqlSession session = factory.openSession()) {
+            AccountMapper mapper = session.getMapper(AccountMapper.class);
+            scoped = DataScopeHelper.strategy(OwnerStrategy.class).execute(mapper::selectAll);
+        }
+        List<Account> all;
+        try (SqlSession session = factory.openSession()) {
+            all = session.getMapper(AccountMapper.class).selectAll();
+        }
+
+        assertEquals(List.of(1L), scoped.stream().map(Account::getId).toList());
+        assertEquals(2, all.size());
+    }
+
+    @Test
+    @DisplayName("关闭的功能不生效")
+    void testDisabledFeatures() {
+        try (SqlSession session = open("fused_disabled",
+                new FusedSecurityInterceptor(false, false, false)).openSession()) {
+            AccountMapper mapper = session.getMapper(AccountMapper.class);
+
+            List<Account> accounts = DataScopeHelper.strategy(OwnerStrategy.class)
+                    .execute(mapper::selectAll);
+
+            assertEquals(2, accounts.size());
+            assertEquals(PrefixAlgo.PREFIX + "13800000001", accounts.get(0).getPhone());
+        }
+    }
+
+    @Test
+    @DisplayName("只代理启用功能所需的处理器")
+    void testPluginTargets() {
+        StatementHandler statementHandler = stub(StatementHandler.class);
+        ResultSetHandler resultSetHandler = stub(ResultSetHandler.class);
+        Executor executor = stub(Executor.class);
+
+        FusedSecurityInterceptor none = new FusedSecurityInterceptor(false, false, false);
+        assertSame(statementHandler, none.plugin(statementHandler));
+        assertSame(resultSetHandler, none.plugin(resultSetHandler));
+        assertSame(executor, none.plugin(executor));
+
+        FusedSecurityInterceptor scopeOnly = new FusedSecurityInterceptor(false, true, false);
+        assertNotSame(statementHandler, scopeOnly.plugin(statementHandler));
+        assertSame(resultSetHandler, scopeOnly.plugin(resultSetHandler));
+        assertSame(executor, scopeOnly.plugin(executor));
+
+        FusedSecurityInterceptor printOnly = new FusedSecurityInterceptor(false, false, true);
+        assertSame(statementHandler, printOnly.plugin(statementHandler));
+        assertInstanceOf(Executor.class, printOnly.plugin(executor));
+        assertNotSame(executor, printOnly.plugin(executor));
+    }
+
+    @Test
+    @DisplayName("未拦截的方法直接转发，异常不被包装")
+    void testPassThrough() {
+        StatementHandler target = (StatementHandler) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{StatementHandler.class},
+                (proxy, method, args) -> {
+                    throw new IllegalStateException(method.getName());
+                });
+        StatementHandler wrapped = (StatementHandler)
+                new FusedSecurityInterceptor(true, true, false).plugin(target);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                wrapped::getBoundSql);
+        assertEquals("getBoundSql", e.getMessage());
+    }
+
+    private static SqlSessionFactory open(String name, FusedSecurityInterceptor interceptor) {
+        Configuration configuration = TestDatabase.configuration(name,
+                "CREATE TABLE account (id BIGINT PRIMARY KEY, phone VARCHAR(64), owner_id BIGINT)",
+                "INSERT INTO account VALUES (1, 'enc:13800000001', 1)",
+                "INSERT INTO account VALUES (2, 'enc:13800000002', 2)");
+        configuration.addMapper(AccountMapper.class);
+        configuration.addInterceptor(interceptor);
+        return TestDatabase.sessionFactory(configuration);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(FusedSecurityInterceptorTest.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> null);
+    }
+
+    public interface AccountMapper {
+        @Select("SELECT id, phone, owner_id FROM account WHERE id = #{id}")
+        Account selectById(Long id);
+
+        @Select("SELECT id, phone, owner_id FROM account ORDER BY id")
+        List<Account> selectAll();
+    }
+
+    public static class OwnerStrategy implements DataScopeStrategy<Long> {
+        @Override
+        public String join() {
+            return "";
+        }
+
+        @Override
+        public String where() {
+            return "owner_id = 1";
+        }
+
+        @Override
+        public void validDs(List<Long> validRights) {
+        }
+
+        @Override
+        public void validDs(List<Long> validRights, List<Long> withoutRights) {
+        }
+    }
+
+    public static class Account {
+        private Long id;
+        @EncryptField
+        private String phone;
+        private Long ownerId;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getPhone() {
+            return phone;
+        }
+
+        public void setPhone(String phone) {
+            this.phone = phone;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public void setOwnerId(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+}
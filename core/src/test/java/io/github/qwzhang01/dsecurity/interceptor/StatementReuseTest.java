@@ -0,0 +1,188 @@
+package io.github.qwzhang01.dsecurity.interceptor;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import io.github.qwzhang01.dsecurity.support.TestDatabase;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 复用 JDBC 语句的执行器测试
+ * REUSE 与 BATCH 执行器复用语句时不再调用 prepare，改写与加密仍需生效
+ */
+@DisplayName("语句复用执行器测试")
+class StatementReuseTest {
+
+    private DataSecurityRuntime runtime;
+
+    @BeforeEach
+    void setUp() {
+        EncryptFieldTableContainer fieldTableContainer = new EncryptFieldTableContainer();
+        fieldTableContainer.register("account", "phone", EncryptionAlgo.class);
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                fieldTableContainer, new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataScopeHelper.clear();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("REUSE 执行器下参数化条件按每次执行绑定")
+    void testReuseScope() {
+        assertScopedPerExecution(open("reuse_scope", new SqlRewriteInterceptor(false, true)));
+    }
+
+    @Test
+    @DisplayName("REUSE 执行器下融合拦截器按每次执行绑定")
+    void testReuseScopeFused() {
+        assertScopedPerExecution(open("reuse_scope_fused",
+                new FusedSecurityInterceptor(false, true, false)));
+    }
+
+    @Test
+    @DisplayName("REUSE 执行器下复用语句的参数同样加密并恢复")
+    void testReuseEncrypt() {
+        SqlSessionFactory factory = open("reuse_encrypt", new SqlRewriteInterceptor(true, false));
+        List<Map<String, Object>> first = rows(10L, 11L);
+        List<Map<String, Object>> second = rows(12L, 13L);
+        try (SqlSession session = factory.openSession(ExecutorType.REUSE, true)) {
+            AccountMapper mapper = session.getMapper(AccountMapper.class);
+            mapper.insertAll(first);
+            mapper.insertAll(second);
+        }
+
+        assertEncrypted("reuse_encrypt", first, second);
+    }
+
+    @Test
+    @DisplayName("BATCH 执行器下批量语句的参数同样加密并恢复")
+    void testBatchEncrypt() {
+        SqlSessionFactory factory = open("batch_encrypt",
+                new FusedSecurityInterceptor(true, false, false));
+        List<Map<String, Object>> first = rows(10L, 11L);
+        List<Map<String, Object>> second = rows(12L, 13L);
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH)) {
+            AccountMapper mapper = session.getMapper(AccountMapper.class);
+            mapper.insertAll(first);
+            mapper.insertAll(second);
+            session.commit();
+        }
+
+        assertEncrypted("batch_encrypt", first, second);
+    }
+
+    private static void assertScopedPerExecution(SqlSessionFactory factory) {
+        try (SqlSession session = factory.openSession(ExecutorType.REUSE)) {
+            AccountMapper mapper = session.getMapper(AccountMapper.class);
+
+            assertEquals(List.of(1L), scoped(mapper, 1L));
+            // The local cache keys on the SQL before the rewrite
+            session.clearCache();
+            assertEquals(List.of(2L), scoped(mapper, 2L));
+            session.clearCache();
+            assertEquals(List.of(1L, 2L, 3L), mapper.selectIds());
+        }
+    }
+
+    private static List<Long> scoped(AccountMapper mapper, Long owner) {
+        return DataScopeHelper.strategy(OwnerStrategy.class).setSearchRight(owner)
+                .execute(mapper::selectIds);
+    }
+
+    private static void assertEncrypted(String name, List<Map<String, Object>> first,
+                                        List<Map<String, Object>> second) {
+        assertEquals(List.of(PrefixAlgo.PREFIX + "10", PrefixAlgo.PREFIX + "11",
+                PrefixAlgo.PREFIX + "12", PrefixAlgo.PREFIX + "13"), storedPhones(name));
+        assertEquals("10", first.get(0).get("phone"));
+        assertEquals("13", second.get(1).get("phone"));
+    }
+
+    private static List<String> storedPhones(String name) {
+        try (Connection connection = TestDatabase.dataSource(name).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT phone FROM account WHERE id >= 10 ORDER BY id")) {
+            List<String> phones = new ArrayList<>();
+            while (resultSet.next()) {
+                phones.add(resultSet.getString(1));
+            }
+            return phones;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Map<String, Object>> rows(Long... ids) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Long id : ids) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("phone", String.valueOf(id));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static SqlSessionFactory open(String name, Interceptor interceptor) {
+        Configuration configuration = TestDatabase.configuration(name,
+                "CREATE TABLE account (id BIGINT PRIMARY KEY, phone VARCHAR(64), owner_id BIGINT)",
+                "INSERT INTO account VALUES (1, 'enc:1', 1), (2, 'enc:2', 2), (3, 'enc:3', 3)");
+        configuration.addMapper(AccountMapper.class);
+        configuration.addInterceptor(interceptor);
+        return TestDatabase.sessionFactory(configuration);
+    }
+
+    public interface AccountMapper {
+        @Select("SELECT id FROM account WHERE id < 10 ORDER BY id")
+        List<Long> selectIds();
+
+        @Insert("<script>INSERT INTO account (id, phone) VALUES "
+                + "<foreach collection='list' item='item' separator=','>"
+                + "(#{item.id}, #{item.phone})</foreach></script>")
+        int insertAll(@Param("list") List<Map<String, Object>> rows);
+    }
+
+    public static class OwnerStrategy extends EmptyDataScopeStrategy<Long>
+            implements ParameterizedDataScopeStrategy<Long> {
+        @Override
+        public ScopePredicate predicate() {
+            return ScopePredicate.where("owner_id = ?",
+                    DataScopeHelper.<Long>getSearchRight().get(0));
+        }
+    }
+}
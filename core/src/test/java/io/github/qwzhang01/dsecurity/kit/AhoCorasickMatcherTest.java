@@ -0,0 +1,57 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AhoCorasickMatcher 表名预过滤测试
+ */
+@DisplayName("AhoCorasickMatcher 测试")
+class AhoCorasickMatcherTest {
+
+    private final AhoCorasickMatcher matcher =
+            new AhoCorasickMatcher(List.of("user", "order", "user_info"));
+
+    @Test
+    @DisplayName("测试大小写不敏感与反引号")
+    void testCaseInsensitiveAndBackticks() {
+        assertTrue(matcher.containsWord("SELECT * FROM `User` u WHERE u.id = ?"));
+        assertTrue(matcher.containsWord("select * from USER_INFO"));
+    }
+
+    @Test
+    @DisplayName("测试库名前缀")
+    void testSchemaPrefix() {
+        assertTrue(matcher.containsWord("INSERT INTO db.order (id) VALUES (?)"));
+    }
+
+    @Test
+    @DisplayName("测试只匹配完整标识符")
+    void testWholeIdentifierOnly() {
+        assertFalse(matcher.containsWord("SELECT * FROM users"));
+        assertFalse(matcher.containsWord("SELECT * FROM user_info2"));
+        assertFalse(matcher.containsWord("SELECT * FROM t_order"));
+    }
+
+    @Test
+    @DisplayName("测试重叠模式")
+    void testOverlappingPatterns() {
+        AhoCorasickMatcher overlapping =
+                new AhoCorasickMatcher(List.of("he", "she", "hers"));
+        assertFalse(overlapping.containsWord("ushers"));
+        assertTrue(overlapping.containsWord("x hers y"));
+    }
+
+    @Test
+    @DisplayName("测试空模式集")
+    void testEmptyPatterns() {
+        AhoCorasickMatcher empty = new AhoCorasickMatcher(List.of());
+        assertFalse(empty.containsWord("SELECT * FROM user"));
+        assertFalse(matcher.containsWord(null));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 有界缓存测试
+ */
+@DisplayName("BoundedCache 测试")
+class BoundedCacheTest {
+
+    @Test
+    @DisplayName("命中与未命中分别计数，值只计算一次")
+    void testHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(4);
+        AtomicInteger computed = new AtomicInteger();
+
+        assertEquals("A", cache.get("a", key -> {
+            computed.incrementAndGet();
+            return key.toUpperCase();
+        }));
+        assertEquals("A", cache.get("a", key -> {
+            computed.incrementAndGet();
+            return key.toUpperCase();
+        }));
+        assertNull(cache.getIfPresent("b"));
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(1, computed.get());
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.size());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("null 结果不缓存")
+    void testNullNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>(4);
+
+        assertNull(cache.get("a", key -> null));
+        assertNull(cache.get("a", key -> null));
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰并计数")
+    void testEviction() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+        }
+        cache.put(4, 40);
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(3, stats.evictions());
+        assertEquals(40, cache.getIfPresent(4));
+    }
+
+    @Test
+    @DisplayName("没有查询时命中率为 0，容量必须为正")
+    void testEdgeCases() {
+        assertEquals(0, new BoundedCache<>(1).stats().hitRate());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+}
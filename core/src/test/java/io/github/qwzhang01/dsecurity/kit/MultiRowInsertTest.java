@@ -0,0 +1,72 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MultiRowInsert 批量插入识别测试
+ */
+@DisplayName("MultiRowInsert 测试")
+class MultiRowInsertTest {
+
+    @Test
+    @DisplayName("测试识别多行插入")
+    void testDetectMultiRowInsert() {
+        MultiRowInsert insert = MultiRowInsert.detect(
+                "INSERT INTO `user` (id, `phone`, create_time) VALUES " +
+                        "(?, ?, now()), (?, ?, now()), (?, ?, now())");
+        assertNotNull(insert);
+        assertEquals("user", insert.getTable());
+        assertEquals(List.of("id", "phone", "create_time"), insert.getColumns());
+        assertEquals(3, insert.getRows());
+        assertEquals(2, insert.placeholdersPerRow());
+        assertEquals("id", insert.columnOf(0));
+        assertEquals("phone", insert.columnOf(1));
+    }
+
+    @Test
+    @DisplayName("测试模板键与行数无关")
+    void testTemplateKeyIndependentOfRowCount() {
+        MultiRowInsert two = MultiRowInsert.detect(
+                "insert into user (id, phone) values (?, ?),(?, ?)");
+        MultiRowInsert three = MultiRowInsert.detect(
+                "insert into user (id, phone) values (?, ?),(?, ?),(?, ?)");
+        assertNotNull(two);
+        assertNotNull(three);
+        assertEquals(two.getTemplateKey(), three.getTemplateKey());
+    }
+
+    @Test
+    @DisplayName("测试 ON DUPLICATE KEY UPDATE")
+    void testOnDuplicateKeyUpdate() {
+        assertNotNull(MultiRowInsert.detect("insert into db.user (id, phone) " +
+                "values (?, ?),(?, ?) on duplicate key update phone = values(phone)"));
+        assertNull(MultiRowInsert.detect("insert into user (id, phone) " +
+                "values (?, ?),(?, ?) on duplicate key update phone = ?"));
+    }
+
+    @Test
+    @DisplayName("测试不支持的语句")
+    void testUnsupportedStatements() {
+        assertNull(MultiRowInsert.detect("insert into user (id, phone) values (?, ?)"));
+        assertNull(MultiRowInsert.detect("insert into user (id, phone) " +
+                "values (?, lower(?)),(?, ?)"));
+        assertNull(MultiRowInsert.detect("insert into user (id, phone) " +
+                "values (?, ?),(?)"));
+        assertNull(MultiRowInsert.detect("select * from user where id = ?"));
+        assertNull(MultiRowInsert.detect(null));
+    }
+
+    @Test
+    @DisplayName("测试字符串字面量中的问号")
+    void testQuotedPlaceholder() {
+        MultiRowInsert insert = MultiRowInsert.detect("insert into user (id, " +
+                "name) values (?, 'a?b'),(?, 'c,d')");
+        assertNotNull(insert);
+        assertEquals(1, insert.placeholdersPerRow());
+    }
+}
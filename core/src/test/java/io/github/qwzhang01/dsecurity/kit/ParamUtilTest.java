@@ -0,0 +1,164 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.domain.ParameterEncryptInfo;
+import io.github.qwzhang01.dsecurity.domain.ParameterRestoreInfo;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * foreach 参数加密与按算法批量加密测试
+ */
+@DisplayName("ParamUtil 批量加密测试")
+class ParamUtilTest {
+
+    private DataSecurityRuntime runtime;
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        EncryptFieldTableContainer fieldTableContainer = new EncryptFieldTableContainer();
+        fieldTableContainer.register("account", "phone", RecordingAlgo.class);
+        fieldTableContainer.register("account", "id_card", EncryptionAlgo.class);
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                fieldTableContainer, new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        configuration = new Configuration();
+        configuration.addMapper(AccountMapper.class);
+        RecordingAlgo.BATCHES.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("foreach 参数按占位符位置匹配加密列")
+    void testForeachItems() {
+        BoundSql boundSql = boundSql("selectByPhones",
+                List.of("13800000001", "13800000002"), List.of());
+        SqlAnalysis analysis = new SqlAnalysis(List.of("account"),
+                List.of("phone", "phone"));
+
+        List<ParameterEncryptInfo> encryptInfos = ParamUtil.analyzeParameters(boundSql,
+                analysis, boundSql.getParameterObject());
+
+        assertEquals(List.of("__frch_p_0", "__frch_p_1"), encryptInfos.stream()
+                .map(ParameterEncryptInfo::getParameterKey).toList());
+        assertTrue(encryptInfos.stream().allMatch(i -> i.getBoundSql() == boundSql));
+    }
+
+    @Test
+    @DisplayName("同一算法的值去重后一次批量加密")
+    void testBatchPerAlgorithm() {
+        BoundSql boundSql = boundSql("selectByPhonesOrIdCards",
+                List.of("13800000001", "13800000002", "13800000001"),
+                List.of("110101199001010011"));
+        SqlAnalysis analysis = new SqlAnalysis(List.of("account"),
+                List.of("phone", "phone", "phone", "id_card"));
+
+        List<ParameterRestoreInfo> restoreInfos = ParamUtil.encryptParameters(
+                ParamUtil.analyzeParameters(boundSql, analysis,
+                        boundSql.getParameterObject()));
+
+        assertEquals(List.of(List.of("13800000001", "13800000002")), RecordingAlgo.BATCHES);
+        assertEquals("rec:13800000001", boundSql.getAdditionalParameter("__frch_p_0"));
+        assertEquals("rec:13800000002", boundSql.getAdditionalParameter("__frch_p_1"));
+        assertEquals("rec:13800000001", boundSql.getAdditionalParameter("__frch_p_2"));
+        assertEquals(PrefixAlgo.PREFIX + "110101199001010011",
+                boundSql.getAdditionalParameter("__frch_c_3"));
+        assertEquals(4, restoreInfos.size());
+    }
+
+    @Test
+    @DisplayName("还原 foreach 参数的原值")
+    void testRestoreForeachItems() {
+        BoundSql boundSql = boundSql("selectByPhones",
+                List.of("13800000001", "13800000002"), List.of());
+        SqlAnalysis analysis = new SqlAnalysis(List.of("account"),
+                List.of("phone", "phone"));
+
+        ParamUtil.restoreOriginalValues(ParamUtil.encryptParameters(
+                ParamUtil.analyzeParameters(boundSql, analysis,
+                        boundSql.getParameterObject())));
+
+        assertEquals("13800000001", boundSql.getAdditionalParameter("__frch_p_0"));
+        assertEquals("13800000002", boundSql.getAdditionalParameter("__frch_p_1"));
+    }
+
+    @Test
+    @DisplayName("非加密列位置的 foreach 参数不加密")
+    void testPlainColumnSkipped() {
+        BoundSql boundSql = boundSql("selectByPhones",
+                List.of("13800000001", "13800000002"), List.of());
+        SqlAnalysis analysis = new SqlAnalysis(List.of("account"),
+                List.of("name", "name"));
+
+        assertTrue(ParamUtil.analyzeParameters(boundSql, analysis,
+                boundSql.getParameterObject()).isEmpty());
+    }
+
+    private BoundSql boundSql(String method, List<String> phones, List<String> idCards) {
+        MapperMethod.ParamMap<Object> parameter = new MapperMethod.ParamMap<>();
+        parameter.put("phones", phones);
+        parameter.put("idCards", idCards);
+        return configuration.getMappedStatement(AccountMapper.class.getName() + "."
+                + method).getBoundSql(parameter);
+    }
+
+    public interface AccountMapper {
+        @Select("<script>SELECT id FROM account WHERE phone IN "
+                + "<foreach collection='phones' item='p' open='(' separator=',' close=')'>"
+                + "#{p}</foreach></script>")
+        List<Long> selectByPhones(@Param("phones") List<String> phones,
+                                  @Param("idCards") List<String> idCards);
+
+        @Select("<script>SELECT id FROM account WHERE phone IN "
+                + "<foreach collection='phones' item='p' open='(' separator=',' close=')'>"
+                + "#{p}</foreach> OR id_card IN "
+                + "<foreach collection='idCards' item='c' open='(' separator=',' close=')'>"
+                + "#{c}</foreach></script>")
+        List<Long> selectByPhonesOrIdCards(@Param("phones") List<String> phones,
+                                           @Param("idCards") List<String> idCards);
+    }
+
+    public static class RecordingAlgo implements EncryptionAlgo {
+        static final List<List<String>> BATCHES = new ArrayList<>();
+
+        @Override
+        public String encrypt(String value) {
+            return "rec:" + value;
+        }
+
+        @Override
+        public String decrypt(String value) {
+            return value.substring("rec:".length());
+        }
+
+        @Override
+        public List<String> encryptBatch(List<String> values) {
+            BATCHES.add(List.copyOf(values));
+            return EncryptionAlgo.super.encryptBatch(values);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryWrapper 访问缓存测试
+ */
+@DisplayName("QueryWrapper 访问缓存测试")
+class QueryWrapperAccessorTest {
+
+    @Test
+    @DisplayName("同一 Wrapper 类型只解析一次反射成员")
+    void testAccessorPerClass() {
+        QueryWrapper<Object> first = new QueryWrapper<>().eq("phone", "13800000001");
+        QueryWrapper<Object> second = new QueryWrapper<>().eq("email", "a@b.c");
+
+        assertSame(QueryWrapperAccessor.of(first), QueryWrapperAccessor.of(second));
+    }
+
+    @Test
+    @DisplayName("读取参数与 SQL 片段")
+    void testReadWrapper() {
+        QueryWrapper<Object> wrapper = new QueryWrapper<>().eq("phone", "13800000001");
+        QueryWrapperAccessor accessor = QueryWrapperAccessor.of(wrapper);
+
+        Map<String, Object> params = accessor.getParamNameValuePairs(wrapper);
+        String segment = accessor.getSqlSegment(wrapper);
+
+        assertEquals(1, params.size());
+        String name = params.keySet().iterator().next();
+        assertTrue(name.startsWith("MPGENVAL"));
+        assertEquals("13800000001", params.get(name));
+        assertTrue(segment.contains("phone"));
+        assertTrue(segment.contains("ew.paramNameValuePairs." + name));
+    }
+
+    @Test
+    @DisplayName("相同 SQL 片段的映射只解析一次")
+    void testSegmentMappingCached() {
+        String segment = new QueryWrapper<>().eq("id_card", "x").getSqlSegment();
+
+        Map<String, String> first = QueryWrapperAccessor.parseFieldParamMapping(segment);
+        Map<String, String> second = QueryWrapperAccessor.parseFieldParamMapping(
+                new String(segment.toCharArray()));
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.put("k", "v"));
+        assertTrue(QueryWrapperAccessor.parseFieldParamMapping("").isEmpty());
+    }
+
+    @Test
+    @DisplayName("不含 Wrapper 成员的类型返回空")
+    void testForeignWrapper() {
+        Object wrapper = new Object();
+        QueryWrapperAccessor accessor = QueryWrapperAccessor.of(wrapper);
+
+        assertNull(accessor.getParamNameValuePairs(wrapper));
+        assertNull(accessor.getSqlSegment(wrapper));
+    }
+}
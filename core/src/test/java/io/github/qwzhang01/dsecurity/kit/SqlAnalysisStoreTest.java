@@ -0,0 +1,149 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 解析结果快照测试
+ */
+@DisplayName("SqlAnalysisStore 快照测试")
+class SqlAnalysisStoreTest {
+    private static final List<String> STATEMENTS = List.of(
+            "SELECT id, phone FROM user WHERE phone = ?",
+            "UPDATE user SET phone = ? WHERE id = ?",
+            "INSERT INTO account (id, id_card) VALUES (?, ?)");
+
+    private final SqlAnalysisStore store = SqlAnalysisStore.getInstance();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        store.clear();
+    }
+
+    @Test
+    @DisplayName("保存后重新加载得到相同的解析结果")
+    void testRoundTrip() throws IOException {
+        List<SqlAnalysis> analyses = STATEMENTS.stream().map(store::analyze).toList();
+        Path file = dir.resolve("snapshot/sql-analysis.bin");
+
+        store.save(file);
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertTrue(store.load(file));
+        assertEquals(analyses, STATEMENTS.stream().map(store::analyze).toList());
+    }
+
+    @Test
+    @DisplayName("保存会原子替换已有文件")
+    void testOverwrite() throws IOException {
+        Path file = dir.resolve("sql-analysis.bin");
+        store.analyze(STATEMENTS.get(0));
+        store.save(file);
+        store.analyze(STATEMENTS.get(1));
+
+        store.save(file);
+
+        assertTrue(store.load(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("缺失或非快照文件被忽略")
+    void testMissingOrForeignFile() throws IOException {
+        assertFalse(store.load(dir.resolve("missing.bin")));
+
+        Path foreign = dir.resolve("foreign.bin");
+        Files.writeString(foreign, "not a snapshot");
+        assertFalse(store.load(foreign));
+
+        Path empty = dir.resolve("empty.bin");
+        Files.write(empty, new byte[0]);
+        assertFalse(store.load(empty));
+    }
+
+    @Test
+    @DisplayName("其他格式版本的快照被忽略")
+    void testOtherFormatVersion() throws IOException {
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(file, bytes);
+
+        assertFalse(store.load(file));
+    }
+
+    @Test
+    @DisplayName("截断或条目数损坏的快照被忽略")
+    void testTruncatedFile() throws IOException {
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        int countOffset = 12 + ByteBuffer.wrap(bytes).getInt(8);
+
+        Files.write(file, Arrays.copyOf(bytes, countOffset + 6));
+        assertFalse(store.load(file));
+
+        byte[] corrupt = bytes.clone();
+        ByteBuffer.wrap(corrupt).putInt(countOffset, Integer.MAX_VALUE);
+        Files.write(file, corrupt);
+        assertFalse(store.load(file));
+
+        ByteBuffer.wrap(corrupt).putInt(countOffset, -1);
+        Files.write(file, corrupt);
+        assertFalse(store.load(file));
+    }
+
+    @Test
+    @DisplayName("损坏的条目回退为重新解析")
+    void testCorruptEntries() throws IOException {
+        List<SqlAnalysis> analyses = STATEMENTS.stream().map(store::analyze).toList();
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int countOffset = 12 + buffer.getInt(8);
+        int count = buffer.getInt(countOffset);
+        int entries = countOffset + 4 + count * 12;
+        // Break every entry: the SQL length of the first, the offsets of the rest
+        buffer.putInt(entries, Integer.MAX_VALUE);
+        for (int i = 1; i < count; i++) {
+            buffer.putInt(countOffset + 4 + i * 12 + 8, bytes.length + 100);
+        }
+        Files.write(file, bytes);
+        store.clear();
+
+        assertTrue(store.load(file));
+        assertEquals(analyses, STATEMENTS.stream().map(store::analyze).toList());
+    }
+
+    @Test
+    @DisplayName("哈希为 64 位 FNV-1a")
+    void testHash() {
+        assertEquals(0xcbf29ce484222325L, SqlAnalysisStore.hash(""));
+        assertNotEquals(SqlAnalysisStore.hash(STATEMENTS.get(0)),
+                SqlAnalysisStore.hash(STATEMENTS.get(1)));
+    }
+
+    private Path saved() throws IOException {
+        STATEMENTS.forEach(store::analyze);
+        Path file = dir.resolve("sql-analysis.bin");
+        store.save(file);
+        return file;
+    }
+}
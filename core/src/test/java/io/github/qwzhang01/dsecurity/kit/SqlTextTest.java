@@ -0,0 +1,47 @@
+package io.github.qwzhang01.dsecurity.kit;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 文本扫描测试
+ */
+@DisplayName("SqlText 测试")
+class SqlTextTest {
+
+    @Test
+    @DisplayName("引号内的问号不计数，转义与双写引号不结束字符串")
+    void testCountPlaceholders() {
+        assertEquals(1, SqlText.countPlaceholders("t.note <> 'a\\'b' AND t.dept_id = ?"));
+        assertEquals(1, SqlText.countPlaceholders("t.note <> 'a''?' AND t.dept_id = ?"));
+        assertEquals(2, SqlText.countPlaceholders("`a?` = ? AND \"b?\" = ?"));
+        assertEquals(0, SqlText.countPlaceholders("t.note = 'a?"));
+        assertFalse(SqlText.hasPlaceholder("t.note = '?'"));
+        assertTrue(SqlText.hasPlaceholder("t.id = ?"));
+    }
+
+    @Test
+    @DisplayName("定位闭合引号，未闭合时返回 -1")
+    void testClosingQuote() {
+        assertEquals(5, SqlText.closingQuote("'a\\'b' AND", 0));
+        assertEquals(5, SqlText.closingQuote("'a''b' AND", 0));
+        assertEquals(-1, SqlText.closingQuote("'a\\'", 0));
+    }
+
+    @Test
+    @DisplayName("谓词按同一规则核对参数个数")
+    void testPredicateWithEscapedQuote() {
+        ScopePredicate predicate = ScopePredicate.of("",
+                "t.note <> 'a\\'b' AND t.dept_id = ?", List.of(1L));
+
+        assertEquals(List.of(1L), predicate.getValues());
+        assertThrows(DesensitizeException.class, () -> ScopePredicate.of("",
+                "t.note <> 'a\\'b' AND t.dept_id = ?", List.of()));
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据权限条件片段测试
+ */
+@DisplayName("数据权限条件片段测试")
+class DataScopeFragmentTest {
+
+    @Test
+    @DisplayName("片段文本规范化并按占位符绑定参数")
+    void testNormalizeAndBind() {
+        DataScopeFragment fragment = DataScopeFragment.of(
+                "  LEFT JOIN user_dept ud\n    ON ud.dept_id = t.dept_id AND ud.user_id = ?",
+                "ud.role >= ?   AND t.name <> 'a  b'");
+
+        assertEquals("LEFT JOIN user_dept ud ON ud.dept_id = t.dept_id AND ud.user_id = ?",
+                fragment.getJoin());
+        assertEquals("ud.role >= ? AND t.name <> 'a  b'", fragment.getWhere());
+        assertEquals("t.tag = '#1'", DataScopeFragment.where("t.tag = '#1'").getWhere());
+        assertEquals(2, fragment.getSlots());
+
+        ScopePredicate predicate = fragment.bind(7L, 3);
+        assertEquals(fragment.getWhere(), predicate.getWhere());
+        assertEquals(List.of(7L, 3), predicate.getValues());
+        assertThrows(DesensitizeException.class, () -> fragment.bind(7L));
+    }
+
+    @Test
+    @DisplayName("转义引号内的内容不影响校验与占位符计数")
+    void testEscapedQuote() {
+        DataScopeFragment fragment = DataScopeFragment.where(
+                "t.note <> 'a\\'b ?'   AND t.dept_id = ?");
+
+        assertEquals("t.note <> 'a\\'b ?' AND t.dept_id = ?", fragment.getWhere());
+        assertEquals(1, fragment.getSlots());
+        assertEquals(List.of(5L), fragment.bind(5L).getValues());
+        assertThrows(DesensitizeException.class, () -> fragment.bind(5L, 6L));
+    }
+
+    @Test
+    @DisplayName("格式错误的片段在创建时被拒绝")
+    void testInvalid() {
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("t.dept_id IN (1, 2"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("t.name = 'abc"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("1 = 1; DROP TABLE t"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("t.id = 1 -- comment"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("t.id = 1 # comment"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("t.id = 1 /* comment */"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.where("AND t.id = 1"));
+        assertThrows(DesensitizeException.class,
+                () -> DataScopeFragment.of("user_dept ud ON ud.dept_id = t.dept_id", ""));
+    }
+}
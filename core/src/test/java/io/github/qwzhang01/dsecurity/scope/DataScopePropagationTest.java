@@ -0,0 +1,89 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据权限上下文跨线程传递测试
+ */
+@DisplayName("数据权限上下文传递测试")
+class DataScopePropagationTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        DataScopeHelper.clear();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("包装后的任务在工作线程中可见调用方上下文")
+    void testSupplyAsync() {
+        DataScopeHelper.strategy(OrgStrategy.class).setSearchRight(List.of(1L, 2L));
+
+        Object[] seen = DataScopePropagation.supplyAsync(() -> new Object[]{
+                DataScopeHelper.isStarted(), DataScopeHelper.getStrategy(),
+                DataScopeHelper.getSearchRight()}, executor).join();
+
+        assertEquals(true, seen[0]);
+        assertEquals(OrgStrategy.class, seen[1]);
+        assertEquals(List.of(1L, 2L), seen[2]);
+    }
+
+    @Test
+    @DisplayName("任务结束后工作线程恢复原状态")
+    void testWorkerRestored() throws Exception {
+        DataScopeHelper.strategy(OrgStrategy.class);
+        ExecutorService propagating = DataScopePropagation.propagating(executor);
+        propagating.submit(() -> assertTrue(DataScopeHelper.isStarted())).get();
+
+        DataScopeHelper.clear();
+        assertFalse(executor.submit(DataScopeHelper::isStarted).get(),
+                "工作线程不应残留上下文");
+    }
+
+    @Test
+    @DisplayName("工作线程挂起上下文不影响调用方")
+    void testSnapshotIsolated() throws Exception {
+        DataScopeHelper.strategy(OrgStrategy.class);
+        Callable<Boolean> task = DataScopePropagation.wrap(() -> {
+            DataScopeHelper.cache();
+            return DataScopeHelper.isStarted();
+        });
+
+        assertFalse(executor.submit(task).get());
+        assertTrue(DataScopeHelper.isStarted());
+    }
+
+    @Test
+    @DisplayName("挂起期间权限数据仍可读取")
+    void testSuspended() {
+        DataScopeHelper.strategy(OrgStrategy.class).setSearchRight(7L);
+        DataScopeHelper.cache();
+
+        assertFalse(DataScopeHelper.isStarted());
+        assertNull(DataScopeHelper.getStrategy());
+        assertEquals(List.of(7L), DataScopeHelper.getSearchRight());
+
+        DataScopeHelper.restore();
+        assertTrue(DataScopeHelper.isStarted());
+    }
+
+    @Test
+    @DisplayName("没有上下文时直接返回原任务")
+    void testNoContext() {
+        Runnable task = () -> {
+        };
+        assertSame(task, DataScopePropagation.wrap(task));
+    }
+
+    static class OrgStrategy extends EmptyDataScopeStrategy<Long> {
+    }
+}
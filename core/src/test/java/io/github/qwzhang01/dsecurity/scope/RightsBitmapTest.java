@@ -0,0 +1,87 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限位图测试
+ */
+@DisplayName("权限位图测试")
+class RightsBitmapTest {
+
+    @Test
+    @DisplayName("集合运算结果与 TreeSet 一致")
+    void testSetOperations() {
+        Random random = new Random(42);
+        TreeSet<Long> a = new TreeSet<>();
+        TreeSet<Long> b = new TreeSet<>();
+        // Sparse values, a dense block crossing a container boundary and negatives
+        for (int i = 0; i < 3000; i++) {
+            a.add((long) random.nextInt(1_000_000));
+            b.add((long) random.nextInt(1_000_000));
+        }
+        for (long id = 60_000; id < 75_000; id++) {
+            a.add(id);
+            if (id % 3 == 0) {
+                b.add(id);
+            }
+        }
+        a.add(-5L);
+        b.add(-5L);
+        b.add(-70_000L);
+
+        RightsBitmap x = RightsBitmap.of(a);
+        RightsBitmap y = RightsBitmap.of(b);
+
+        TreeSet<Long> and = new TreeSet<>(a);
+        and.retainAll(b);
+        TreeSet<Long> or = new TreeSet<>(a);
+        or.addAll(b);
+        TreeSet<Long> andNot = new TreeSet<>(a);
+        andNot.removeAll(b);
+
+        assertEquals(List.copyOf(and), x.and(y).toList());
+        assertEquals(List.copyOf(or), x.or(y).toList());
+        assertEquals(List.copyOf(andNot), x.andNot(y).toList());
+        assertEquals(a.size(), x.cardinality());
+        assertTrue(x.or(y).containsAll(y));
+        assertFalse(x.containsAll(y));
+        assertTrue(x.intersects(y));
+        assertTrue(x.contains(-5L));
+        assertFalse(x.contains(-70_000L));
+    }
+
+    @Test
+    @DisplayName("连续 ID 合并为区间")
+    void testRanges() {
+        RightsBitmap bitmap = RightsBitmap.of(1, 2, 3, 7, 9, 10)
+                .addRange(65_530, 65_545);
+
+        assertEquals(List.of(new RightsBitmap.Range(1, 3), new RightsBitmap.Range(7, 7),
+                        new RightsBitmap.Range(9, 10), new RightsBitmap.Range(65_530, 65_545)),
+                bitmap.ranges());
+        assertEquals(RightsBitmap.range(0, 9_999), RightsBitmap.range(0, 4_999)
+                .or(RightsBitmap.range(5_000, 9_999)));
+        assertEquals(RightsBitmap.of(4, 5), RightsBitmap.range(0, 9_999)
+                .andNot(RightsBitmap.range(0, 3)).andNot(RightsBitmap.range(6, 9_999)));
+    }
+
+    @Test
+    @DisplayName("位图条件使用区间和 IN 列表")
+    void testWhereIn() {
+        ScopePredicate predicate = ScopePredicate.whereIn("t.dept_id",
+                RightsBitmap.of(1, 2, 3, 4, 8, 11).addRange(100, 10_000));
+
+        assertEquals("(t.dept_id BETWEEN ? AND ? OR t.dept_id BETWEEN ? AND ? "
+                + "OR t.dept_id IN (?, ?))", predicate.getWhere());
+        assertEquals(List.of(1L, 4L, 100L, 10_000L, 8L, 11L), predicate.getValues());
+        assertEquals("1 = 0", ScopePredicate.whereIn("t.dept_id", new RightsBitmap())
+                .getWhere());
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.qwzhang01.dsecurity.scope.container;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.CacheableDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据权限条件缓存测试
+ */
+@DisplayName("数据权限条件缓存测试")
+class DataScopeStrategyContainerTest {
+
+    private final DataScopeStrategyContainer container = new DataScopeStrategyContainer();
+
+    @AfterEach
+    void tearDown() {
+        UserStrategy.LOOKUPS.set(0);
+        UserStrategy.principal = 1L;
+    }
+
+    @Test
+    @DisplayName("同一用户的条件只计算一次")
+    void testCached() {
+        ScopeCondition first = container.getCondition(UserStrategy.class);
+        ScopeCondition second = container.getCondition(UserStrategy.class);
+        UserStrategy.principal = 2L;
+        ScopeCondition other = container.getCondition(UserStrategy.class);
+
+        assertEquals("t.owner_id = 1", first.where());
+        assertSame(first, second);
+        assertEquals("t.owner_id = 2", other.where());
+        assertEquals(2, UserStrategy.LOOKUPS.get());
+    }
+
+    @Test
+    @DisplayName("失效后重新计算条件")
+    void testInvalidate() {
+        container.getCondition(UserStrategy.class);
+        container.invalidate((Object) 1L);
+        container.getCondition(UserStrategy.class);
+        container.invalidate(UserStrategy.class);
+        container.getCondition(UserStrategy.class);
+
+        assertEquals(3, UserStrategy.LOOKUPS.get());
+    }
+
+    @Test
+    @DisplayName("TTL 为 0 时不缓存")
+    void testDisabled() {
+        container.configureConditionCache(16, Duration.ZERO);
+        container.getCondition(UserStrategy.class);
+        container.getCondition(UserStrategy.class);
+
+        assertEquals(2, UserStrategy.LOOKUPS.get());
+    }
+
+    @Test
+    @DisplayName("参数化策略按类型取条件")
+    void testParameterized() {
+        ScopeCondition condition = container.getCondition(BoundStrategy.class);
+
+        assertEquals("t.owner_id = ?", condition.where());
+        assertEquals(List.of(1L), condition.predicate().getValues());
+    }
+
+    @Test
+    @DisplayName("列策略只能通过 @DataScope 使用，不会放开数据")
+    void testColumnStrategyRejected() {
+        assertThrows(DesensitizeException.class,
+                () -> container.getCondition(DepartmentStrategy.class));
+    }
+
+    public static class UserStrategy implements CacheableDataScopeStrategy<Long> {
+        static final AtomicInteger LOOKUPS = new AtomicInteger();
+        static volatile long principal = 1L;
+
+        @Override
+        public Object principalKey() {
+            return principal;
+        }
+
+        @Override
+        public String join() {
+            return "";
+        }
+
+        @Override
+        public String where() {
+            LOOKUPS.incrementAndGet();
+            return "t.owner_id = " + principal;
+        }
+
+        @Override
+        public void validDs(List<Long> validRights) {
+        }
+
+        @Override
+        public void validDs(List<Long> validRights, List<Long> withoutRights) {
+        }
+    }
+
+    public static class BoundStrategy extends EmptyDataScopeStrategy<Long>
+            implements ParameterizedDataScopeStrategy<Long> {
+        @Override
+        public ScopePredicate predicate() {
+            return ScopePredicate.where("t.owner_id = ?", 1L);
+        }
+    }
+
+    public static class DepartmentStrategy extends EmptyDataScopeStrategy<Long>
+            implements ColumnDataScopeStrategy<Long> {
+        @Override
+        public Collection<?> values() {
+            return List.of(1L);
+        }
+    }
+}
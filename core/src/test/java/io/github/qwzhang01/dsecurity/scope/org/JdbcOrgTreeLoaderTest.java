@@ -0,0 +1,287 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.interceptor.SqlRewriteInterceptor;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import io.github.qwzhang01.dsecurity.support.TestDatabase;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC 组织树加载测试
+ * 区间在一个事务内写回，数据权限条件在 SQL 中读取子树边界
+ */
+@DisplayName("JDBC 组织树加载测试")
+class JdbcOrgTreeLoaderTest {
+
+    /**
+     * 1
+     * ├── 2
+     * │   ├── 4
+     * │   └── 5
+     * └── 3
+     *     └── 6
+     */
+    private static final String[] DEPARTMENTS = {
+            "CREATE TABLE IF NOT EXISTS sys_dept (id BIGINT PRIMARY KEY, parent_id BIGINT, "
+                    + "deleted INT DEFAULT 0 NOT NULL, "
+                    + "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, lft INT, rgt INT)",
+            "MERGE INTO sys_dept (id, parent_id) KEY (id) VALUES (1, NULL), (2, 1), (3, 1), "
+                    + "(4, 2), (5, 2), (6, 3)"};
+
+    private DataSecurityRuntime runtime;
+
+    @BeforeEach
+    void setUp() {
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                new EncryptFieldTableContainer(), new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeptStrategy.roots = null;
+        DataScopeHelper.clear();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("加载后写回区间，只修正变化的行")
+    void testWriteIntervals() {
+        DataSource dataSource = database("org_tree_write");
+        OrgTree tree = new OrgTree(loader(dataSource));
+
+        tree.refresh();
+        assertEquals(List.of("1:1-12", "2:2-7", "3:8-11", "4:3-4", "5:5-6", "6:9-10"),
+                intervals(dataSource));
+
+        TestDatabase.execute(dataSource, "UPDATE sys_dept SET lft = NULL WHERE id = 4",
+                "UPDATE sys_dept SET rgt = 99 WHERE id = 3");
+        tree.refresh();
+        assertEquals(List.of("1:1-12", "2:2-7", "3:8-11", "4:3-4", "5:5-6", "6:9-10"),
+                intervals(dataSource));
+    }
+
+    @Test
+    @DisplayName("写入失败时整体回滚")
+    void testWriteRollback() {
+        DataSource dataSource = database("org_tree_rollback");
+        TestDatabase.execute(dataSource,
+                "ALTER TABLE sys_dept ADD CONSTRAINT no_ten CHECK (rgt IS NULL OR rgt <> 10)");
+        OrgTree tree = new OrgTree(loader(dataSource));
+
+        assertThrows(DesensitizeException.class, tree::refresh);
+        assertEquals(List.of("1:null-null", "2:null-null", "3:null-null", "4:null-null",
+                "5:null-null", "6:null-null"), intervals(dataSource));
+    }
+
+    @Test
+    @DisplayName("关闭写入的实例不写区间")
+    void testReadOnly() {
+        DataSource dataSource = database("org_tree_read_only");
+
+        new OrgTree(loader(dataSource).setWriteIntervals(false)).refresh();
+
+        assertEquals("1:null-null", intervals(dataSource).get(0));
+    }
+
+    @Test
+    @DisplayName("增量加载以数据库时间为界")
+    void testChangesOnDatabaseClock() {
+        DataSource dataSource = database("org_tree_changes");
+        OrgTree tree = new OrgTree(loader(dataSource));
+        tree.refresh();
+
+        TestDatabase.execute(dataSource,
+                "INSERT INTO sys_dept (id, parent_id) VALUES (7, 3)",
+                "UPDATE sys_dept SET deleted = 1, update_time = CURRENT_TIMESTAMP WHERE id = 5");
+        OrgTreeIndex index = tree.refreshChanges();
+
+        assertTrue(index.contains(7));
+        assertFalse(index.contains(5));
+        assertTrue(index.isWithin(3, 7));
+    }
+
+    @Test
+    @DisplayName("增量加载的起点取自加载器的时钟")
+    void testLoaderClock() {
+        Instant sourceTime = Instant.parse("2020-01-01T00:00:00Z");
+        List<Instant> since = new ArrayList<>();
+        OrgTree tree = new OrgTree(new OrgTreeLoader() {
+            @Override
+            public List<OrgNode> loadAll() {
+                return List.of(new OrgNode(1, null));
+            }
+
+            @Override
+            public Changes loadChanges(Instant from) {
+                since.add(from);
+                return new Changes(List.of(), List.of());
+            }
+
+            @Override
+            public Instant currentTime() {
+                return sourceTime;
+            }
+        });
+
+        tree.refresh();
+        tree.refreshChanges();
+        tree.refreshChanges();
+
+        assertEquals(List.of(sourceTime, sourceTime), since);
+    }
+
+    @Test
+    @DisplayName("并发首次使用只加载一次")
+    void testConcurrentFirstUse() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch waiting = new CountDownLatch(1);
+        OrgTree tree = new OrgTree(() -> {
+            loads.incrementAndGet();
+            try {
+                waiting.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new OrgNode(1, null));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OrgTreeIndex>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(tree::current));
+            }
+            Thread.sleep(100);
+            waiting.countDown();
+            OrgTreeIndex first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OrgTreeIndex> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        tree.refresh();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("区间条件在 SQL 中读取边界，重新编号后仍然正确")
+    void testStoredBounds() {
+        DataSource dataSource = DeptStrategy.DATA_SOURCE;
+        Configuration configuration = TestDatabase.configuration("org_tree_scope",
+                "CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY, dept_id BIGINT)",
+                "MERGE INTO item KEY (id) VALUES (10, 1), (20, 2), (30, 3), (40, 4), "
+                        + "(50, 5), (60, 6)");
+        configuration.addMapper(ItemMapper.class);
+        configuration.addInterceptor(new SqlRewriteInterceptor(false, true));
+        SqlSessionFactory factory = TestDatabase.sessionFactory(configuration);
+        DeptStrategy.TREE.refresh();
+
+        DeptStrategy.roots = List.of(2L, 4L);
+        ScopePredicate predicate = new DeptStrategy().predicate();
+        assertEquals("d.lft BETWEEN (SELECT lft FROM sys_dept WHERE id = ?) "
+                + "AND (SELECT rgt FROM sys_dept WHERE id = ?)", predicate.getWhere());
+        assertEquals(List.of(2L, 2L), predicate.getValues());
+        assertEquals(List.of(20L, 40L, 50L), select(factory));
+
+        // Another instance renumbers the table before this one refreshes
+        TestDatabase.execute(dataSource, "UPDATE sys_dept SET lft = lft + 100, rgt = rgt + 100");
+        assertEquals(List.of(20L, 40L, 50L), select(factory));
+
+        DeptStrategy.roots = List.of(6L, 2L);
+        assertEquals(List.of(20L, 40L, 50L, 60L), select(factory));
+        DeptStrategy.roots = List.of();
+        assertEquals(List.of(), select(factory));
+    }
+
+    private static List<Long> select(SqlSessionFactory factory) {
+        try (SqlSession session = factory.openSession()) {
+            return DataScopeHelper.strategy(DeptStrategy.class)
+                    .execute(session.getMapper(ItemMapper.class)::selectIds);
+        }
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = TestDatabase.dataSource(name);
+        TestDatabase.execute(dataSource, DEPARTMENTS);
+        return dataSource;
+    }
+
+    private static JdbcOrgTreeLoader loader(DataSource dataSource) {
+        return new JdbcOrgTreeLoader(dataSource, "sys_dept", "id", "parent_id")
+                .setUpdatedColumn("update_time")
+                .setDeletedColumn("deleted")
+                .setIntervalColumns("lft", "rgt");
+    }
+
+    private static List<String> intervals(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT id, lft, rgt FROM sys_dept ORDER BY id")) {
+            List<String> intervals = new ArrayList<>();
+            while (resultSet.next()) {
+                intervals.add(resultSet.getLong(1) + ":" + resultSet.getObject(2) + "-"
+                        + resultSet.getObject(3));
+            }
+            return intervals;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public interface ItemMapper {
+        @Select("SELECT t.id FROM item t ORDER BY t.id")
+        List<Long> selectIds();
+    }
+
+    public static class DeptStrategy extends OrgTreeDataScopeStrategy {
+        static final DataSource DATA_SOURCE = database("org_tree_scope");
+        static final OrgTree TREE = new OrgTree(loader(DATA_SOURCE));
+        static volatile Collection<Long> roots;
+
+        public DeptStrategy() {
+            super(TREE, Mode.LFT, "JOIN sys_dept d ON d.id = t.dept_id", "d.lft");
+        }
+
+        @Override
+        protected Collection<Long> scopeRoots() {
+            return roots;
+        }
+    }
+}
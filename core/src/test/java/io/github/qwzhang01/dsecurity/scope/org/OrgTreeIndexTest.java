@@ -0,0 +1,106 @@
+package io.github.qwzhang01.dsecurity.scope.org;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 组织树区间编码测试
+ */
+@DisplayName("组织树区间编码测试")
+class OrgTreeIndexTest {
+
+    /**
+     * 1
+     * ├── 2
+     * │   ├── 4
+     * │   └── 5
+     * └── 3
+     *     └── 6
+     */
+    private static final List<OrgNode> ROWS = List.of(new OrgNode(1, null),
+            new OrgNode(2, 1L), new OrgNode(3, 1L), new OrgNode(4, 2L),
+            new OrgNode(5, 2L), new OrgNode(6, 3L));
+
+    @Test
+    @DisplayName("子树对应连续区间")
+    void testIntervals() {
+        OrgTreeIndex index = OrgTreeIndex.build(ROWS);
+
+        assertEquals(new OrgTreeIndex.Interval(1, 12), index.interval(1));
+        assertEquals(new OrgTreeIndex.Interval(2, 7), index.interval(2));
+        assertEquals(new OrgTreeIndex.Interval(8, 11), index.interval(3));
+        assertTrue(index.isWithin(2, 5));
+        assertFalse(index.isWithin(2, 6));
+        assertEquals(List.of(2L, 4L, 5L), index.subtreeIds(List.of(2L)).toList());
+        // Adjacent sibling subtrees and nested subtrees merge into one interval
+        assertEquals(List.of(new OrgTreeIndex.Interval(2, 11)),
+                index.intervals(List.of(3L, 2L, 5L)));
+    }
+
+    @Test
+    @DisplayName("增量变更重新编码，环路被拒绝")
+    void testChanges() {
+        OrgTreeIndex index = OrgTreeIndex.build(ROWS)
+                .withChanges(List.of(new OrgNode(6, 2L)), List.of(3L));
+
+        assertTrue(index.isWithin(2, 6));
+        assertFalse(index.contains(3));
+        assertEquals(List.of(2L, 4L, 5L, 6L), index.subtreeIds(List.of(2L)).toList());
+        assertThrows(DesensitizeException.class, () -> OrgTreeIndex.build(
+                List.of(new OrgNode(1, 2L), new OrgNode(2, 1L))));
+    }
+
+    @Test
+    @DisplayName("嵌套的子树只保留最外层的组织")
+    void testOutermost() {
+        OrgTreeIndex index = OrgTreeIndex.build(ROWS);
+
+        assertEquals(List.of(2L, 3L), index.outermost(List.of(6L, 4L, 3L, 2L, 2L, 99L)));
+        assertEquals(List.of(1L), index.outermost(List.of(5L, 1L)));
+        assertEquals(List.of(), index.outermost(List.of(99L)));
+    }
+
+    @Test
+    @DisplayName("策略生成固定大小的区间条件并校验权限")
+    void testStrategy() {
+        List<OrgNode> rows = new ArrayList<>(ROWS);
+        OrgTree tree = new OrgTree(new OrgTreeLoader() {
+            @Override
+            public List<OrgNode> loadAll() {
+                return rows;
+            }
+
+            @Override
+            public Changes loadChanges(Instant since) {
+                return new Changes(List.of(new OrgNode(7, 3L)), List.of());
+            }
+        });
+        OrgTreeDataScopeStrategy strategy = new OrgTreeDataScopeStrategy(tree,
+                OrgTreeDataScopeStrategy.Mode.LFT, "JOIN sys_dept d ON d.id = t.dept_id",
+                "d.lft") {
+            @Override
+            protected Collection<Long> scopeRoots() {
+                return List.of(3L);
+            }
+        };
+
+        ScopePredicate predicate = strategy.predicate();
+        assertEquals("d.lft BETWEEN ? AND ?", predicate.getWhere());
+        assertEquals(List.of(8, 11), predicate.getValues());
+
+        tree.refreshChanges();
+        assertEquals(List.of(8, 13), strategy.predicate().getValues());
+        strategy.validDs(List.of(6L, 7L));
+        assertThrows(DesensitizeException.class, () -> strategy.validDs(List.of(4L)));
+        strategy.validDs(List.of(4L), List.of(4L));
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.interceptor.SqlRewriteInterceptor;
+import io.github.qwzhang01.dsecurity.kit.BoundedCache;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ParameterizedDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import io.github.qwzhang01.dsecurity.support.TestDatabase;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据权限改写缓存测试
+ * 处理器为单例，统计值按前后差值断言
+ */
+@DisplayName("数据权限改写缓存测试")
+class DataScopeProcessorTest {
+
+    private DataSecurityRuntime runtime;
+    private SqlSessionFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                new EncryptFieldTableContainer(), new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        Configuration configuration = TestDatabase.configuration("scope_rewrite_cache",
+                "CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY, owner_id BIGINT)",
+                "MERGE INTO item KEY (id) VALUES (1, 1), (2, 2), (3, 3)");
+        configuration.addMapper(ItemMapper.class);
+        configuration.addInterceptor(new SqlRewriteInterceptor(false, true));
+        factory = TestDatabase.sessionFactory(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataScopeHelper.clear();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("相同语句与条件只改写一次，之后命中缓存")
+    void testLiteralHit() {
+        BoundedCache.Stats before = stats();
+
+        assertEquals(List.of(1L), select(OwnerStrategy.class, 1L));
+        assertEquals(List.of(1L), select(OwnerStrategy.class, 1L));
+
+        BoundedCache.Stats after = stats();
+        assertEquals(1, after.misses() - before.misses());
+        assertEquals(1, after.hits() - before.hits());
+    }
+
+    @Test
+    @DisplayName("字面条件不同则各自改写")
+    void testLiteralMiss() {
+        select(OwnerStrategy.class, 2L);
+        BoundedCache.Stats before = stats();
+
+        assertEquals(List.of(3L), select(OwnerStrategy.class, 3L));
+
+        BoundedCache.Stats after = stats();
+        assertEquals(1, after.misses() - before.misses());
+        assertEquals(0, after.hits() - before.hits());
+    }
+
+    @Test
+    @DisplayName("参数化条件的取值不同也共用一条改写")
+    void testParameterizedHit() {
+        select(BoundOwnerStrategy.class, 1L);
+        BoundedCache.Stats before = stats();
+
+        assertEquals(List.of(2L), select(BoundOwnerStrategy.class, 2L));
+        assertEquals(List.of(3L), select(BoundOwnerStrategy.class, 3L));
+
+        BoundedCache.Stats after = stats();
+        assertEquals(0, after.misses() - before.misses());
+        assertEquals(2, after.hits() - before.hits());
+        assertTrue(after.size() >= 1);
+        assertTrue(after.hitRate() > 0);
+    }
+
+    @Test
+    @DisplayName("未开启数据权限的语句不查询缓存")
+    void testUnscoped() {
+        BoundedCache.Stats before = stats();
+
+        try (SqlSession session = factory.openSession()) {
+            assertEquals(3, session.getMapper(ItemMapper.class).selectIds().size());
+        }
+
+        BoundedCache.Stats after = stats();
+        assertEquals(before.hits(), after.hits());
+        assertEquals(before.misses(), after.misses());
+    }
+
+    @Test
+    @DisplayName("大 IN 列表默认只绑定为参数，小数列不会多匹配")
+    void testInListOnDecimalColumn() {
+        assertEquals(List.of(1L, 3L, 4L), selectInList(DecimalListStrategy.class));
+    }
+
+    @Test
+    @DisplayName("声明整数列的策略把连续 ID 绑定为区间")
+    void testInListRanges() {
+        assertEquals(List.of(1L, 2L, 3L), selectInList(IntegralListStrategy.class));
+        // A range is what makes a wrongly declared decimal column match 1.5
+        assertEquals(List.of(1L, 2L, 3L, 4L), selectInList(MisdeclaredListStrategy.class));
+    }
+
+    /**
+     * Runs a scoped query over {@code amount} values 1, 1.5, 2 and 3 with
+     * the IN-list threshold lowered to 3.
+     */
+    private static List<Long> selectInList(
+            Class<? extends EmptyDataScopeStrategy<Long>> strategy) {
+        Configuration configuration = TestDatabase.configuration("scope_in_list",
+                "CREATE TABLE IF NOT EXISTS ledger (id BIGINT PRIMARY KEY, "
+                        + "amount DECIMAL(10, 1), owner_id BIGINT)",
+                "MERGE INTO ledger KEY (id) VALUES (1, 1, 1), (2, 1.5, 2), (3, 2, 3), (4, 3, 4)");
+        configuration.addMapper(LedgerMapper.class);
+        configuration.addInterceptor(new SqlRewriteInterceptor(false, true));
+        SqlSessionFactory factory = TestDatabase.sessionFactory(configuration);
+        DataScopeProcessor.getInstance().setInListThreshold(3);
+        try (SqlSession session = factory.openSession()) {
+            LedgerMapper mapper = session.getMapper(LedgerMapper.class);
+            return DataScopeHelper.strategy(strategy).execute(mapper::selectIds);
+        } finally {
+            DataScopeProcessor.getInstance().setInListThreshold(
+                    DataScopeProcessor.DEFAULT_IN_LIST_THRESHOLD);
+        }
+    }
+
+    private List<Long> select(Class<? extends EmptyDataScopeStrategy<Long>> strategy,
+                              Long owner) {
+        try (SqlSession session = factory.openSession()) {
+            ItemMapper mapper = session.getMapper(ItemMapper.class);
+            return DataScopeHelper.strategy(strategy).setSearchRight(owner)
+                    .execute(mapper::selectIds);
+        }
+    }
+
+    private static BoundedCache.Stats stats() {
+        return DataScopeProcessor.getInstance().getRewriteCacheStats();
+    }
+
+    public interface ItemMapper {
+        @Select("SELECT id FROM item ORDER BY id")
+        List<Long> selectIds();
+    }
+
+    public interface LedgerMapper {
+        @Select("SELECT id FROM ledger ORDER BY id")
+        List<Long> selectIds();
+    }
+
+    public static class DecimalListStrategy extends EmptyDataScopeStrategy<Long> {
+        @Override
+        public String where() {
+            return "amount IN (1, 2, 3)";
+        }
+    }
+
+    public static class IntegralListStrategy extends EmptyDataScopeStrategy<Long> {
+        @Override
+        public String where() {
+            return "owner_id IN (1, 2, 3)";
+        }
+
+        @Override
+        public boolean integralInLists() {
+            return true;
+        }
+    }
+
+    public static class MisdeclaredListStrategy extends DecimalListStrategy {
+        @Override
+        public boolean integralInLists() {
+            return true;
+        }
+    }
+
+    public static class OwnerStrategy extends EmptyDataScopeStrategy<Long> {
+        @Override
+        public String where() {
+            return "owner_id = " + DataScopeHelper.<Long>getSearchRight().get(0);
+        }
+    }
+
+    public static class BoundOwnerStrategy extends EmptyDataScopeStrategy<Long>
+            implements ParameterizedDataScopeStrategy<Long> {
+        @Override
+        public ScopePredicate predicate() {
+            return ScopePredicate.where("owner_id = ?",
+                    DataScopeHelper.<Long>getSearchRight().get(0));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.interceptor.SqlRewriteInterceptor;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.ColumnDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import io.github.qwzhang01.dsecurity.scope.annotation.DataScope;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.scope.processor.DeclaredScopes.Declaration;
+import io.github.qwzhang01.dsecurity.support.PrefixAlgo;
+import io.github.qwzhang01.dsecurity.support.TestDatabase;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 声明式数据权限测试
+ * 解析 @DataScope 声明，并在 H2 上验证取值的拼接
+ */
+@DisplayName("声明式数据权限测试")
+class DeclaredScopesTest {
+
+    private DataSecurityRuntime runtime;
+    private DeclaredScopes scopes;
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        runtime = new DataSecurityRuntime(new EncryptionAlgoContainer(new PrefixAlgo()),
+                new EncryptFieldTableContainer(), new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        scopes = new DeclaredScopes();
+        configuration = new Configuration();
+    }
+
+    @AfterEach
+    void tearDown() {
+        OwnerStrategy.values = null;
+        DataScopeHelper.clear();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("方法声明优先于接口声明，接口声明不作用于 INSERT")
+    void testMethodOverridesInterface() {
+        assertEquals(new Declaration(OwnerStrategy.class, "owner_id"),
+                scopes.get(statement(ItemMapper.class, "selectScoped", SqlCommandType.SELECT)));
+        assertEquals(new Declaration(OwnerStrategy.class, "item.owner_id"),
+                scopes.get(statement(ItemMapper.class, "selectIds", SqlCommandType.SELECT)));
+        assertSame(Declaration.NONE,
+                scopes.get(statement(ItemMapper.class, "insert", SqlCommandType.INSERT)));
+        assertSame(Declaration.NONE,
+                scopes.get(statement(ItemMapper.class, "selectIds!selectKey",
+                        SqlCommandType.SELECT)));
+        assertSame(Declaration.NONE,
+                scopes.get(statement("xml.only", "find", SqlCommandType.SELECT)));
+    }
+
+    @Test
+    @DisplayName("分页 count 语句沿用原方法的声明")
+    void testCountStatement() {
+        assertEquals(new Declaration(OwnerStrategy.class, "owner_id"),
+                scopes.get(statement(PlainMapper.class, "selectScoped_mpCount",
+                        SqlCommandType.SELECT)));
+    }
+
+    @Test
+    @DisplayName("重载方法声明一致时共用，冲突时报错")
+    void testOverloads() {
+        assertEquals(new Declaration(OwnerStrategy.class, "owner_id"),
+                scopes.get(statement(PlainMapper.class, "find", SqlCommandType.SELECT)));
+
+        MappedStatement conflicting = statement(ConflictMapper.class, "find",
+                SqlCommandType.SELECT);
+        assertThrows(DesensitizeException.class, () -> scopes.get(conflicting));
+    }
+
+    @Test
+    @DisplayName("缺少列名时报错")
+    void testMissingColumn() {
+        MappedStatement statement = statement(ConflictMapper.class, "findAll",
+                SqlCommandType.SELECT);
+
+        assertThrows(DesensitizeException.class, () -> scopes.get(statement));
+    }
+
+    @Test
+    @DisplayName("启动时没有声明，之后注册的语句仍在首次使用时解析")
+    void testStatementRegisteredAfterInit() {
+        scopes.init(configuration);
+        configuration.addMapper(PlainMapper.class);
+
+        MappedStatement statement = configuration.getMappedStatement(
+                PlainMapper.class.getName() + ".selectScoped");
+        assertEquals(new Declaration(OwnerStrategy.class, "owner_id"), scopes.get(statement));
+    }
+
+    @Test
+    @DisplayName("按策略返回的取值过滤，null 不限制，空集合不匹配任何行")
+    void testApplyDeclared() {
+        SqlSessionFactory factory = open("declared_scope");
+        try (SqlSession session = factory.openSession()) {
+            PlainMapper mapper = session.getMapper(PlainMapper.class);
+
+            OwnerStrategy.values = List.of(1L, 3L);
+            assertEquals(List.of(1L, 3L), mapper.selectScoped(0L));
+            assertEquals(List.of(3L), mapper.selectScoped(1L));
+            assertEquals(2L, mapper.selectScoped_mpCount(0L));
+            session.clearCache();
+
+            OwnerStrategy.values = List.of();
+            assertEquals(List.of(), mapper.selectScoped(0L));
+            assertEquals(0L, mapper.selectScoped_mpCount(0L));
+            session.clearCache();
+
+            OwnerStrategy.values = null;
+            assertEquals(List.of(1L, 2L, 3L), mapper.selectScoped(0L));
+            assertEquals(List.of(1L, 2L, 3L), mapper.selectAll());
+        }
+    }
+
+    private static SqlSessionFactory open(String name) {
+        Configuration configuration = TestDatabase.configuration(name,
+                "CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY, owner_id BIGINT)",
+                "MERGE INTO item KEY (id) VALUES (1, 1), (2, 2), (3, 3)");
+        configuration.addMapper(PlainMapper.class);
+        configuration.addInterceptor(new SqlRewriteInterceptor(false, true));
+        return TestDatabase.sessionFactory(configuration);
+    }
+
+    private MappedStatement statement(Class<?> mapper, String method,
+                                      SqlCommandType commandType) {
+        return statement(mapper.getName(), method, commandType);
+    }
+
+    private MappedStatement statement(String namespace, String method,
+                                      SqlCommandType commandType) {
+        return new MappedStatement.Builder(configuration, namespace + "." + method,
+                new RawSqlSource(configuration, "SELECT 1", Object.class),
+                commandType).build();
+    }
+
+    @DataScope(value = OwnerStrategy.class, column = "item.owner_id")
+    public interface ItemMapper {
+        @DataScope(value = OwnerStrategy.class, column = " owner_id ")
+        List<Long> selectScoped();
+
+        List<Long> selectIds();
+
+        int insert(Long id);
+    }
+
+    public interface PlainMapper {
+        @DataScope(value = OwnerStrategy.class, column = "owner_id")
+        @Select("SELECT id FROM item WHERE id > #{min} ORDER BY id")
+        List<Long> selectScoped(@Param("min") Long min);
+
+        @Select("SELECT COUNT(*) FROM item WHERE id > #{min}")
+        long selectScoped_mpCount(@Param("min") Long min);
+
+        @Select("SELECT id FROM item ORDER BY id")
+        List<Long> selectAll();
+
+        @DataScope(value = OwnerStrategy.class, column = "owner_id")
+        List<Long> find(Long id);
+
+        @DataScope(value = OwnerStrategy.class, column = "owner_id")
+        List<Long> find(String name);
+    }
+
+    public interface ConflictMapper {
+        @DataScope(value = OwnerStrategy.class, column = "owner_id")
+        List<Long> find(Long id);
+
+        @DataScope(value = OwnerStrategy.class, column = "dept_id")
+        List<Long> find(String name);
+
+        @DataScope(value = OwnerStrategy.class, column = " ")
+        List<Long> findAll();
+    }
+
+    public static class OwnerStrategy extends EmptyDataScopeStrategy<Long>
+            implements ColumnDataScopeStrategy<Long> {
+        static volatile Collection<?> values;
+
+        @Override
+        public Collection<?> values() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 大 IN 列表改写测试
+ */
+@DisplayName("大 IN 列表改写测试")
+class InListCompactorTest {
+
+    @Test
+    @DisplayName("连续 ID 改写为区间")
+    void testRanges() {
+        ScopePredicate predicate = InListCompactor.compact(
+                "t.status = 1 AND d.id IN (" + ids(1, 100) + ", 500)", 64, true);
+
+        assertNotNull(predicate);
+        assertEquals("t.status = 1 AND (d.id BETWEEN ? AND ? OR d.id IN (?))",
+                predicate.getWhere());
+        assertEquals(List.of(1L, 100L, 500L), predicate.getValues());
+    }
+
+    @Test
+    @DisplayName("未声明整数列时连续 ID 也只绑定为 IN 列表")
+    void testRangesNotDeclared() {
+        ScopePredicate predicate = InListCompactor.compact(
+                "d.id IN (" + ids(1, 100) + ")", 64, false);
+
+        assertNotNull(predicate);
+        assertFalse(predicate.getWhere().contains("BETWEEN"));
+        assertTrue(predicate.getWhere().startsWith("(d.id IN (?, ?"));
+        assertEquals(100, predicate.getValues().size());
+    }
+
+    @Test
+    @DisplayName("离散 ID 绑定为参数，模板只随数量变化")
+    void testScattered() {
+        List<Long> ids = new ArrayList<>();
+        StringJoiner list = new StringJoiner(",");
+        for (long id = 1; id <= 80; id++) {
+            ids.add(id * 7);
+            list.add(String.valueOf(id * 7));
+        }
+        ScopePredicate predicate = InListCompactor.compact("d.id NOT IN (" + list + ")", 64, true);
+        ScopePredicate shifted = InListCompactor.compact("d.id NOT IN ("
+                + list.toString().replace("7", "9") + ")", 64, true);
+
+        assertNotNull(predicate);
+        assertTrue(predicate.getWhere().startsWith("NOT (d.id IN (?, ?"));
+        assertEquals(ids, predicate.getValues());
+        assertEquals(predicate.getWhere(), shifted.getWhere());
+    }
+
+    @Test
+    @DisplayName("短列表、引号内文本和已有占位符保持不变")
+    void testUntouched() {
+        assertNull(InListCompactor.compact("d.id IN (" + ids(1, 10) + ")", 64, true));
+        assertNull(InListCompactor.compact("t.note = 'd.id IN (" + ids(1, 100) + ")'", 64, true));
+        assertNull(InListCompactor.compact("t.user_id = ? AND d.id IN (" + ids(1, 100) + ")", 64, true));
+    }
+
+    @Test
+    @DisplayName("绑定参数超过上限的列表保持字面量")
+    void testMaxBoundValues() {
+        int max = InListCompactor.MAX_BOUND_VALUES;
+        String atLimit = "d.id IN (" + ids(1, max) + ")";
+        assertEquals(max, InListCompactor.compact(atLimit, 64, false).getValues().size());
+        assertNull(InListCompactor.compact("d.id IN (" + ids(1, max + 1) + ")", 64, false));
+
+        // Consecutive IDs bind as one range, however long the list
+        assertEquals(List.of(1L, 20000L), InListCompactor.compact(
+                "d.id IN (" + ids(1, 20000) + ")", 64, true).getValues());
+
+        ScopePredicate partial = InListCompactor.compact("d.id IN (" + ids(1, 600)
+                + ") OR t.dept_id IN (" + ids(1, 600) + ")", 64, false);
+        assertNotNull(partial);
+        assertEquals(600, partial.getValues().size());
+        assertTrue(partial.getWhere().endsWith("OR t.dept_id IN (" + ids(1, 600) + ")"));
+    }
+
+    @Test
+    @DisplayName("列只是表达式末尾时列表保持字面量")
+    void testExpressionPrefix() {
+        String list = "IN (" + ids(1, 100) + ")";
+        assertNull(InListCompactor.compact("a + c " + list, 64, false));
+        assertNull(InListCompactor.compact("t.a * d.id " + list, 64, false));
+        assertNull(InListCompactor.compact("x.band d.id " + list, 64, false));
+
+        assertTrue(InListCompactor.compact("d.id " + list, 64, false)
+                .getWhere().startsWith("(d.id IN (?"));
+        assertTrue(InListCompactor.compact("(d.id " + list + ")", 64, false)
+                .getWhere().startsWith("((d.id IN (?"));
+        assertTrue(InListCompactor.compact("t.a = 1 and d.id " + list, 64, false)
+                .getWhere().startsWith("t.a = 1 and (d.id IN (?"));
+        assertTrue(InListCompactor.compact("t.a = 1 OR\nd.id " + list, 64, false)
+                .getWhere().startsWith("t.a = 1 OR\n(d.id IN (?"));
+    }
+
+    private static String ids(int from, int to) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = from; i <= to; i++) {
+            joiner.add(String.valueOf(i));
+        }
+        return joiner.toString();
+    }
+}
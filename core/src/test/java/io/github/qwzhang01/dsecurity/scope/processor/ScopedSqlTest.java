@@ -0,0 +1,54 @@
+package io.github.qwzhang01.dsecurity.scope.processor;
+
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.ScopePredicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 参数化数据权限占位符布局测试
+ */
+@DisplayName("参数化数据权限占位符测试")
+class ScopedSqlTest {
+
+    @Test
+    @DisplayName("标记后改写的 SQL 还原为占位符并记录值的位置")
+    void testMarkAndBind() {
+        String[] marked = ScopedSql.mark("LEFT JOIN user_dept ud ON ud.user_id = ?",
+                "ud.role >= ? AND t.name <> '?'");
+        // Simulates the parser placing the join and the where condition
+        String rewritten = "SELECT * FROM t " + marked[0] + " WHERE t.status = ? AND "
+                + marked[1] + " AND t.type = ?";
+
+        ScopedSql scoped = ScopedSql.bind(rewritten, 2);
+
+        assertEquals("SELECT * FROM t LEFT JOIN user_dept ud ON ud.user_id = ? "
+                + "WHERE t.status = ? AND ud.role >= ? AND t.name <> '?' AND t.type = ?",
+                scoped.getSql());
+        assertArrayEquals(new int[]{0, ScopedSql.ORIGINAL, 1, ScopedSql.ORIGINAL},
+                scoped.getLayout());
+        assertEquals(2, scoped.getOriginalCount());
+    }
+
+    @Test
+    @DisplayName("改写丢失占位符时抛出异常")
+    void testLostMarker() {
+        String[] marked = ScopedSql.mark("", "t.owner_id = ?");
+        assertThrows(DesensitizeException.class,
+                () -> ScopedSql.bind("SELECT * FROM t WHERE " + marked[1], 2));
+    }
+
+    @Test
+    @DisplayName("值的数量必须与占位符数量一致")
+    void testPredicateValueCount() {
+        assertThrows(DesensitizeException.class,
+                () -> ScopePredicate.where("t.owner_id = ? AND t.org_id = ?", 1L));
+        assertEquals("t.dept_id IN (?, ?)",
+                ScopePredicate.whereIn("t.dept_id", List.of(1L, 2L)).getWhere());
+        assertEquals("1 = 0", ScopePredicate.whereIn("t.dept_id", List.of()).getWhere());
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.qwzhang01.dsecurity.support;
+
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+
+/**
+ * 可直接读出的测试加密算法：密文为 {@code enc:} 前缀加明文
+ */
+public class PrefixAlgo implements EncryptionAlgo {
+    public static final String PREFIX = "enc:";
+
+    @Override
+    public String encrypt(String value) {
+        return value.startsWith(PREFIX) ? value : PREFIX + value;
+    }
+
+    @Override
+    public String decrypt(String value) {
+        return value.startsWith(PREFIX) ? value.substring(PREFIX.length()) : value;
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.qwzhang01.dsecurity.support;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 集成测试用的 H2 内存库与 MyBatis 配置
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * @param name       库名，每个测试类独立
+     * @param statements 建表及初始化数据语句
+     * @return 连接该库的 MyBatis 配置
+     */
+    public static Configuration configuration(String name, String... statements) {
+        DataSource dataSource = dataSource(name);
+        execute(dataSource, statements);
+        Configuration configuration = new Configuration(
+                new Environment(name, new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        return configuration;
+    }
+
+    public static DataSource dataSource(String name) {
+        return new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:" + name
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    public static SqlSessionFactory sessionFactory(Configuration configuration) {
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    public static void execute(DataSource dataSource, String... statements) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.qwzhang01.dsecurity.aot;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldIndex;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.scope.DataScopeStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Registers the reflection needed for the application types at AOT build
+ * time.
+ *
+ * <p>Entity classes come from the compile-time {@link EncryptFieldIndex} and
+ * from the entity type of every {@link BaseMapper} bean that declares
+ * {@link EncryptField} fields. Each entity and its superclasses get their
+ * declared fields and public methods registered, which is what the
+ * annotation scan, the flat decryptor and the getter/setter access use.
+ * The algorithms named by those fields, and every {@link EncryptionAlgo} and
+ * {@link DataScopeStrategy} bean type, get their constructors registered for
+ * the containers' reflective fallback.</p>
+ *
+ * <p>Strategies that are only referenced in code through
+ * {@code DataScopeHelper.strategy(Class)} cannot be discovered here; declare
+ * them as beans or register them with {@code @ImportRuntimeHints}.</p>
+ *
+ * @author avinzhang
+ */
+public class DataSecurityBeanFactoryAotProcessor implements BeanFactoryInitializationAotProcessor {
+    private static final Logger log =
+            LoggerFactory.getLogger(DataSecurityBeanFactoryAotProcessor.class);
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(
+            ConfigurableListableBeanFactory beanFactory) {
+        Set<Class<?>> entities = new LinkedHashSet<>();
+        Set<Class<?>> instantiated = new LinkedHashSet<>();
+        collect(beanFactory, entities, instantiated);
+        if (entities.isEmpty() && instantiated.isEmpty()) {
+            return null;
+        }
+        log.debug("Registering native hints for entities {} and types {}",
+                entities, instantiated);
+        return (generationContext, code) ->
+                registerHints(generationContext.getRuntimeHints(), entities, instantiated);
+    }
+
+    /**
+     * Collects the entity classes and the reflectively instantiated types.
+     *
+     * @param beanFactory  the bean factory being processed
+     * @param entities     receives the {@code @EncryptField} entity classes
+     * @param instantiated receives the algorithm and strategy classes
+     */
+    void collect(ConfigurableListableBeanFactory beanFactory,
+                 Set<Class<?>> entities, Set<Class<?>> instantiated) {
+        ClassLoader classLoader = beanFactory.getBeanClassLoader() != null
+                ? beanFactory.getBeanClassLoader()
+                : ClassUtils.getDefaultClassLoader();
+
+        for (EncryptFieldIndex.IndexedClass indexed : EncryptFieldIndex.getInstance().classes()) {
+            Class<?> clazz = resolve(indexed.getClassName(), classLoader);
+            if (clazz != null) {
+                entities.add(clazz);
+            }
+        }
+
+        for (String name : beanFactory.getBeanNamesForType(BaseMapper.class, true, false)) {
+            Class<?> mapperType = beanFactory.getType(name, false);
+            if (mapperType == null) {
+                continue;
+            }
+            Class<?> entity = ResolvableType.forClass(mapperType)
+                    .as(BaseMapper.class).resolveGeneric(0);
+            if (entity != null && hasEncryptField(entity)) {
+                entities.add(entity);
+            }
+        }
+
+        for (Class<?> entity : entities) {
+            for (Class<?> c = entity; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    EncryptField encryptField = field.getAnnotation(EncryptField.class);
+                    if (encryptField != null && encryptField.value() != EncryptionAlgo.class) {
+                        instantiated.add(encryptField.value());
+                    }
+                }
+            }
+        }
+
+        for (Class<?> type : new Class<?>[]{EncryptionAlgo.class, DataScopeStrategy.class}) {
+            for (String name : beanFactory.getBeanNamesForType(type, true, false)) {
+                Class<?> beanType = beanFactory.getType(name, false);
+                if (beanType != null && !beanType.isInterface()) {
+                    instantiated.add(ClassUtils.getUserClass(beanType));
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the hints of the collected types.
+     */
+    static void registerHints(RuntimeHints hints, Set<Class<?>> entities,
+                              Set<Class<?>> instantiated) {
+        for (Class<?> entity : entities) {
+            for (Class<?> c = entity; c != null && c != Object.class; c = c.getSuperclass()) {
+                hints.reflection().registerType(c,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+        }
+        for (Class<?> type : instantiated) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+    }
+
+    private static boolean hasEncryptField(Class<?> entity) {
+        for (Class<?> c = entity; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(EncryptField.class)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> resolve(String className, ClassLoader classLoader) {
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.warn("Indexed class {} not found, skipping its native hints", className);
+            return null;
+        }
+    }
+}
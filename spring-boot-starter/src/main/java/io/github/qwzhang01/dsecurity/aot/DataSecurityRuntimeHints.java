@@ -0,0 +1,88 @@
+package io.github.qwzhang01.dsecurity.aot;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractLambdaWrapper;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import io.github.qwzhang01.dsecurity.apt.EncryptFieldIndexProcessor;
+import io.github.qwzhang01.dsecurity.domain.Encrypt;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.type.handler.EncryptTypeHandler;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Static native-image hints of the library itself.
+ *
+ * <p>Covers the reflection that does not depend on the application:
+ * the {@code BoundSql.sql} field rewritten by
+ * {@link io.github.qwzhang01.dsecurity.kit.BoundSqlHelper}, the wrapper
+ * members read for QueryWrapper parameters, the default algorithm and
+ * strategy instantiated by their containers, the {@link Encrypt} type
+ * handler, the JDK proxies created by the interceptors, and the
+ * compile-time field index and version resources.</p>
+ *
+ * <p>Application types, i.e. {@code @EncryptField} entities and their
+ * algorithms and strategy beans, are registered by
+ * {@link DataSecurityBeanFactoryAotProcessor}.</p>
+ *
+ * @author avinzhang
+ */
+public class DataSecurityRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Wrapper types walked by {@code QueryWrapperAccessor}; the member lookup
+     * goes through each class of the hierarchy.
+     */
+    private static final List<Class<?>> WRAPPER_TYPES = List.of(
+            QueryWrapper.class, LambdaQueryWrapper.class, UpdateWrapper.class,
+            LambdaUpdateWrapper.class, AbstractLambdaWrapper.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(BoundSql.class,
+                type -> type.withField("sql").withField("parameterMappings"));
+
+        hints.reflection().registerType(AbstractWrapper.class, type -> type
+                .withField("paramNameValuePairs")
+                .withMethod("getParamNameValuePairs", List.of(), ExecutableMode.INVOKE)
+                .withMethod("getSqlSegment", List.of(), ExecutableMode.INVOKE)
+                .withMethod("getCustomSqlSegment", List.of(), ExecutableMode.INVOKE));
+        for (Class<?> wrapperType : WRAPPER_TYPES) {
+            hints.reflection().registerType(wrapperType);
+        }
+
+        hints.reflection().registerType(DefaultEncryptionAlgo.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(EmptyDataScopeStrategy.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(EncryptTypeHandler.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(Encrypt.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Plugin.wrap resolves the @Signature methods and proxies the target
+        for (Class<?> pluggable : List.of(Executor.class,
+                StatementHandler.class, ResultSetHandler.class)) {
+            hints.reflection().registerType(pluggable,
+                    MemberCategory.INTROSPECT_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(pluggable);
+        }
+
+        hints.resources().registerPattern(EncryptFieldIndexProcessor.INDEX_RESOURCE);
+        hints.resources().registerPattern(
+                "META-INF/maven/io.github.qwzhang01/*/pom.properties");
+    }
+}
@@ -0,0 +1,333 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import io.github.qwzhang01.dsecurity.scope.processor.DataScopeProcessor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties under {@code seven.security}.
+ *
+ * <p>The feature toggles decide which interceptors are registered on each
+ * {@code SqlSessionFactory}; a disabled feature adds no plugin proxy at
+ * all. Entries of {@link #getDatasources()} are keyed by the bean name of
+ * the {@code SqlSessionFactory} and override the global toggles for it.</p>
+ *
+ * <pre>
+ * seven:
+ *   security:
+ *     encrypt.enabled: true
+ *     data-scope.enabled: false
+ *     data-scope.in-list-threshold: 64
+ *     data-scope.condition-cache.ttl: 5m
+ *     sql-print.enabled: false
+ *     datasources:
+ *       reportSqlSessionFactory:
+ *         data-scope.enabled: true
+ * </pre>
+ *
+ * @author avinzhang
+ */
+@ConfigurationProperties(prefix = "seven.security")
+public class DataSecurityProperties {
+
+    /**
+     * Parameter encryption and result decryption.
+     */
+    private Toggle encrypt = new Toggle(true);
+    /**
+     * Data scope conditions.
+     */
+    private DataScope dataScope = new DataScope();
+    /**
+     * SQL printing. Unset means enabled unless the first active profile is
+     * a production profile.
+     */
+    private Toggle sqlPrint = new Toggle(null);
+    /**
+     * Overrides by SqlSessionFactory bean name.
+     */
+    private Map<String, Overrides> datasources = new LinkedHashMap<>();
+    private Interceptor interceptor = new Interceptor();
+    private Warmup warmup = new Warmup();
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Resolves the features of one SqlSessionFactory.
+     *
+     * @param factoryName          the bean name of the SqlSessionFactory
+     * @param printEnvironment     whether the active profile allows SQL
+     *                             printing, used when it is not configured
+     * @return the enabled features
+     */
+    public Features resolve(String factoryName, boolean printEnvironment) {
+        Overrides overrides = datasources.get(factoryName);
+        Boolean print = pick(overrides == null ? null : overrides.getSqlPrint(), sqlPrint);
+        return new Features(
+                Boolean.TRUE.equals(pick(overrides == null ? null : overrides.getEncrypt(), encrypt)),
+                Boolean.TRUE.equals(pick(overrides == null ? null : overrides.getDataScope(), dataScope)),
+                print == null ? printEnvironment : print);
+    }
+
+    private static Boolean pick(Toggle override, Toggle global) {
+        if (override != null && override.getEnabled() != null) {
+            return override.getEnabled();
+        }
+        return global.getEnabled();
+    }
+
+    public Toggle getEncrypt() {
+        return encrypt;
+    }
+
+    public void setEncrypt(Toggle encrypt) {
+        this.encrypt = encrypt;
+    }
+
+    public DataScope getDataScope() {
+        return dataScope;
+    }
+
+    public void setDataScope(DataScope dataScope) {
+        this.dataScope = dataScope;
+    }
+
+    public Toggle getSqlPrint() {
+        return sqlPrint;
+    }
+
+    public void setSqlPrint(Toggle sqlPrint) {
+        this.sqlPrint = sqlPrint;
+    }
+
+    public Map<String, Overrides> getDatasources() {
+        return datasources;
+    }
+
+    public void setDatasources(Map<String, Overrides> datasources) {
+        this.datasources = datasources;
+    }
+
+    public Interceptor getInterceptor() {
+        return interceptor;
+    }
+
+    public void setInterceptor(Interceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Features enabled on one SqlSessionFactory.
+     *
+     * @param encrypt   parameter encryption and result decryption
+     * @param dataScope data scope conditions
+     * @param sqlPrint  SQL printing
+     */
+    public record Features(boolean encrypt, boolean dataScope, boolean sqlPrint) {
+
+        /**
+         * @return true if at least one interceptor is needed
+         */
+        public boolean any() {
+            return encrypt || dataScope || sqlPrint;
+        }
+    }
+
+    /**
+     * An on/off switch; null means not configured.
+     */
+    public static class Toggle {
+        private Boolean enabled;
+
+        public Toggle() {
+        }
+
+        public Toggle(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Data scope switch and rewrite settings.
+     */
+    public static class DataScope extends Toggle {
+        /**
+         * Number of IDs from which a literal IN list of a condition is bound
+         * as parameters; 0, the default, turns it off so existing literal
+         * conditions keep their SQL. Lists that would bind more than 1000
+         * values per condition stay literal.
+         */
+        private int inListThreshold = DataScopeProcessor.DEFAULT_IN_LIST_THRESHOLD;
+        private ConditionCache conditionCache = new ConditionCache();
+
+        public DataScope() {
+            super(true);
+        }
+
+        public ConditionCache getConditionCache() {
+            return conditionCache;
+        }
+
+        public void setConditionCache(ConditionCache conditionCache) {
+            this.conditionCache = conditionCache;
+        }
+
+        public int getInListThreshold() {
+            return inListThreshold;
+        }
+
+        public void setInListThreshold(int inListThreshold) {
+            this.inListThreshold = inListThreshold;
+        }
+    }
+
+    /**
+     * Cache of the conditions of {@code CacheableDataScopeStrategy}
+     * implementations per principal.
+     */
+    public static class ConditionCache {
+        /**
+         * Maximum number of cached conditions.
+         */
+        private int maxSize = DataScopeStrategyContainer.DEFAULT_CONDITION_CACHE_SIZE;
+        /**
+         * How long a cached condition is used; zero turns caching off.
+         */
+        private Duration ttl = DataScopeStrategyContainer.DEFAULT_CONDITION_TTL;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Per-SqlSessionFactory overrides; unset toggles inherit the global
+     * value.
+     */
+    public static class Overrides {
+        private Toggle encrypt;
+        private Toggle dataScope;
+        private Toggle sqlPrint;
+
+        public Toggle getEncrypt() {
+            return encrypt;
+        }
+
+        public void setEncrypt(Toggle encrypt) {
+            this.encrypt = encrypt;
+        }
+
+        public Toggle getDataScope() {
+            return dataScope;
+        }
+
+        public void setDataScope(Toggle dataScope) {
+            this.dataScope = dataScope;
+        }
+
+        public Toggle getSqlPrint() {
+            return sqlPrint;
+        }
+
+        public void setSqlPrint(Toggle sqlPrint) {
+            this.sqlPrint = sqlPrint;
+        }
+    }
+
+    public static class Interceptor {
+        /**
+         * Register one fused interceptor instead of separate ones.
+         */
+        private boolean fused = false;
+
+        public boolean isFused() {
+            return fused;
+        }
+
+        public void setFused(boolean fused) {
+            this.fused = fused;
+        }
+    }
+
+    public static class Warmup {
+        /**
+         * Warm up before the application reports readiness.
+         */
+        private boolean enabled = false;
+        /**
+         * Encrypt/decrypt rounds per algorithm; 0 only instantiates the
+         * algorithms.
+         */
+        private int iterations = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+    }
+
+    public static class Snapshot {
+        /**
+         * SQL analysis snapshot file; unset disables the snapshot.
+         */
+        private String path;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 avinzhang
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ *  all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.reactive.ReactiveDecryptor;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.kit.SpringContextUtil;
+import io.github.qwzhang01.dsecurity.scope.DataScopeInvalidationEvent;
+import io.github.qwzhang01.dsecurity.scope.DataScopeInvalidationListener;
+import io.github.qwzhang01.dsecurity.scope.DataScopePropagation;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+import java.nio.file.Path;
+
+/**
+ * Auto-configuration class for data masking and encryption functionality.
+ *
+ * <p>This configuration class automatically registers default implementations
+ * of masking and encryption algorithms when no custom implementations are
+ * provided.
+ * It follows Spring Boot's auto-configuration pattern to provide sensible
+ * defaults
+ * while allowing for easy customization.</p>
+ *
+ * <p>The configuration includes:</p>
+ * <ul>
+ *   <li>Default data masking algorithm for sensitive data protection</li>
+ *   <li>Default encryption algorithm for data encryption/decryption</li>
+ *   <li>Spring context utility for accessing beans in non-Spring managed
+ *   classes</li>
+ * </ul>
+ *
+ * <p>MyBatis interceptors are configured separately in
+ * {@link MyBatisInterceptorAutoConfig}
+ * to avoid circular dependency issues.</p>
+ *
+ * @author avinzhang
+ * @see EncryptionAlgo
+ * @see SpringContextUtil
+ * @see MyBatisInterceptorAutoConfig
+ * @since 1.0.0
+ */
+@Configuration
+public class MaskAutoConfig {
+    /**
+     * Provides a default encryption algorithm bean.
+     * This bean is only created if no other EncryptionAlgo implementation is
+     * found in the context.
+     *
+     * @return a new instance of DefaultEncryptionAlgo using DES encryption
+     */
+    @Bean
+    @ConditionalOnMissingBean(DefaultEncryptionAlgo.class)
+    public DefaultEncryptionAlgo defaultEncryptionAlgo() {
+        return new DefaultEncryptionAlgo();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AbstractEncryptAlgoContainer.class)
+    public AbstractEncryptAlgoContainer encryptAlgoContainer(EncryptionAlgo encryptionAlgo) {
+        EncryptionAlgoContainer container = new EncryptionAlgoContainer(encryptionAlgo);
+        container.setBeanLookup(SpringContextUtil.BEAN_LOOKUP);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EncryptFieldTableContainer.class)
+    public EncryptFieldTableContainer encryptFieldTableContainer() {
+        return new EncryptFieldTableContainer();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EncryptHintContainer.class)
+    public EncryptHintContainer encryptHintContainer() {
+        return new EncryptHintContainer();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DataScopeStrategyContainer.class)
+    public DataScopeStrategyContainer dataScopeStrategyContainer(DataSecurityProperties properties) {
+        DataScopeStrategyContainer container = new DataScopeStrategyContainer();
+        container.setBeanLookup(SpringContextUtil.BEAN_LOOKUP);
+        DataSecurityProperties.ConditionCache conditionCache =
+                properties.getDataScope().getConditionCache();
+        container.configureConditionCache(conditionCache.getMaxSize(),
+                conditionCache.getTtl());
+        return container;
+    }
+
+    /**
+     * Evicts cached data scope conditions on
+     * {@link DataScopeInvalidationEvent}s.
+     */
+    @Bean
+    @ConditionalOnMissingBean(DataScopeInvalidationListener.class)
+    public DataScopeInvalidationListener dataScopeInvalidationListener(
+            DataScopeStrategyContainer strategyContainer) {
+        return new DataScopeInvalidationListener(strategyContainer);
+    }
+
+    /**
+     * Decrypts streamed rows, e.g. MyBatis cursors served through WebFlux.
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean(ReactiveDecryptor.class)
+    public ReactiveDecryptor reactiveDecryptor() {
+        return ReactiveDecryptor.create();
+    }
+
+    /**
+     * Decorates the task executors built by Spring Boot, including the one
+     * behind {@code @Async}, so their work keeps the caller's data scope
+     * context. The application's {@link TaskDecorator} bean, which Spring
+     * Boot applies when it is unique, is composed rather than replaced: it
+     * decorates the task first and the result runs with the context.
+     */
+    @Bean
+    public TaskExecutorCustomizer dataScopeTaskExecutorCustomizer(
+            ObjectProvider<TaskDecorator> taskDecorator) {
+        return executor -> {
+            TaskDecorator decorator = taskDecorator.getIfUnique();
+            executor.setTaskDecorator(decorator == null ? DataScopePropagation::wrap
+                    : task -> DataScopePropagation.wrap(decorator.decorate(task)));
+        };
+    }
+
+    /**
+     * Carries SQL analyses over restarts through a snapshot file. Enabled
+     * with {@value SqlAnalysisSnapshotLifecycle#PATH_PROPERTY}.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SqlAnalysisSnapshotLifecycle.class)
+    @ConditionalOnProperty(name = SqlAnalysisSnapshotLifecycle.PATH_PROPERTY)
+    public SqlAnalysisSnapshotLifecycle sqlAnalysisSnapshotLifecycle(Environment environment) {
+        return new SqlAnalysisSnapshotLifecycle(Path.of(environment.getRequiredProperty(
+                SqlAnalysisSnapshotLifecycle.PATH_PROPERTY)));
+    }
+
+    /**
+     * Installs the containers as the current {@link DataSecurityRuntime}, so
+     * interceptors no longer resolve them from the context per call.
+     */
+    @Bean(destroyMethod = "uninstall")
+    @ConditionalOnMissingBean(DataSecurityRuntime.class)
+    public DataSecurityRuntime dataSecurityRuntime(AbstractEncryptAlgoContainer algoContainer,
+                                                   EncryptFieldTableContainer fieldTableContainer,
+                                                   EncryptHintContainer hintContainer,
+                                                   DataScopeStrategyContainer strategyContainer) {
+        DataSecurityRuntime runtime = new DataSecurityRuntime(algoContainer,
+                fieldTableContainer, hintContainer, strategyContainer);
+        DataSecurityRuntime.install(runtime);
+        return runtime;
+    }
+
+    /**
+     * Provides a Spring context utility bean for accessing Spring-managed beans
+     * from non-Spring managed classes.
+     * This bean is only created if no other SpringContextUtil implementation
+     * is found in the context.
+     *
+     * @return a new instance of SpringContextUtil for bean access operations
+     */
+    @Bean
+    @ConditionalOnMissingBean(SpringContextUtil.class)
+    public SpringContextUtil springContextUtil() {
+        return new SpringContextUtil();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 avinzhang
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ *  all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package io.github.qwzhang01.dsecurity.config;
+
+import com.baomidou.mybatisplus.autoconfigure.MybatisPlusAutoConfiguration;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import io.github.qwzhang01.dsecurity.domain.Encrypt;
+import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.type.handler.EncryptTypeHandler;
+import io.github.qwzhang01.dsecurity.interceptor.DecryptInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.FusedSecurityInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.SqlPrintInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.SqlRewriteInterceptor;
+import io.github.qwzhang01.dsecurity.scope.processor.DataScopeProcessor;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Auto-configuration for MyBatis interceptors.
+ *
+ * <p>This configuration class is responsible for registering MyBatis
+ * interceptors
+ * after the MyBatis auto-configuration is complete. It's separated from the
+ * main
+ * configuration to avoid circular dependency issues.</p>
+ *
+ * <p>The configuration runs after MybatisAutoConfiguration to ensure that
+ * SqlSessionFactory is fully initialized before adding interceptors.</p>
+ *
+ * @author avinzhang
+ * @since 1.0.0
+ */
+@Configuration
+@ConditionalOnClass({SqlSessionFactory.class})
+@AutoConfigureAfter(MybatisPlusAutoConfiguration.class)
+@EnableConfigurationProperties(DataSecurityProperties.class)
+public class MyBatisInterceptorAutoConfig {
+    private static final Logger log =
+            LoggerFactory.getLogger(MyBatisInterceptorAutoConfig.class);
+
+    /**
+     * Enables {@link FusedSecurityInterceptor} in place of the separate
+     * rewrite, decrypt and print interceptors.
+     */
+    public static final String FUSED_INTERCEPTOR_PROPERTY =
+            "seven.security.interceptor.fused";
+
+    /**
+     * SqlSessionFactory beans by bean name.
+     */
+    @Autowired(required = false)
+    private Map<String, SqlSessionFactory> sqlSessionFactories;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private DataSecurityProperties properties;
+
+    @Bean
+    @ConditionalOnMissingBean(MybatisPlusInterceptor.class)
+    @Order(20)
+    public MybatisPlusInterceptor paginationInterceptor() {
+        return new MybatisPlusInterceptor();
+    }
+
+    /**
+     * Resolves {@code @EncryptHint} bindings once all singletons, including
+     * the mapper beans that register their statements, are created.
+     */
+    @Bean
+    public SmartInitializingSingleton encryptHintInitializer(EncryptHintContainer encryptHintContainer) {
+        return () -> {
+            if (sqlSessionFactories != null) {
+                for (SqlSessionFactory sqlSessionFactory : sqlSessionFactories.values()) {
+                    encryptHintContainer.init(sqlSessionFactory.getConfiguration());
+                }
+            }
+        };
+    }
+
+    /**
+     * Resolves {@code @DataScope} declarations and precompiles their
+     * templates once the mapper beans have registered their statements.
+     */
+    @Bean
+    public SmartInitializingSingleton dataScopeInitializer() {
+        return () -> {
+            if (sqlSessionFactories != null) {
+                for (SqlSessionFactory sqlSessionFactory : sqlSessionFactories.values()) {
+                    DataScopeProcessor.getInstance().init(sqlSessionFactory.getConfiguration());
+                }
+            }
+        };
+    }
+
+    /**
+     * Warms up algorithms, statement plans and decryptors before the
+     * application reports readiness. Enabled with
+     * {@value SecurityWarmup#ENABLED_PROPERTY}.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SecurityWarmup.class)
+    @ConditionalOnProperty(name = SecurityWarmup.ENABLED_PROPERTY, havingValue = "true")
+    public SecurityWarmup securityWarmup(EncryptFieldTableContainer fieldTableContainer,
+                                         AbstractEncryptAlgoContainer algoContainer) {
+        return new SecurityWarmup(sqlSessionFactories == null ? null
+                : new ArrayList<>(sqlSessionFactories.values()),
+                fieldTableContainer, algoContainer,
+                properties.getWarmup().getIterations());
+    }
+
+    /**
+     * Adds desensitization interceptors to all available SqlSessionFactory
+     * instances.
+     * This method is called after the Spring context is fully initialized,
+     * ensuring no circular dependency issues.
+     *
+     * <p>Only the interceptors of features enabled for a factory are added,
+     * see {@link DataSecurityProperties}; a disabled feature leaves no
+     * plugin proxy in its chain.</p>
+     *
+     * <p>The interceptors are added once the factory is built, after the
+     * {@link MybatisPlusInterceptor} beans, so they wrap it. SQL is
+     * therefore rewritten after its executor-level inner interceptors
+     * (pagination, tenant line and data permission on queries) and before
+     * its prepare-level ones (tenant line and data permission on
+     * INSERT/UPDATE/DELETE, block attack). Earlier versions added the rewrite
+     * interceptor from a {@code ConfigurationCustomizer}, so it ran
+     * inside {@link MybatisPlusInterceptor}.</p>
+     */
+    @PostConstruct
+    public void addInterceptors() {
+        DataScopeProcessor.getInstance().setInListThreshold(
+                properties.getDataScope().getInListThreshold());
+        if (sqlSessionFactories != null && !sqlSessionFactories.isEmpty()) {
+            boolean printEnvironment = isPrintEnvironment();
+            for (Map.Entry<String, SqlSessionFactory> entry : sqlSessionFactories.entrySet()) {
+                org.apache.ibatis.session.Configuration configuration =
+                        entry.getValue().getConfiguration();
+                configuration.getTypeHandlerRegistry().register(Encrypt.class
+                        , EncryptTypeHandler.class);
+                DataSecurityProperties.Features features =
+                        properties.resolve(entry.getKey(), printEnvironment);
+                log.debug("Data security features of {}: {}", entry.getKey(), features);
+                if (!features.any()) {
+                    continue;
+                }
+                if (properties.getInterceptor().isFused()) {
+                    configuration.addInterceptor(new FusedSecurityInterceptor(
+                            features.encrypt(), features.dataScope(),
+                            features.sqlPrint()));
+                    continue;
+                }
+                if (features.encrypt() || features.dataScope()) {
+                    configuration.addInterceptor(new SqlRewriteInterceptor(
+                            features.encrypt(), features.dataScope()));
+                }
+                if (features.encrypt()) {
+                    configuration.addInterceptor(new DecryptInterceptor());
+                }
+                if (features.sqlPrint()) {
+                    configuration.addInterceptor(new SqlPrintInterceptor(true));
+                }
+            }
+        }
+    }
+
+    /**
+     * Default of {@code seven.security.sql-print.enabled}, evaluated once:
+     * SQL is only printed when the first active profile is not a production
+     * profile.
+     */
+    private boolean isPrintEnvironment() {
+        String[] activeProfiles = environment.getActiveProfiles();
+        return activeProfiles.length > 0 && !activeProfiles[0].contains("prod");
+    }
+}
\ No newline at end of file
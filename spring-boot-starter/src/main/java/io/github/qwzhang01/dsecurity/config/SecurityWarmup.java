@@ -0,0 +1,177 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import io.github.qwzhang01.dsecurity.domain.SqlAnalysis;
+import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.processor.DecryptProcessor;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.ParamUtil;
+import io.github.qwzhang01.dsecurity.kit.SqlAnalysisStore;
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in warm-up run when the application is ready.
+ *
+ * <p>Initializes the encrypted-column registry, instantiates every
+ * referenced {@link EncryptionAlgo} and runs it through a number of
+ * encrypt/decrypt rounds, precomputes the plans of all static mapped
+ * statements and resolves the decryptors of entity classes. The tasks run in
+ * parallel, but the listener waits for all of them: Spring Boot publishes
+ * the {@code ACCEPTING_TRAFFIC} readiness state after the
+ * {@link ApplicationReadyEvent} listeners return, so readiness probes pass
+ * only once warm-up is done.</p>
+ *
+ * <p>A failing task is logged and never aborts startup.</p>
+ *
+ * @author avinzhang
+ */
+public class SecurityWarmup implements ApplicationListener<ApplicationReadyEvent> {
+    /**
+     * Enables the warm-up.
+     */
+    public static final String ENABLED_PROPERTY = "seven.security.warmup.enabled";
+    /**
+     * Encrypt/decrypt rounds per algorithm, 200 by default; 0 only
+     * instantiates the algorithms.
+     */
+    public static final String ITERATIONS_PROPERTY = "seven.security.warmup.iterations";
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityWarmup.class);
+    private static final String SAMPLE = "13800138000";
+
+    private final List<SqlSessionFactory> sqlSessionFactories;
+    private final EncryptFieldTableContainer fieldTableContainer;
+    private final AbstractEncryptAlgoContainer algoContainer;
+    private final int iterations;
+
+    /**
+     * @param sqlSessionFactories the factories whose static statements are
+     *                            prepared, may be null
+     * @param fieldTableContainer the encrypted-column registry
+     * @param algoContainer       the algorithm container
+     * @param iterations          encrypt/decrypt rounds per algorithm,
+     *                            negative values count as 0
+     */
+    public SecurityWarmup(List<SqlSessionFactory> sqlSessionFactories,
+                          EncryptFieldTableContainer fieldTableContainer,
+                          AbstractEncryptAlgoContainer algoContainer,
+                          int iterations) {
+        this.sqlSessionFactories = sqlSessionFactories == null
+                ? Collections.emptyList() : sqlSessionFactories;
+        this.fieldTableContainer = fieldTableContainer;
+        this.algoContainer = algoContainer;
+        this.iterations = Math.max(0, iterations);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long start = System.nanoTime();
+        fieldTableContainer.init();
+
+        List<Runnable> tasks = new ArrayList<>();
+        Set<Class<? extends EncryptionAlgo>> algos = new LinkedHashSet<>();
+        algos.add(algoContainer.getAlgo().getClass());
+        for (EncryptFieldTableContainer.EncryptColumn column : fieldTableContainer.getColumns()) {
+            if (column.getAlgo() != null) {
+                algos.add(column.getAlgo());
+            }
+        }
+        for (Class<? extends EncryptionAlgo> algo : algos) {
+            tasks.add(() -> exerciseAlgo(algo));
+        }
+        List<MappedStatement> statements = staticStatements();
+        for (MappedStatement statement : statements) {
+            tasks.add(() -> prepareStatement(statement));
+        }
+        tasks.add(this::prepareDecryptors);
+
+        int threads = Math.min(tasks.size(),
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "data-security-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture.allOf(tasks.stream()
+                    .map(task -> CompletableFuture.runAsync(guarded(task), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("Data security warm-up completed in {} ms: {} algorithms, {} " +
+                        "static statements",
+                (System.nanoTime() - start) / 1_000_000, algos.size(),
+                statements.size());
+    }
+
+    private static Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("Data security warm-up task failed: {}", e.getMessage(), e);
+            }
+        };
+    }
+
+    private void exerciseAlgo(Class<? extends EncryptionAlgo> algoClass) {
+        EncryptionAlgo algo = algoContainer.getAlgo(algoClass);
+        for (int i = 0; i < iterations; i++) {
+            algo.decrypt(algo.encrypt(SAMPLE + i));
+        }
+        algo.encryptBatch(List.of(SAMPLE));
+    }
+
+    /**
+     * Statements whose SQL does not depend on the parameter; dynamic and
+     * provider SQL is only known at execution time.
+     */
+    private List<MappedStatement> staticStatements() {
+        Set<MappedStatement> statements =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SqlSessionFactory sqlSessionFactory : sqlSessionFactories) {
+            // StrictMap values may contain ambiguity markers for short names
+            for (Object statement : new ArrayList<Object>(
+                    sqlSessionFactory.getConfiguration().getMappedStatements())) {
+                if (statement instanceof MappedStatement mappedStatement
+                        && !(mappedStatement.getSqlSource() instanceof DynamicSqlSource)
+                        && !(mappedStatement.getSqlSource() instanceof ProviderSqlSource)) {
+                    statements.add(mappedStatement);
+                }
+            }
+        }
+        return new ArrayList<>(statements);
+    }
+
+    private void prepareStatement(MappedStatement statement) {
+        String sql = statement.getSqlSource().getBoundSql(null).getSql();
+        if (!fieldTableContainer.mayReferenceEncryptedTable(sql)) {
+            return;
+        }
+        SqlAnalysis analysis = SqlAnalysisStore.getInstance().analyze(sql);
+        ParamUtil.prepareStatementPlan(sql, analysis);
+    }
+
+    private void prepareDecryptors() {
+        DecryptProcessor decryptProcessor = DecryptProcessor.getInstance();
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            decryptProcessor.prepare(tableInfo.getEntityType());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.kit.SqlAnalysisStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Loads the {@link SqlAnalysisStore} snapshot when the context starts and
+ * writes it back when the context closes. Enabled by setting
+ * {@value #PATH_PROPERTY}.
+ *
+ * @author avinzhang
+ */
+public class SqlAnalysisSnapshotLifecycle implements InitializingBean, DisposableBean {
+    /**
+     * Location of the snapshot file.
+     */
+    public static final String PATH_PROPERTY = "seven.security.snapshot.path";
+
+    private static final Logger log =
+            LoggerFactory.getLogger(SqlAnalysisSnapshotLifecycle.class);
+
+    private final Path file;
+
+    public SqlAnalysisSnapshotLifecycle(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        SqlAnalysisStore.getInstance().load(file);
+    }
+
+    /**
+     * Writes the snapshot now, for example from an admin endpoint.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void save() throws IOException {
+        SqlAnalysisStore.getInstance().save(file);
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            save();
+        } catch (IOException e) {
+            log.warn("Failed to save SQL analysis snapshot {}: {}", file,
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.qwzhang01.dsecurity.encrypt.reactive;
+
+import io.github.qwzhang01.dsecurity.encrypt.processor.DecryptProcessor;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Decrypts {@code @EncryptField} values of streamed entities.
+ *
+ * <p>Elements are grouped into batches of {@code batchSize}; up to
+ * {@code concurrency} batches are decrypted at a time on the scheduler and
+ * emitted in source order. Demand propagates to the source, so at most
+ * {@code concurrency * batchSize} elements are held at once and a large
+ * result is never buffered as a whole. Batches go through
+ * {@link DecryptProcessor#decryptList(List)}, so the per-class decryptors
+ * are the ones the result interceptor uses.</p>
+ *
+ * <p>Entities returned by regular mapper queries are already decrypted by
+ * the interceptor; use this for rows that bypass it, such as MyBatis
+ * {@link Cursor} results.</p>
+ *
+ * <pre>
+ * Flux&lt;User&gt; users = reactiveDecryptor.decrypt(ReactiveDecryptor.fromCursor(
+ *         sqlSessionFactory, session -&gt; session.getMapper(UserMapper.class).streamAll()));
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public class ReactiveDecryptor implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveDecryptor.class);
+    /**
+     * Elements per batch of {@link #create()}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Scheduler scheduler;
+    private final boolean ownsScheduler;
+    private final int concurrency;
+    private final int batchSize;
+
+    /**
+     * Creates a decryptor on a scheduler it does not own.
+     *
+     * @param scheduler   the scheduler decryption runs on
+     * @param concurrency the number of batches decrypted at a time
+     * @param batchSize   the number of elements per batch
+     */
+    public ReactiveDecryptor(Scheduler scheduler, int concurrency, int batchSize) {
+        this(scheduler, false, concurrency, batchSize);
+    }
+
+    private ReactiveDecryptor(Scheduler scheduler, boolean ownsScheduler,
+                              int concurrency, int batchSize) {
+        if (concurrency < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("concurrency and batchSize " +
+                    "must be positive");
+        }
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a decryptor with its own parallel scheduler and
+     * {@value #DEFAULT_BATCH_SIZE} elements per batch.
+     *
+     * @return the decryptor
+     */
+    public static ReactiveDecryptor create() {
+        return create(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a decryptor with its own parallel scheduler, one thread per
+     * processor, disposed with {@link #dispose()}.
+     *
+     * @param batchSize the number of elements per batch
+     * @return the decryptor
+     */
+    public static ReactiveDecryptor create(int batchSize) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new ReactiveDecryptor(Schedulers.newParallel("dsecurity-decrypt",
+                threads, true), true, threads, batchSize);
+    }
+
+    /**
+     * Streams the rows of a cursor. The cursor is opened on subscription,
+     * iterated on the bounded elastic scheduler and closed on completion,
+     * error or cancellation.
+     *
+     * @param cursorSupplier opens the cursor
+     * @param <T>            the row type
+     * @return the rows, not decrypted
+     */
+    public static <T> Flux<T> fromCursor(Callable<Cursor<T>> cursorSupplier) {
+        return Flux.using(cursorSupplier, Flux::fromIterable,
+                        ReactiveDecryptor::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Streams the rows of a cursor opened in its own session; both are
+     * closed when the stream terminates.
+     *
+     * @param sqlSessionFactory the session factory
+     * @param query             opens the cursor from the session
+     * @param <T>               the row type
+     * @return the rows, not decrypted
+     */
+    public static <T> Flux<T> fromCursor(SqlSessionFactory sqlSessionFactory,
+                                         Function<SqlSession, Cursor<T>> query) {
+        return Flux.using(sqlSessionFactory::openSession,
+                        session -> Flux.fromIterable(query.apply(session)),
+                        SqlSession::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Decrypts the elements of a stream, preserving their order.
+     *
+     * @param source the elements
+     * @param <T>    the element type
+     * @return the decrypted elements
+     */
+    public <T> Flux<T> decrypt(Flux<T> source) {
+        return source.buffer(batchSize)
+                .flatMapSequential(batch -> Mono.fromCallable(() -> {
+                    DecryptProcessor.getInstance().decryptList(batch);
+                    return batch;
+                }).subscribeOn(scheduler), concurrency, 1)
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Streams and decrypts the rows of a cursor opened in its own session.
+     *
+     * @see #fromCursor(SqlSessionFactory, Function)
+     */
+    public <T> Flux<T> decrypt(SqlSessionFactory sqlSessionFactory,
+                               Function<SqlSession, Cursor<T>> query) {
+        return decrypt(fromCursor(sqlSessionFactory, query));
+    }
+
+    @Override
+    public void dispose() {
+        if (ownsScheduler) {
+            scheduler.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return scheduler.isDisposed();
+    }
+
+    private static void closeQuietly(Cursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            log.warn("Failed to close cursor", e);
+        }
+    }
+}
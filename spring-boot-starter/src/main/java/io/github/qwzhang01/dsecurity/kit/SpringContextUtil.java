@@ -26,6 +26,11 @@
 
 package io.github.qwzhang01.dsecurity.kit;
 
+import io.github.qwzhang01.dsecurity.encrypt.container.AbstractEncryptAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.exception.DesensitizeException;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -61,6 +66,16 @@ public final class SpringContextUtil implements ApplicationContextAware {
      */
     private static ApplicationContext applicationContext;
 
+    /**
+     * {@link BeanLookup} backed by the application context.
+     */
+    public static final BeanLookup BEAN_LOOKUP = new BeanLookup() {
+        @Override
+        public <T> T getBean(Class<T> type) {
+            return getBeanSafely(type);
+        }
+    };
+
     /**
      * Gets the Spring application context.
      *
@@ -81,6 +96,19 @@ public final class SpringContextUtil implements ApplicationContextAware {
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         SpringContextUtil.applicationContext = applicationContext;
+        // Until the runtime bean is installed, resolve the containers per call
+        DataSecurityRuntime.setFallback(SpringContextUtil::resolveRuntime);
+    }
+
+    private static DataSecurityRuntime resolveRuntime() {
+        if (!isInitialized()) {
+            throw new DesensitizeException("Data security runtime not installed");
+        }
+        return new DataSecurityRuntime(
+                getBean(AbstractEncryptAlgoContainer.class),
+                getBean(EncryptFieldTableContainer.class),
+                getBean(EncryptHintContainer.class),
+                getBean(DataScopeStrategyContainer.class));
     }
 
     /**
@@ -0,0 +1,68 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when permissions change, to evict the cached conditions of
+ * {@link CacheableDataScopeStrategy} implementations in this application
+ * instance.
+ *
+ * <pre>
+ * applicationEventPublisher.publishEvent(
+ *         DataScopeInvalidationEvent.ofPrincipal(this, userId));
+ * </pre>
+ *
+ * @author avinzhang
+ */
+public class DataScopeInvalidationEvent extends ApplicationEvent {
+    private final Object principalKey;
+    private final Class<? extends DataScopeStrategy<?>> strategy;
+
+    private DataScopeInvalidationEvent(Object source, Object principalKey,
+                                       Class<? extends DataScopeStrategy<?>> strategy) {
+        super(source);
+        this.principalKey = principalKey;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @param source       the publisher
+     * @param principalKey the principal whose permissions changed
+     * @return an event evicting the conditions of the principal
+     */
+    public static DataScopeInvalidationEvent ofPrincipal(Object source, Object principalKey) {
+        return new DataScopeInvalidationEvent(source, principalKey, null);
+    }
+
+    /**
+     * @param source   the publisher
+     * @param strategy the strategy whose conditions are outdated
+     * @return an event evicting the conditions of the strategy
+     */
+    public static DataScopeInvalidationEvent ofStrategy(Object source,
+                                                        Class<? extends DataScopeStrategy<?>> strategy) {
+        return new DataScopeInvalidationEvent(source, null, strategy);
+    }
+
+    /**
+     * @param source the publisher
+     * @return an event evicting all cached conditions
+     */
+    public static DataScopeInvalidationEvent ofAll(Object source) {
+        return new DataScopeInvalidationEvent(source, null, null);
+    }
+
+    /**
+     * @return the principal key, or null
+     */
+    public Object getPrincipalKey() {
+        return principalKey;
+    }
+
+    /**
+     * @return the strategy, or null
+     */
+    public Class<? extends DataScopeStrategy<?>> getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.qwzhang01.dsecurity.scope;
+
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Applies {@link DataScopeInvalidationEvent}s to the condition cache of the
+ * strategy container.
+ *
+ * @author avinzhang
+ */
+public class DataScopeInvalidationListener implements ApplicationListener<DataScopeInvalidationEvent> {
+    private final DataScopeStrategyContainer strategyContainer;
+
+    public DataScopeInvalidationListener(DataScopeStrategyContainer strategyContainer) {
+        this.strategyContainer = strategyContainer;
+    }
+
+    @Override
+    public void onApplicationEvent(DataScopeInvalidationEvent event) {
+        if (event.getPrincipalKey() != null) {
+            strategyContainer.invalidate(event.getPrincipalKey());
+        } else if (event.getStrategy() != null) {
+            strategyContainer.invalidate(event.getStrategy());
+        } else {
+            strategyContainer.invalidateAll();
+        }
+    }
+}
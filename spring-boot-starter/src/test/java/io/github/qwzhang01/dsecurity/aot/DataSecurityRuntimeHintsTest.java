@@ -0,0 +1,151 @@
+package io.github.qwzhang01.dsecurity.aot;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 原生镜像运行时提示测试
+ * 在 JVM 上按 AOT 构建流程注册提示，并用 RuntimeHintsPredicates 校验，
+ * 无需安装 GraalVM
+ */
+@DisplayName("AOT 运行时提示测试")
+class DataSecurityRuntimeHintsTest {
+
+    @Test
+    @DisplayName("aot.factories 注册了提示与处理器")
+    void testAotFactories() {
+        SpringFactoriesLoader loader =
+                SpringFactoriesLoader.forResourceLocation("META-INF/spring/aot.factories");
+        List<RuntimeHintsRegistrar> registrars = loader.load(RuntimeHintsRegistrar.class);
+        List<BeanFactoryInitializationAotProcessor> processors =
+                loader.load(BeanFactoryInitializationAotProcessor.class);
+
+        assertTrue(registrars.stream().anyMatch(DataSecurityRuntimeHints.class::isInstance));
+        assertTrue(processors.stream().anyMatch(DataSecurityBeanFactoryAotProcessor.class::isInstance));
+    }
+
+    @Test
+    @DisplayName("静态提示覆盖库自身的反射与代理")
+    void testStaticHints() {
+        RuntimeHints hints = new RuntimeHints();
+        new DataSecurityRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onField(BoundSql.class, "sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(AbstractWrapper.class, "paramNameValuePairs").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(AbstractWrapper.class, "getSqlSegment").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DefaultEncryptionAlgo.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EmptyDataScopeStrategy.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(StatementHandler.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/seven-data-security/encrypt-fields.idx").test(hints));
+    }
+
+    @Test
+    @DisplayName("处理器注册实体、算法与策略的反射")
+    void testApplicationTypes() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("userMapper", new RootBeanDefinition(UserMapper.class));
+        beanFactory.registerBeanDefinition("plainMapper", new RootBeanDefinition(PlainMapper.class));
+        beanFactory.registerBeanDefinition("tenantStrategy",
+                new RootBeanDefinition(TenantStrategy.class));
+
+        Set<Class<?>> entities = new LinkedHashSet<>();
+        Set<Class<?>> instantiated = new LinkedHashSet<>();
+        new DataSecurityBeanFactoryAotProcessor().collect(beanFactory, entities, instantiated);
+
+        assertTrue(entities.contains(User.class));
+        assertFalse(entities.contains(Plain.class), "没有加密字段的实体不需要提示");
+        assertTrue(instantiated.contains(TestAlgo.class));
+        assertTrue(instantiated.contains(TenantStrategy.class));
+
+        RuntimeHints hints = new RuntimeHints();
+        DataSecurityBeanFactoryAotProcessor.registerHints(hints, entities, instantiated);
+
+        assertTrue(RuntimeHintsPredicates.reflection().onField(User.class, "phone").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onField(BaseEntity.class, "id").test(hints),
+                "父类字段也需要注册");
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(User.class, "getPhone").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TestAlgo.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertFalse(RuntimeHintsPredicates.reflection().onType(Plain.class).test(hints));
+    }
+
+    @Test
+    @DisplayName("没有应用类型时不产生贡献")
+    void testNoContribution() {
+        DataSecurityBeanFactoryAotProcessor processor = new DataSecurityBeanFactoryAotProcessor();
+        assertNull(processor.processAheadOfTime(new DefaultListableBeanFactory()));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("userMapper", new RootBeanDefinition(UserMapper.class));
+        assertNotNull(processor.processAheadOfTime(beanFactory));
+    }
+
+    static class BaseEntity {
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    static class User extends BaseEntity {
+        @EncryptField(TestAlgo.class)
+        private String phone;
+
+        public String getPhone() {
+            return phone;
+        }
+    }
+
+    static class Plain {
+        private String name;
+    }
+
+    interface UserMapper extends BaseMapper<User> {
+    }
+
+    interface PlainMapper extends BaseMapper<Plain> {
+    }
+
+    static class TestAlgo implements EncryptionAlgo {
+        @Override
+        public String encrypt(String value) {
+            return value;
+        }
+
+        @Override
+        public String decrypt(String value) {
+            return value;
+        }
+    }
+
+    static class TenantStrategy extends EmptyDataScopeStrategy<Long> {
+    }
+}
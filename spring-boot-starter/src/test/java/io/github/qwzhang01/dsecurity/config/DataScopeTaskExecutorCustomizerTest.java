@@ -0,0 +1,72 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.scope.DataScopeHelper;
+import io.github.qwzhang01.dsecurity.scope.EmptyDataScopeStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 线程池上下文传递测试
+ */
+@DisplayName("TaskExecutorCustomizer 测试")
+class DataScopeTaskExecutorCustomizerTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        DataScopeHelper.clear();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("没有自定义装饰器时传递数据权限上下文")
+    void testPropagation() throws Exception {
+        executor = customize(new DefaultListableBeanFactory());
+        DataScopeHelper.strategy(OrgStrategy.class).setSearchRight(List.of(1L, 2L));
+
+        Object[] seen = executor.submit(() -> new Object[]{DataScopeHelper.isStarted(),
+                DataScopeHelper.getSearchRight()}).get();
+
+        assertEquals(true, seen[0]);
+        assertEquals(List.of(1L, 2L), seen[1]);
+    }
+
+    @Test
+    @DisplayName("应用自定义的装饰器与上下文传递组合生效")
+    void testComposedWithApplicationDecorator() throws Exception {
+        AtomicInteger decorated = new AtomicInteger();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("mdcTaskDecorator", (TaskDecorator) task -> {
+            decorated.incrementAndGet();
+            return task;
+        });
+        executor = customize(beanFactory);
+        DataScopeHelper.strategy(OrgStrategy.class);
+
+        assertTrue(executor.submit(DataScopeHelper::isStarted).get());
+        assertEquals(1, decorated.get());
+    }
+
+    private static ThreadPoolTaskExecutor customize(DefaultListableBeanFactory beanFactory) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        new MaskAutoConfig().dataScopeTaskExecutorCustomizer(
+                beanFactory.getBeanProvider(TaskDecorator.class)).customize(executor);
+        executor.initialize();
+        return executor;
+    }
+
+    static class OrgStrategy extends EmptyDataScopeStrategy<Long> {
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.domain.Encrypt;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.interceptor.DecryptInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.FusedSecurityInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.SqlPrintInterceptor;
+import io.github.qwzhang01.dsecurity.interceptor.SqlRewriteInterceptor;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 拦截器注册与功能开关测试
+ */
+@DisplayName("MyBatisInterceptorAutoConfig 测试")
+class MyBatisInterceptorAutoConfigTest {
+
+    private static final String PRIMARY = "sqlSessionFactory";
+    private static final String REPORT = "reportSqlSessionFactory";
+
+    @Test
+    @DisplayName("默认开启加密与数据权限，无激活环境时不打印 SQL")
+    void testDefaults() {
+        Map<String, Configuration> configurations = start(Map.of());
+
+        for (Configuration configuration : configurations.values()) {
+            assertEquals(List.of(SqlRewriteInterceptor.class, DecryptInterceptor.class),
+                    types(configuration));
+            assertTrue(configuration.getTypeHandlerRegistry().hasTypeHandler(Encrypt.class));
+        }
+    }
+
+    @Test
+    @DisplayName("全局关闭的功能不注册拦截器")
+    void testGlobalToggles() {
+        Map<String, Configuration> configurations = start(Map.of(
+                "seven.security.encrypt.enabled", "false",
+                "seven.security.sql-print.enabled", "true"));
+
+        assertEquals(List.of(SqlRewriteInterceptor.class, SqlPrintInterceptor.class),
+                types(configurations.get(PRIMARY)));
+    }
+
+    @Test
+    @DisplayName("全部关闭时不注册任何拦截器，类型处理器照常注册")
+    void testAllDisabled() {
+        Map<String, Configuration> configurations = start(Map.of(
+                "seven.security.encrypt.enabled", "false",
+                "seven.security.data-scope.enabled", "false"));
+
+        Configuration configuration = configurations.get(PRIMARY);
+        assertTrue(configuration.getInterceptors().isEmpty());
+        assertTrue(configuration.getTypeHandlerRegistry().hasTypeHandler(Encrypt.class));
+    }
+
+    @Test
+    @DisplayName("按 SqlSessionFactory 覆盖全局开关")
+    void testPerFactoryOverrides() {
+        Map<String, Configuration> configurations = start(Map.of(
+                "seven.security.encrypt.enabled", "false",
+                "seven.security.data-scope.enabled", "false",
+                "seven.security.datasources.[" + REPORT + "].data-scope.enabled", "true",
+                "seven.security.datasources.[" + REPORT + "].sql-print.enabled", "true"));
+
+        assertTrue(configurations.get(PRIMARY).getInterceptors().isEmpty());
+        assertEquals(List.of(SqlRewriteInterceptor.class, SqlPrintInterceptor.class),
+                types(configurations.get(REPORT)));
+    }
+
+    @Test
+    @DisplayName("非 prod 环境默认打印 SQL，prod 环境不打印")
+    void testPrintEnvironment() {
+        assertEquals(List.of(SqlRewriteInterceptor.class, DecryptInterceptor.class,
+                        SqlPrintInterceptor.class),
+                types(start(Map.of(), "dev").get(PRIMARY)));
+        assertEquals(List.of(SqlRewriteInterceptor.class, DecryptInterceptor.class),
+                types(start(Map.of(), "prod").get(PRIMARY)));
+    }
+
+    @Test
+    @DisplayName("融合模式只注册一个拦截器，关闭的工厂不注册")
+    void testFused() {
+        Map<String, Configuration> configurations = start(Map.of(
+                MyBatisInterceptorAutoConfig.FUSED_INTERCEPTOR_PROPERTY, "true",
+                "seven.security.datasources.[" + REPORT + "].encrypt.enabled", "false",
+                "seven.security.datasources.[" + REPORT + "].data-scope.enabled", "false"));
+
+        assertEquals(List.of(FusedSecurityInterceptor.class),
+                types(configurations.get(PRIMARY)));
+        assertTrue(configurations.get(REPORT).getInterceptors().isEmpty());
+    }
+
+    /**
+     * Starts a context with two factories and returns their configurations
+     * by bean name.
+     */
+    private static Map<String, Configuration> start(Map<String, Object> properties,
+                                                    String... profiles) {
+        Configuration primary = new Configuration();
+        Configuration report = new Configuration();
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources()
+                    .addFirst(new MapPropertySource("test", properties));
+            context.getEnvironment().setActiveProfiles(profiles);
+            context.registerBean(PRIMARY, SqlSessionFactory.class,
+                    () -> new DefaultSqlSessionFactory(primary));
+            context.registerBean(REPORT, SqlSessionFactory.class,
+                    () -> new DefaultSqlSessionFactory(report));
+            context.registerBean(EncryptHintContainer.class);
+            context.register(MyBatisInterceptorAutoConfig.class);
+            context.refresh();
+        }
+        return Map.of(PRIMARY, primary, REPORT, report);
+    }
+
+    private static List<Class<?>> types(Configuration configuration) {
+        return configuration.getInterceptors().stream()
+                .<Class<?>>map(Interceptor::getClass)
+                .toList();
+    }
+}
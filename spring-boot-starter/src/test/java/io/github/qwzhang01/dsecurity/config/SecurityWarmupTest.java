@@ -0,0 +1,134 @@
+package io.github.qwzhang01.dsecurity.config;
+
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 启动预热测试
+ */
+@DisplayName("SecurityWarmup 测试")
+class SecurityWarmupTest {
+
+    private EncryptFieldTableContainer fieldTableContainer;
+    private EncryptionAlgoContainer algoContainer;
+    private DataSecurityRuntime runtime;
+
+    @BeforeEach
+    void setUp() {
+        CountingAlgo.ROUNDS.set(0);
+        FailingAlgo.CALLS.set(0);
+        fieldTableContainer = new EncryptFieldTableContainer();
+        algoContainer = new EncryptionAlgoContainer(new CountingAlgo());
+        runtime = new DataSecurityRuntime(algoContainer, fieldTableContainer,
+                new EncryptHintContainer(), new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("按配置的轮数预热每种算法")
+    void testIterations() {
+        fieldTableContainer.register("user", "phone", CountingAlgo.class);
+
+        warmup(3).onApplicationEvent(null);
+
+        // The default and the column algorithm are one class, exercised once
+        assertEquals(3, CountingAlgo.ROUNDS.get());
+    }
+
+    @Test
+    @DisplayName("轮数为 0 时只实例化算法，负数按 0 处理")
+    void testZeroIterations() {
+        warmup(0).onApplicationEvent(null);
+        warmup(-5).onApplicationEvent(null);
+
+        assertEquals(0, CountingAlgo.ROUNDS.get());
+    }
+
+    @Test
+    @DisplayName("失败的任务不中断预热")
+    void testFailingTask() {
+        fieldTableContainer.register("user", "phone", FailingAlgo.class);
+
+        assertDoesNotThrow(() -> warmup(2).onApplicationEvent(null));
+        assertEquals(1, FailingAlgo.CALLS.get());
+        assertEquals(2, CountingAlgo.ROUNDS.get());
+    }
+
+    @Test
+    @DisplayName("预热静态语句与注册表")
+    void testStatements() {
+        fieldTableContainer.register("user", "phone", CountingAlgo.class);
+        Configuration configuration = new Configuration();
+        configuration.addMapper(UserMapper.class);
+
+        assertDoesNotThrow(() -> new SecurityWarmup(
+                List.of(new DefaultSqlSessionFactory(configuration)),
+                fieldTableContainer, algoContainer, 1).onApplicationEvent(null));
+        assertTrue(fieldTableContainer.hasEncrypt());
+    }
+
+    private SecurityWarmup warmup(int iterations) {
+        return new SecurityWarmup(null, fieldTableContainer, algoContainer, iterations);
+    }
+
+    public interface UserMapper {
+        @Select("SELECT id FROM user WHERE phone = #{phone}")
+        List<Long> findByPhone(String phone);
+    }
+
+    public static class CountingAlgo implements EncryptionAlgo {
+        static final AtomicInteger ROUNDS = new AtomicInteger();
+
+        @Override
+        public String encrypt(String value) {
+            ROUNDS.incrementAndGet();
+            return value;
+        }
+
+        @Override
+        public String decrypt(String value) {
+            return value;
+        }
+
+        @Override
+        public List<String> encryptBatch(List<String> values) {
+            return values;
+        }
+    }
+
+    public static class FailingAlgo implements EncryptionAlgo {
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Override
+        public String encrypt(String value) {
+            CALLS.incrementAndGet();
+            throw new IllegalStateException("key service unavailable");
+        }
+
+        @Override
+        public String decrypt(String value) {
+            return value;
+        }
+    }
+}
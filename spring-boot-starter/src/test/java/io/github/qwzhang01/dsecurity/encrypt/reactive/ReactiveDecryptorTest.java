@@ -0,0 +1,155 @@
+package io.github.qwzhang01.dsecurity.encrypt.reactive;
+
+import io.github.qwzhang01.dsecurity.encrypt.annotation.EncryptField;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptFieldTableContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptHintContainer;
+import io.github.qwzhang01.dsecurity.encrypt.container.EncryptionAlgoContainer;
+import io.github.qwzhang01.dsecurity.encrypt.shield.DefaultEncryptionAlgo;
+import io.github.qwzhang01.dsecurity.encrypt.shield.EncryptionAlgo;
+import io.github.qwzhang01.dsecurity.kit.DataSecurityRuntime;
+import io.github.qwzhang01.dsecurity.scope.container.DataScopeStrategyContainer;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应式解密测试
+ */
+@DisplayName("响应式解密测试")
+class ReactiveDecryptorTest {
+
+    private DataSecurityRuntime runtime;
+    private ReactiveDecryptor decryptor;
+
+    @BeforeEach
+    void setUp() {
+        runtime = new DataSecurityRuntime(
+                new EncryptionAlgoContainer(new DefaultEncryptionAlgo()),
+                new EncryptFieldTableContainer(), new EncryptHintContainer(),
+                new DataScopeStrategyContainer());
+        DataSecurityRuntime.install(runtime);
+        decryptor = new ReactiveDecryptor(Schedulers.parallel(), 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        decryptor.dispose();
+        runtime.uninstall();
+    }
+
+    @Test
+    @DisplayName("并行解密且保持顺序")
+    void testOrderPreserved() {
+        List<User> users = IntStream.range(0, 1000)
+                .mapToObj(i -> new User(i, new StringBuilder("phone" + i).reverse().toString()))
+                .collect(Collectors.toList());
+
+        List<User> result = decryptor.decrypt(Flux.fromIterable(users))
+                .collectList().block();
+
+        assertNotNull(result);
+        assertEquals(1000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, result.get(i).id);
+            assertEquals("phone" + i, result.get(i).phone);
+        }
+    }
+
+    @Test
+    @DisplayName("按需拉取，不缓存整个结果")
+    void testBackpressure() {
+        AtomicLong requested = new AtomicLong();
+        Flux<User> endless = Flux.<User, Integer>generate(() -> 0, (i, sink) -> {
+            sink.next(new User(i, "x"));
+            return i + 1;
+        }).doOnRequest(n -> requested.addAndGet(Math.min(n, 1_000_000)));
+
+        List<User> first = decryptor.decrypt(endless).take(20, true).collectList().block();
+
+        assertNotNull(first);
+        assertEquals(20, first.size());
+        assertTrue(requested.get() < 1_000_000, "上游请求量应有界: " + requested.get());
+    }
+
+    @Test
+    @DisplayName("游标读取完毕后关闭")
+    void testCursorClosed() {
+        ListCursor<User> cursor = new ListCursor<>(List.of(new User(1, "cba"), new User(2, "fed")));
+
+        List<String> phones = decryptor.decrypt(ReactiveDecryptor.fromCursor(() -> cursor))
+                .map(user -> user.phone).collectList().block();
+
+        assertEquals(List.of("abc", "def"), phones);
+        assertFalse(cursor.isOpen());
+    }
+
+    public static class ReverseAlgo implements EncryptionAlgo {
+        @Override
+        public String encrypt(String value) {
+            return new StringBuilder(value).reverse().toString();
+        }
+
+        @Override
+        public String decrypt(String value) {
+            return new StringBuilder(value).reverse().toString();
+        }
+    }
+
+    static class User {
+        private final int id;
+        @EncryptField(ReverseAlgo.class)
+        private String phone;
+
+        User(int id, String phone) {
+            this.id = id;
+            this.phone = phone;
+        }
+    }
+
+    static class ListCursor<T> implements Cursor<T> {
+        private final List<T> rows;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        ListCursor(List<T> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return false;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return -1;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return rows.iterator();
+        }
+
+        @Override
+        public void close() {
+            open.set(false);
+        }
+    }
+}